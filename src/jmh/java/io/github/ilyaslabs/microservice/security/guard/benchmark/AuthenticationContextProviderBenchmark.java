@@ -0,0 +1,53 @@
+package io.github.ilyaslabs.microservice.security.guard.benchmark;
+
+import io.github.ilyaslabs.microservice.security.guard.SpringAuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SpringAuthenticationContextProvider#currentOptional()} with an authenticated security context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationContextProviderBenchmark {
+
+    private final SpringAuthenticationContextProvider provider = new SpringAuthenticationContextProvider();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AuthenticationContext context = new AuthenticationContext(new ObjectId(), List.of(), false);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(context, null, List.of()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Optional<AuthenticationContext> currentOptional() {
+        return provider.currentOptional();
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.ilyaslabs.microservice.security.guard.benchmark;
+
+import io.github.ilyaslabs.microservice.security.guard.network.CidrTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CidrTrie#contains(String)} for IPv4 and IPv6 remote addresses against an allowlist of a few
+ * hundred ranges, including the parsing of the address literal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CidrTrieBenchmark {
+
+    @Param({"10.20.30.40", "192.0.2.1", "fd00:1234:5678::9", "2001:db8::1", "::ffff:10.20.30.40"})
+    public String address;
+
+    private CidrTrie trie;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        List<String> ranges = new ArrayList<>();
+
+        for (int i = 0; i < 256; i++) {
+            ranges.add("10." + i + ".0.0/16");
+            ranges.add("fd00:" + Integer.toHexString(i << 4) + "::/32");
+        }
+
+        trie = CidrTrie.of(ranges);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return trie.contains(address);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.ilyaslabs.microservice.security.guard.benchmark;
+
+import io.github.ilyaslabs.microservice.security.guard.AuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.ScopedAuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.SpringAuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs 100k concurrent virtual-thread "requests", each binding an authentication context and reading it
+ * several times through the {@link AuthenticationContextProvider}, comparing the ThreadLocal backed
+ * {@code SecurityContextHolder} with the {@link ScopedAuthenticationContextProvider}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContextHolderBenchmark {
+
+    private static final int REQUESTS = 100_000;
+
+    private static final int READS_PER_REQUEST = 10;
+
+    @Param({"thread-local", "scoped-value"})
+    public String mode;
+
+    private AuthenticationContextProvider provider;
+
+    private AuthenticationContext context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        provider = "scoped-value".equals(mode)
+                ? new ScopedAuthenticationContextProvider()
+                : new SpringAuthenticationContextProvider();
+        context = new AuthenticationContext(new ObjectId(), List.of(), false);
+    }
+
+    @Benchmark
+    public long virtualThreadRequests() {
+
+        LongAdder reads = new LongAdder();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                executor.execute(() -> handleRequest(reads));
+            }
+        }
+
+        return reads.sum();
+    }
+
+    private void handleRequest(LongAdder reads) {
+        try {
+            if (provider instanceof ScopedAuthenticationContextProvider) {
+                ScopedAuthenticationContextProvider.runWithContext(context, () -> readContext(reads));
+            } else {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(context, null, List.of()));
+                try {
+                    readContext(reads);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void readContext(LongAdder reads) {
+        for (int i = 0; i < READS_PER_REQUEST; i++) {
+            if (provider.current() == context) {
+                reads.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.ilyaslabs.microservice.security.guard.benchmark;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.path.PublicPathMatcher;
+import jakarta.servlet.FilterChain;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures an {@code /actuator/health} request through the {@link CustomAuthenticationWebFilter} with and without
+ * the public path bypass, for a growing number of configured patterns, and the bare {@link PublicPathMatcher}
+ * lookup for a public and a non-public path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicPathBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"false", "true"})
+    public boolean bypass;
+
+    @Param({"1", "100", "10000"})
+    public int patterns;
+
+    private CustomAuthenticationWebFilter filter;
+
+    private PublicPathMatcher matcher;
+
+    private MockHttpServletRequest health;
+
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> publicPaths = new ArrayList<>();
+        publicPaths.add("/actuator/health");
+        for (int i = 1; i < patterns; i++) {
+            publicPaths.add("/public-" + i + "/**");
+        }
+
+        matcher = new PublicPathMatcher(publicPaths);
+
+        filter = new CustomAuthenticationWebFilter();
+        if (bypass) {
+            filter.setPublicPathMatcher(matcher);
+        }
+
+        health = new MockHttpServletRequest("GET", "/actuator/health");
+        health.addHeader(SecurityHeaders.X_USER_ID.getName(), new ObjectId().toHexString());
+        health.addHeader(SecurityHeaders.X_SCOPES.getName(), "read write");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object healthRequest() throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(health, response, NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public boolean matchPublic() {
+        return matcher.matches("/actuator/health");
+    }
+
+    @Benchmark
+    public boolean matchNonPublic() {
+        return matcher.matches("/api/v1/users/42");
+    }
+}
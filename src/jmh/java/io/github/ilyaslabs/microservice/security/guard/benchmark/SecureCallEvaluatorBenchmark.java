@@ -0,0 +1,52 @@
+package io.github.ilyaslabs.microservice.security.guard.benchmark;
+
+import io.github.ilyaslabs.microservice.security.guard.SecureCallEvaluator;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SecureCallEvaluator#isAllowed(Authentication)} for internal and gateway callers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecureCallEvaluatorBenchmark {
+
+    @Param({"true", "false"})
+    public boolean gatewayCall;
+
+    private final SecureCallEvaluator secureCallEvaluator = new SecureCallEvaluator();
+
+    private Authentication authentication;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AuthenticationContext context = new AuthenticationContext(new ObjectId(), List.of(), gatewayCall);
+        authentication = new UsernamePasswordAuthenticationToken(context, null, List.of());
+    }
+
+    @Benchmark
+    public boolean isAllowed() {
+        return secureCallEvaluator.isAllowed(authentication);
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.ilyaslabs.microservice.security.guard.benchmark;
+
+import io.github.ilyaslabs.microservice.security.guard.SecureCallEvaluator;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import io.github.ilyaslabs.microservice.security.guard.audit.SecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.authorization.CompiledSecuredPostProcessor;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full {@link Secured} method invocation through the method-security proxy, comparing the
+ * {@code expression} and {@code compiled} modes of {@link CompiledSecuredPostProcessor} as the library registers
+ * them. The {@code raw} mode leaves out the post processor and gives the baseline of plain Spring method security.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecuredInvocationBenchmark {
+
+    @Param({"raw", "expression", "compiled"})
+    public String mode;
+
+    private AnnotationConfigApplicationContext context;
+
+    private SecuredService securedService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        if (!"raw".equals(mode)) {
+            context.registerBean(CompiledSecuredPostProcessor.class,
+                    () -> new CompiledSecuredPostProcessor(context.getBeanProvider(SecureCallEvaluator.class),
+                            context.getBeanProvider(SecurityAuditLog.class), "compiled".equals(mode)));
+        }
+        context.register(MethodSecurityConfig.class);
+        context.refresh();
+
+        securedService = context.getBean(SecuredService.class);
+
+        AuthenticationContext authenticationContext = new AuthenticationContext(new ObjectId(), List.of(), false);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(authenticationContext, null, List.of()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public String securedInvocation() {
+        return securedService.call();
+    }
+
+    @Configuration
+    @EnableMethodSecurity
+    static class MethodSecurityConfig {
+
+        @Bean
+        SecureCallEvaluator secureCallEvaluator() {
+            return new SecureCallEvaluator();
+        }
+
+        @Bean
+        SecuredService securedService() {
+            return new SecuredService();
+        }
+    }
+
+    public static class SecuredService {
+
+        @Secured
+        public String call() {
+            return "OK";
+        }
+    }
+}
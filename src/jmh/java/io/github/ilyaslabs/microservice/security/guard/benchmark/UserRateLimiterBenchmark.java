@@ -0,0 +1,66 @@
+package io.github.ilyaslabs.microservice.security.guard.benchmark;
+
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.ratelimit.RateLimitPolicy;
+import io.github.ilyaslabs.microservice.security.guard.ratelimit.UserRateLimiter;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link UserRateLimiter#tryAcquire(AuthenticationContext)} under 64 threads, either each thread
+ * acting as its own user or all threads contending on the bucket of a single user.
+ * The rate is high enough that most requests are admitted, so every call attempts a compare-and-set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class UserRateLimiterBenchmark {
+
+    @Param({"distinct", "shared"})
+    public String users;
+
+    private UserRateLimiter limiter;
+
+    private AuthenticationContext sharedUser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        RateLimitPolicy policy = new RateLimitPolicy(1e9, 1_000_000);
+        limiter = new UserRateLimiter(policy, policy, policy, Duration.ofMinutes(5));
+        sharedUser = new AuthenticationContext(new ObjectId(), List.of(), false);
+    }
+
+    @Benchmark
+    public long tryAcquire(Caller caller) {
+        return limiter.tryAcquire("shared".equals(users) ? sharedUser : caller.user);
+    }
+
+    /**
+     * The user of a benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+
+        private final AuthenticationContext user = new AuthenticationContext(new ObjectId(), List.of(), false);
+    }
+}
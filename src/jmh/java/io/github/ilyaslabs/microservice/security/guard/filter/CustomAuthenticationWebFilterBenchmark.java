@@ -0,0 +1,131 @@
+package io.github.ilyaslabs.microservice.security.guard.filter;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.metrics.MicrometerSecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CustomAuthenticationWebFilter#doFilterInternal} for realistic header mixes, with and without
+ * the {@link ScopeAuthorityCache}, with metrics disabled or recorded into a Micrometer registry, and with the
+ * context built eagerly or lazily. The chain does not read the context, as for endpoints that do not use the
+ * caller's identity. The request and response are reused so that only the filter itself is measured.
+ * The {@code compact-50} mix sends the scopes of {@code scopes-50} as an {@code X-SCOPES-COMPACT} bitmask; it is
+ * decoded through the cache, which is then always backed by a registry of the benchmark scopes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomAuthenticationWebFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"none", "gateway", "scopes-1", "scopes-10", "scopes-50", "compact-50", "invalid-id"})
+    public String headers;
+
+    @Param({"true", "false"})
+    public boolean scopeCache;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private CustomAuthenticationWebFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ScopeRegistry registry = ScopeRegistry.of(List.of(scopes(50).split(" ")));
+
+        if ("compact-50".equals(headers)) {
+            filter = new CustomAuthenticationWebFilter(new ScopeAuthorityCache(1024, 4096, registry));
+        } else {
+            filter = scopeCache
+                    ? new CustomAuthenticationWebFilter(new ScopeAuthorityCache(1024, 4096))
+                    : new CustomAuthenticationWebFilter();
+        }
+
+        filter.setLazyContext(lazy);
+
+        if (metrics) {
+            filter.setMetrics(new MicrometerSecurityGuardMetrics(new SimpleMeterRegistry()));
+        }
+
+        request = new MockHttpServletRequest("GET", "/api/v1/resource");
+        response = new MockHttpServletResponse();
+
+        switch (headers) {
+            case "none" -> {
+            }
+            case "gateway" -> {
+                request.addHeader(SecurityHeaders.X_API_GATEWAY.getName(), "true");
+                request.addHeader(SecurityHeaders.X_USER_ID.getName(), new ObjectId().toHexString());
+                request.addHeader(SecurityHeaders.X_SCOPES.getName(), scopes(3));
+            }
+            case "scopes-1" -> withUser(1);
+            case "scopes-10" -> withUser(10);
+            case "scopes-50" -> withUser(50);
+            case "compact-50" -> {
+                request.addHeader(SecurityHeaders.X_USER_ID.getName(), new ObjectId().toHexString());
+                request.addHeader(SecurityHeaders.X_SCOPES_COMPACT.getName(),
+                        registry.mask(List.of(scopes(50).split(" "))).toCompactHeaderValue());
+            }
+            case "invalid-id" -> {
+                request.addHeader(SecurityHeaders.X_USER_ID.getName(), "not-an-object-id");
+                request.addHeader(SecurityHeaders.X_SCOPES.getName(), scopes(3));
+            }
+            default -> throw new IllegalArgumentException("Unknown header mix: " + headers);
+        }
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilterInternal(request, response, NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private void withUser(int scopeCount) {
+        request.addHeader(SecurityHeaders.X_USER_ID.getName(), new ObjectId().toHexString());
+        request.addHeader(SecurityHeaders.X_SCOPES.getName(), scopes(scopeCount));
+    }
+
+    private static String scopes(int count) {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (int i = 0; i < count; i++) {
+            joiner.add("service-" + i + ":read");
+        }
+        return joiner.toString();
+    }
+}
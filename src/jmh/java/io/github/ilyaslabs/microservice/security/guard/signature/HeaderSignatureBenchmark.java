@@ -0,0 +1,100 @@
+package io.github.ilyaslabs.microservice.security.guard.signature;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of signed security headers: verifying a signature with the per-thread {@code Mac}
+ * and the replay check, signing an outgoing call, and, for comparison, a verification that obtains a new
+ * {@code Mac} through {@link Mac#getInstance} on every call.
+ * <p>
+ * The verifier cycles through a fixed set of signatures; once each was accepted, repeats are rejected as replays
+ * after the same MAC computation and nonce probe, so the measured work does not change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeaderSignatureBenchmark {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private static final int SIGNATURES = 1024;
+
+    private static final String SCOPES = "orders:read orders:write profile:read";
+
+    private HeaderSigner signer;
+
+    private HeaderSignatureVerifier verifier;
+
+    private String userId;
+
+    private String[] timestamps;
+
+    private String[] nonces;
+
+    private String[] signatures;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        signer = new HeaderSigner(SECRET);
+        verifier = new HeaderSignatureVerifier(SECRET, Duration.ofHours(1), 4 * SIGNATURES);
+        userId = new ObjectId().toHexString();
+
+        timestamps = new String[SIGNATURES];
+        nonces = new String[SIGNATURES];
+        signatures = new String[SIGNATURES];
+        for (int i = 0; i < SIGNATURES; i++) {
+            Map<String, String> headers = new HashMap<>();
+            signer.sign(userId, SCOPES, headers::put);
+            timestamps[i] = headers.get(SecurityHeaders.X_SIGNATURE_TIMESTAMP.getName());
+            nonces[i] = headers.get(SecurityHeaders.X_SIGNATURE_NONCE.getName());
+            signatures[i] = headers.get(SecurityHeaders.X_SIGNATURE.getName());
+        }
+    }
+
+    @Benchmark
+    public boolean verify() {
+        int i = next++ & (SIGNATURES - 1);
+        return verifier.verify(userId, SCOPES, null, timestamps[i], nonces[i], signatures[i]);
+    }
+
+    @Benchmark
+    public int sign() {
+        int[] written = new int[1];
+        signer.sign(userId, SCOPES, (_, value) -> written[0] += value.length());
+        return written[0];
+    }
+
+    @Benchmark
+    public byte[] macGetInstancePerCall() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+        mac.update(userId.getBytes(StandardCharsets.UTF_8));
+        mac.update(SCOPES.getBytes(StandardCharsets.UTF_8));
+        return mac.doFinal();
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.ilyaslabs.microservice.security.guard.loadtest;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the heap allocated by the request thread while the rest of the filter chain, including the Spring
+ * Security chain and the handler, processes a request. Registered ahead of every other filter, so that only
+ * the container's own request parsing is left out.
+ * <p>
+ * Relies on the HotSpot thread allocation counters, which are exact per platform thread; the embedded server
+ * is therefore run on platform threads even though the clients are virtual.
+ */
+class AllocationTrackingFilter implements Filter {
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<CallType, LongAdder> bytes = new EnumMap<>(CallType.class);
+
+    private final Map<CallType, LongAdder> requests = new EnumMap<>(CallType.class);
+
+    AllocationTrackingFilter() {
+        for (CallType type : CallType.values()) {
+            bytes.put(type, new LongAdder());
+            requests.put(type, new LongAdder());
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+
+        String header = ((HttpServletRequest) request).getHeader(CallType.HEADER);
+        if (header == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CallType type = CallType.valueOf(header);
+            bytes.get(type).add(threads.getCurrentThreadAllocatedBytes() - before);
+            requests.get(type).increment();
+        }
+    }
+
+    /**
+     * Returns the mean number of bytes allocated per request of the given type since the last {@link #reset()}.
+     *
+     * @param type the call type
+     * @return the mean allocation in bytes, 0 if no request was seen
+     */
+    long allocatedBytesPerRequest(CallType type) {
+        long count = requests.get(type).sum();
+        return count == 0 ? 0 : bytes.get(type).sum() / count;
+    }
+
+    /**
+     * Discards the allocations recorded so far, e.g. those of the warm-up round.
+     */
+    void reset() {
+        bytes.values().forEach(LongAdder::reset);
+        requests.values().forEach(LongAdder::reset);
+    }
+}
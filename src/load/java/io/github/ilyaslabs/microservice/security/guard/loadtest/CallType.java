@@ -0,0 +1,102 @@
+package io.github.ilyaslabs.microservice.security.guard.loadtest;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import org.bson.types.ObjectId;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+
+/**
+ * The kinds of calls driven by the {@link SecurityChainLoadTest}, with the share of the traffic each one takes.
+ * Every call carries the {@link #HEADER} so that the server side can attribute allocations to its type.
+ */
+enum CallType {
+
+    /**
+     * A call routed through the API gateway to a plain endpoint.
+     */
+    GATEWAY("/load/open", true, 200, 4),
+
+    /**
+     * A service-to-service call to a plain endpoint.
+     */
+    INTERNAL("/load/open", false, 200, 3),
+
+    /**
+     * A service-to-service call to a {@code @Secured} endpoint.
+     */
+    SECURED("/load/secured", false, 200, 2),
+
+    /**
+     * A gateway call to a {@code @Secured} endpoint, rejected with 403.
+     */
+    REJECTED("/load/secured", true, 403, 1);
+
+    static final String HEADER = "X-Load-Call-Type";
+
+    private static final CallType[] SCHEDULE = schedule();
+
+    private final String path;
+
+    private final boolean gatewayCall;
+
+    private final int expectedStatus;
+
+    private final int weight;
+
+    CallType(String path, boolean gatewayCall, int expectedStatus, int weight) {
+        this.path = path;
+        this.gatewayCall = gatewayCall;
+        this.expectedStatus = expectedStatus;
+        this.weight = weight;
+    }
+
+    /**
+     * Returns the call type for the n-th call of a client. Clients start at different offsets of a fixed
+     * weighted schedule, so the mix is the same on every run and evenly spread over time.
+     *
+     * @param client the client index
+     * @param call   the call index within the client
+     * @return the call type
+     */
+    static CallType forCall(int client, int call) {
+        return SCHEDULE[(client + call) % SCHEDULE.length];
+    }
+
+    int expectedStatus() {
+        return expectedStatus;
+    }
+
+    HttpRequest request(URI baseUri, ObjectId userId) {
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header(HEADER, name())
+                .header(SecurityHeaders.X_USER_ID.getName(), userId.toHexString())
+                .header(SecurityHeaders.X_SCOPES.getName(), "orders:read orders:write profile")
+                .GET();
+
+        if (gatewayCall) {
+            builder.header(SecurityHeaders.X_API_GATEWAY.getName(), "true");
+        }
+
+        return builder.build();
+    }
+
+    private static CallType[] schedule() {
+
+        int total = 0;
+        for (CallType type : values()) {
+            total += type.weight;
+        }
+
+        CallType[] schedule = new CallType[total];
+        int next = 0;
+        for (CallType type : values()) {
+            for (int i = 0; i < type.weight; i++) {
+                schedule[next++] = type;
+            }
+        }
+
+        return schedule;
+    }
+}
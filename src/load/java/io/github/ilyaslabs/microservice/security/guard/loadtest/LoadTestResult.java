@@ -0,0 +1,175 @@
+package io.github.ilyaslabs.microservice.security.guard.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The outcome of a load test run: overall throughput and, per {@link CallType}, latency percentiles and the
+ * heap allocated per request. Results are stored as properties so that a baseline can be kept next to the
+ * sources and diffed like any other file.
+ *
+ * @param throughput requests per second over the measured round
+ * @param calls      the statistics per call type
+ */
+record LoadTestResult(double throughput, Map<CallType, CallStatistics> calls) {
+
+    /**
+     * Latency percentiles in microseconds and the mean allocation per request in bytes.
+     */
+    record CallStatistics(long requests, long p50, long p99, long p999, long allocatedBytes) {
+
+        /**
+         * Computes the statistics of a call type from its latency samples.
+         *
+         * @param latenciesNanos the latencies in nanoseconds, sorted in place
+         * @param allocatedBytes the mean allocation per request
+         * @return the statistics
+         */
+        static CallStatistics of(long[] latenciesNanos, long allocatedBytes) {
+            Arrays.sort(latenciesNanos);
+            return new CallStatistics(latenciesNanos.length,
+                    percentileMicros(latenciesNanos, 0.50),
+                    percentileMicros(latenciesNanos, 0.99),
+                    percentileMicros(latenciesNanos, 0.999),
+                    allocatedBytes);
+        }
+
+        private static long percentileMicros(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            // nearest rank
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1_000;
+        }
+    }
+
+    /**
+     * Regression limits, each relative to the baseline value.
+     *
+     * @param maxThroughputDrop    the tolerated throughput drop, e.g. 0.15 for 15%
+     * @param maxLatencyIncrease   the tolerated p99 latency increase
+     * @param maxAllocationIncrease the tolerated increase of the allocation per request
+     */
+    record Thresholds(double maxThroughputDrop, double maxLatencyIncrease, double maxAllocationIncrease) {
+    }
+
+    /**
+     * Compares this result with a baseline.
+     *
+     * @param baseline   the stored baseline
+     * @param thresholds the tolerated regressions
+     * @return a description of every regression beyond its threshold, empty if there is none
+     */
+    List<String> regressionsAgainst(LoadTestResult baseline, Thresholds thresholds) {
+
+        List<String> regressions = new ArrayList<>();
+
+        if (throughput < baseline.throughput * (1 - thresholds.maxThroughputDrop())) {
+            regressions.add("throughput %.0f req/s is below baseline %.0f req/s".formatted(throughput, baseline.throughput));
+        }
+
+        for (Map.Entry<CallType, CallStatistics> entry : calls.entrySet()) {
+
+            CallStatistics expected = baseline.calls.get(entry.getKey());
+            if (expected == null) {
+                continue;
+            }
+
+            CallStatistics actual = entry.getValue();
+            if (actual.p99() > expected.p99() * (1 + thresholds.maxLatencyIncrease())) {
+                regressions.add("%s p99 %d us is above baseline %d us".formatted(entry.getKey(), actual.p99(), expected.p99()));
+            }
+            if (actual.allocatedBytes() > expected.allocatedBytes() * (1 + thresholds.maxAllocationIncrease())) {
+                regressions.add("%s allocation %d B/req is above baseline %d B/req"
+                        .formatted(entry.getKey(), actual.allocatedBytes(), expected.allocatedBytes()));
+            }
+        }
+
+        return regressions;
+    }
+
+    /**
+     * Formats the result as a table.
+     *
+     * @return the report
+     */
+    String report() {
+
+        StringBuilder report = new StringBuilder()
+                .append("throughput: %.0f req/s%n".formatted(throughput))
+                .append("%-10s %10s %10s %10s %10s %12s%n".formatted("call", "requests", "p50 us", "p99 us", "p999 us", "alloc B/req"));
+
+        calls.forEach((type, statistics) -> report.append("%-10s %10d %10d %10d %10d %12d%n".formatted(type,
+                statistics.requests(), statistics.p50(), statistics.p99(), statistics.p999(), statistics.allocatedBytes())));
+
+        return report.toString();
+    }
+
+    /**
+     * Writes the result to a properties file, creating parent directories as needed.
+     *
+     * @param file the target file
+     * @throws IOException if the file cannot be written
+     */
+    void store(Path file) throws IOException {
+
+        Properties properties = new Properties();
+        properties.setProperty("throughput", Long.toString(Math.round(throughput)));
+
+        calls.forEach((type, statistics) -> {
+            String prefix = type.name().toLowerCase() + ".";
+            properties.setProperty(prefix + "requests", Long.toString(statistics.requests()));
+            properties.setProperty(prefix + "p50", Long.toString(statistics.p50()));
+            properties.setProperty(prefix + "p99", Long.toString(statistics.p99()));
+            properties.setProperty(prefix + "p999", Long.toString(statistics.p999()));
+            properties.setProperty(prefix + "allocated-bytes", Long.toString(statistics.allocatedBytes()));
+        });
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, "security-guard load test result; latencies in microseconds");
+        }
+    }
+
+    /**
+     * Reads a result written by {@link #store(Path)}.
+     *
+     * @param file the source file
+     * @return the result
+     * @throws IOException if the file cannot be read
+     */
+    static LoadTestResult load(Path file) throws IOException {
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+
+        Map<CallType, CallStatistics> calls = new EnumMap<>(CallType.class);
+        for (CallType type : CallType.values()) {
+            String prefix = type.name().toLowerCase() + ".";
+            if (properties.containsKey(prefix + "p99")) {
+                calls.put(type, new CallStatistics(
+                        Long.parseLong(properties.getProperty(prefix + "requests", "0")),
+                        Long.parseLong(properties.getProperty(prefix + "p50", "0")),
+                        Long.parseLong(properties.getProperty(prefix + "p99")),
+                        Long.parseLong(properties.getProperty(prefix + "p999", "0")),
+                        Long.parseLong(properties.getProperty(prefix + "allocated-bytes", "0"))));
+            }
+        }
+
+        return new LoadTestResult(Double.parseDouble(properties.getProperty("throughput", "0")), calls);
+    }
+}
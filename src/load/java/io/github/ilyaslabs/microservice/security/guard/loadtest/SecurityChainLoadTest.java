@@ -0,0 +1,239 @@
+package io.github.ilyaslabs.microservice.security.guard.loadtest;
+
+import io.github.ilyaslabs.microservice.security.guard.HttpSecurityTestApplication;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the full servlet security chain, as assembled by {@code HttpSecurityConfigurer}, on an embedded server
+ * from thousands of virtual-thread clients over loopback, with a fixed mix of gateway, internal, {@link Secured}
+ * and rejected calls (see {@link CallType}).
+ * <p>
+ * Each client sends its calls back to back, first for a warm-up round and then for the measured round. The
+ * test reports throughput, p50/p99/p999 latency and the heap allocated per request, writes them to
+ * {@code load.result}, and fails if they regress beyond the configured thresholds against the baseline at
+ * {@code load.baseline}. Without a baseline the run only reports, unless {@code -Dload.require-baseline=true} is
+ * set or the {@code CI} environment variable is present, in which case a missing baseline fails the run;
+ * {@code -Dload.update-baseline=true} stores the result as the new baseline. Baselines are specific to the machine
+ * they were recorded on, so none is committed.
+ * <p>
+ * Run with {@code mvn -Pload-test test}; every parameter is a system property, see the {@code load-test}
+ * profile for the defaults.
+ */
+@SpringBootTest(
+        classes = {HttpSecurityTestApplication.class, SecurityChainLoadTest.LoadTestConfiguration.class, SecurityChainLoadTest.LoadEndpoint.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // the allocation counters are exact only for platform threads
+                "spring.threads.virtual.enabled=false",
+                "server.tomcat.accept-count=4096"
+        }
+)
+class SecurityChainLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityChainLoadTest.class);
+
+    private final int clients = Integer.getInteger("load.clients", 2000);
+
+    private final int warmupRequests = Integer.getInteger("load.warmup-requests-per-client", 20);
+
+    private final int measuredRequests = Integer.getInteger("load.requests-per-client", 50);
+
+    private final Path baselineFile = Path.of(System.getProperty("load.baseline", "src/load/baseline.properties"));
+
+    private final boolean requireBaseline = Boolean.getBoolean("load.require-baseline") || System.getenv("CI") != null;
+
+    private final Path resultFile = Path.of(System.getProperty("load.result", "target/load-test-result.properties"));
+
+    private final LoadTestResult.Thresholds thresholds = new LoadTestResult.Thresholds(
+            Double.parseDouble(System.getProperty("load.max-throughput-drop", "0.15")),
+            Double.parseDouble(System.getProperty("load.max-latency-increase", "0.30")),
+            Double.parseDouble(System.getProperty("load.max-allocation-increase", "0.10")));
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private AllocationTrackingFilter allocationTrackingFilter;
+
+    @RestController
+    public static class LoadEndpoint {
+
+        @GetMapping("/load/open")
+        public String open() {
+            return "OK";
+        }
+
+        @Secured
+        @GetMapping("/load/secured")
+        public String secured() {
+            return "OK";
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class LoadTestConfiguration {
+
+        @Bean
+        AllocationTrackingFilter allocationTrackingFilter() {
+            return new AllocationTrackingFilter();
+        }
+
+        @Bean
+        FilterRegistrationBean<AllocationTrackingFilter> allocationTrackingFilterRegistration(AllocationTrackingFilter filter) {
+            FilterRegistrationBean<AllocationTrackingFilter> registration = new FilterRegistrationBean<>(filter);
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+
+    @Test
+    void testSecurityChainUnderLoad() throws Exception {
+
+        URI baseUri = URI.create("http://127.0.0.1:" + port);
+        ObjectId[] userIds = new ObjectId[clients];
+        for (int i = 0; i < clients; i++) {
+            userIds[i] = new ObjectId();
+        }
+
+        try (HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build()) {
+
+            Round warmup = run(httpClient, baseUri, userIds, warmupRequests);
+            assertThat(warmup.failures()).as("failed calls during warm-up").isZero();
+
+            allocationTrackingFilter.reset();
+
+            Round measured = run(httpClient, baseUri, userIds, measuredRequests);
+            assertThat(measured.failures()).as("failed calls").isZero();
+
+            LoadTestResult result = measured.result(allocationTrackingFilter);
+            log.info("Load test result:\n{}", result.report());
+            result.store(resultFile);
+
+            if (Boolean.getBoolean("load.update-baseline")) {
+                result.store(baselineFile);
+                log.info("Baseline updated: {}", baselineFile.toAbsolutePath());
+                return;
+            }
+
+            if (!Files.exists(baselineFile)) {
+                assertThat(requireBaseline)
+                        .as("no baseline at %s; record one on this machine with -Dload.update-baseline=true", baselineFile.toAbsolutePath())
+                        .isFalse();
+                log.warn("No baseline at {}, skipping regression check", baselineFile.toAbsolutePath());
+                return;
+            }
+
+            List<String> regressions = result.regressionsAgainst(LoadTestResult.load(baselineFile), thresholds);
+            assertThat(regressions).as("regressions against " + baselineFile).isEmpty();
+        }
+    }
+
+    private Round run(HttpClient httpClient, URI baseUri, ObjectId[] userIds, int requestsPerClient) throws InterruptedException {
+
+        long[][] latencies = new long[clients][requestsPerClient];
+        LongAdder failures = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+
+        long begin;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            for (int client = 0; client < clients; client++) {
+                int index = client;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        for (int call = 0; call < requestsPerClient; call++) {
+                            CallType type = CallType.forCall(index, call);
+                            long sent = System.nanoTime();
+                            HttpResponse<Void> response = httpClient.send(type.request(baseUri, userIds[index]),
+                                    HttpResponse.BodyHandlers.discarding());
+                            latencies[index][call] = System.nanoTime() - sent;
+                            if (response.statusCode() != type.expectedStatus()) {
+                                failures.increment();
+                            }
+                        }
+                    } catch (IOException e) {
+                        failures.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            begin = System.nanoTime();
+            start.countDown();
+        }
+
+        return new Round(latencies, failures.sum(), System.nanoTime() - begin);
+    }
+
+    /**
+     * The raw samples of one round; {@code latencies[client][call]} is in nanoseconds.
+     */
+    private record Round(long[][] latencies, long failures, long elapsedNanos) {
+
+        LoadTestResult result(AllocationTrackingFilter allocations) {
+
+            int clients = latencies.length;
+            int requestsPerClient = clients == 0 ? 0 : latencies[0].length;
+
+            Map<CallType, long[]> samples = new EnumMap<>(CallType.class);
+            Map<CallType, Integer> counts = new EnumMap<>(CallType.class);
+            for (int client = 0; client < clients; client++) {
+                for (int call = 0; call < requestsPerClient; call++) {
+                    counts.merge(CallType.forCall(client, call), 1, Integer::sum);
+                }
+            }
+            counts.forEach((type, count) -> samples.put(type, new long[count]));
+
+            Map<CallType, Integer> next = new EnumMap<>(CallType.class);
+            for (int client = 0; client < clients; client++) {
+                for (int call = 0; call < requestsPerClient; call++) {
+                    CallType type = CallType.forCall(client, call);
+                    int position = next.merge(type, 1, Integer::sum) - 1;
+                    samples.get(type)[position] = latencies[client][call];
+                }
+            }
+
+            Map<CallType, LoadTestResult.CallStatistics> calls = new EnumMap<>(CallType.class);
+            samples.forEach((type, values) ->
+                    calls.put(type, LoadTestResult.CallStatistics.of(values, allocations.allocatedBytesPerRequest(type))));
+
+            double throughput = (double) clients * requestsPerClient * 1_000_000_000L / elapsedNanos;
+            return new LoadTestResult(throughput, calls);
+        }
+    }
+}
@@ -1,35 +1,102 @@
 package io.github.ilyaslabs.microservice.security.guard;
 
+import io.github.ilyaslabs.microservice.security.guard.audit.SecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.authorization.AuthorizationDecisionCache;
+import io.github.ilyaslabs.microservice.security.guard.authorization.CompiledSecuredPostProcessor;
+import io.github.ilyaslabs.microservice.security.guard.authorization.RequireScopesAdvisor;
+import io.github.ilyaslabs.microservice.security.guard.authorization.SecuredHandlerIndex;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
 import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.jwt.JwtAuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.network.TrustedNetworks;
+import io.github.ilyaslabs.microservice.security.guard.path.PublicPathMatcher;
+import io.github.ilyaslabs.microservice.security.guard.policy.ReloadablePathPolicy;
+import io.github.ilyaslabs.microservice.security.guard.outbound.AuthenticationContextClientHttpRequestInterceptor;
+import io.github.ilyaslabs.microservice.security.guard.outbound.AuthenticationContextHttpRequests;
+import io.github.ilyaslabs.microservice.security.guard.ratelimit.RateLimitPolicy;
+import io.github.ilyaslabs.microservice.security.guard.ratelimit.UserRateLimiter;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSignatureVerifier;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSigner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Configures the security settings for the application, integrating Spring Security components such as
  * custom authentication filters, security configurations, and filter chains.
  * Responsibilities:
  */
-@Configuration
+@Configuration(proxyBeanMethods = false)
 @EnableWebSecurity
 @EnableMethodSecurity
+@Import({SecurityGuardConfiguration.class, SecurityGuardDefaultsConfiguration.Selector.class})
 public class HttpSecurityConfigurer {
 
     /**
      * Provides a custom authentication filter for processing HTTP requests and extracting
      * user-specific authentication details using custom headers.
      *
+     * @param authenticationContextResolver the resolver used to build authentication contexts from headers.
+     * @param jwtAuthenticationContextResolver the resolver of bearer tokens, available when JWT authentication is enabled.
+     * @param metrics the metrics recording authentications, available when Micrometer is present.
+     * @param publicPathMatcher the matcher of public paths that skip the filter.
+     * @param securedHandlerIndex the index of secured handlers, available when early rejection is enabled.
+     * @param rejectionResponseWriter the writer of the pre-serialized 401 response.
+     * @param userRateLimiter the per-user rate limiter, available when rate limiting is enabled.
+     * @param trustedNetworks the address ranges internal and gateway calls are accepted from.
+     * @param headerSignatureVerifier the verifier of signed headers, available when header signatures are enabled.
+     * @param pathPolicy the declarative path policy, available when a policy file is configured.
+     * @param properties the security guard configuration properties.
      * @return an instance of {@link CustomAuthenticationWebFilter} configured to integrate with
      *         Spring Security's an authentication mechanism.
      */
     @Bean
-    CustomAuthenticationWebFilter customAuthenticationWebFilter() {
-        return new CustomAuthenticationWebFilter();
+    CustomAuthenticationWebFilter customAuthenticationWebFilter(AuthenticationContextResolver authenticationContextResolver,
+                                                                ObjectProvider<JwtAuthenticationContextResolver> jwtAuthenticationContextResolver,
+                                                                ObjectProvider<SecurityGuardMetrics> metrics,
+                                                                PublicPathMatcher publicPathMatcher,
+                                                                ObjectProvider<SecuredHandlerIndex> securedHandlerIndex,
+                                                                RejectionResponseWriter rejectionResponseWriter,
+                                                                ObjectProvider<UserRateLimiter> userRateLimiter,
+                                                                TrustedNetworks trustedNetworks,
+                                                                ObjectProvider<HeaderSignatureVerifier> headerSignatureVerifier,
+                                                                ObjectProvider<ReloadablePathPolicy> pathPolicy,
+                                                                SecurityGuardProperties properties) {
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter(authenticationContextResolver);
+        filter.setScopedContext(properties.getContext().getMode() == SecurityGuardProperties.Context.Mode.SCOPED_VALUE);
+        filter.setLazyContext(properties.getContext().isLazy());
+        jwtAuthenticationContextResolver.ifAvailable(filter::setJwtAuthenticationContextResolver);
+        metrics.ifAvailable(filter::setMetrics);
+        filter.setPublicPathMatcher(publicPathMatcher);
+        securedHandlerIndex.ifAvailable(filter::setSecuredHandlerIndex);
+        filter.setRejectionResponseWriter(rejectionResponseWriter);
+        userRateLimiter.ifAvailable(filter::setUserRateLimiter);
+        filter.setTrustedNetworks(trustedNetworks);
+        headerSignatureVerifier.ifAvailable(filter::setHeaderSignatureVerifier);
+        pathPolicy.ifAvailable(filter::setPathPolicy);
+        return filter;
     }
 
     /**
@@ -38,11 +105,18 @@ public class HttpSecurityConfigurer {
      *
      * @param customAuthenticationWebFilter an instance of {@link CustomAuthenticationWebFilter}
      *                                       used to handle user authentication details in incoming HTTP requests.
+     * @param metrics the metrics recording unauthorized requests, available when Micrometer is present.
+     * @param rejectionResponseWriter the writer of the pre-serialized 401 response.
      * @return a configured {@link SecurityConfig} object.
      */
     @Bean
-    public SecurityConfig securityConfig(CustomAuthenticationWebFilter customAuthenticationWebFilter) {
-        return new SecurityConfig(customAuthenticationWebFilter);
+    public SecurityConfig securityConfig(CustomAuthenticationWebFilter customAuthenticationWebFilter,
+                                         ObjectProvider<SecurityGuardMetrics> metrics,
+                                         RejectionResponseWriter rejectionResponseWriter) {
+        SecurityConfig securityConfig = new SecurityConfig(customAuthenticationWebFilter);
+        metrics.ifAvailable(securityConfig::setMetrics);
+        securityConfig.setRejectionResponseWriter(rejectionResponseWriter);
+        return securityConfig;
     }
 
     /**
@@ -58,52 +132,201 @@ public class HttpSecurityConfigurer {
     }
 
     /**
-     * Provides a {@link SecureCallEvaluator} bean used to evaluate whether a particular call
-     * or request is authorized based on the associated authentication context.
+     * Provides the {@link PublicPathMatcher} compiled from the configured public path patterns.
+     *
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link PublicPathMatcher}, matching nothing if no pattern is configured.
+     */
+    @Bean
+    public PublicPathMatcher publicPathMatcher(SecurityGuardProperties properties) {
+        return new PublicPathMatcher(properties.getPublicPaths().getPatterns());
+    }
+
+    /**
+     * Configures a minimal security filter chain for public paths, ordered before the main chain, when
+     * {@code microservice.security.guard.public-paths.minimal-chain} is set to {@code true}.
+     *
+     * @param securityConfig the {@link SecurityConfig} object used for configuring security settings.
+     * @param httpSecurity the {@link HttpSecurity} object to be configured for the public paths.
+     * @param publicPathMatcher the matcher selecting the public requests.
+     * @return the configured {@link SecurityFilterChain} instance.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "public-paths.minimal-chain", havingValue = "true")
+    public SecurityFilterChain publicPathSecurityFilterChain(SecurityConfig securityConfig, HttpSecurity httpSecurity, PublicPathMatcher publicPathMatcher) {
+        return securityConfig.publicPaths(httpSecurity, publicPathMatcher);
+    }
+
+    /**
+     * Provides the {@link TrustedNetworks} compiled from {@code microservice.security.guard.trusted-networks}.
+     * The allowlists can be replaced at runtime with {@link TrustedNetworks#reload}.
+     *
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link TrustedNetworks}, empty if no ranges are configured.
+     */
+    @Bean
+    public TrustedNetworks trustedNetworks(SecurityGuardProperties properties) {
+        SecurityGuardProperties.TrustedNetworks trustedNetworks = properties.getTrustedNetworks();
+        return new TrustedNetworks(trustedNetworks.getInternal(), trustedNetworks.getGateway());
+    }
+
+    /**
+     * Provides the {@link UserRateLimiter} applied by the filter, when
+     * {@code microservice.security.guard.rate-limit.enabled} is set to {@code true}.
+     *
+     * @param properties the security guard configuration properties.
+     * @return a started instance of {@link UserRateLimiter} with the configured policies, closed with the context.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "rate-limit.enabled", havingValue = "true")
+    public UserRateLimiter userRateLimiter(SecurityGuardProperties properties) {
+        SecurityGuardProperties.RateLimit rateLimit = properties.getRateLimit();
+        UserRateLimiter limiter = new UserRateLimiter(
+                policy(rateLimit.getUser()),
+                policy(rateLimit.getGateway()),
+                policy(rateLimit.getAnonymous()),
+                rateLimit.getIdleTimeout(),
+                rateLimit.getMaxUsers()
+        );
+        limiter.start();
+        return limiter;
+    }
+
+    private static RateLimitPolicy policy(SecurityGuardProperties.RateLimit.Policy policy) {
+        return new RateLimitPolicy(policy.getRequestsPerSecond(), policy.getBurst());
+    }
+
+    /**
+     * Provides the {@link ReloadablePathPolicy} enforced by the filter, when
+     * {@code microservice.security.guard.path-policy.file} is set. Unless watching is disabled, changes of the file
+     * are applied until the context is closed.
+     *
+     * @param properties the security guard configuration properties.
+     * @param scopeRegistry the registry the required scopes are encoded with.
+     * @return an instance of {@link ReloadablePathPolicy} holding the compiled policy file.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "path-policy.file")
+    public ReloadablePathPolicy reloadablePathPolicy(SecurityGuardProperties properties, ScopeRegistry scopeRegistry) {
+        SecurityGuardProperties.PathPolicy pathPolicy = properties.getPathPolicy();
+        ReloadablePathPolicy policy = new ReloadablePathPolicy(pathPolicy.getFile(), scopeRegistry, pathPolicy.getQuietPeriod());
+        if (pathPolicy.isWatch()) {
+            policy.start();
+        }
+        return policy;
+    }
+
+    /**
+     * Provides the {@link RejectionResponseWriter} that writes 401 and 403 responses from bodies serialized once
+     * with the message converters of Spring MVC.
+     *
+     * @param handlerAdapter provides the handler adapter holding the MVC message converters.
+     * @return an instance of {@link RejectionResponseWriter}, serializing the bodies once the application context has started.
+     */
+    @Bean
+    public RejectionResponseWriter rejectionResponseWriter(ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        return new RejectionResponseWriter(handlerAdapter);
+    }
+
+    /**
+     * Provides the {@link SecuredHandlerIndex} used by the filter to reject denied calls to {@code @Secured} handlers
+     * before dispatch, unless {@code microservice.security.guard.secured.early-rejection} is set to {@code false}.
+     *
+     * @param handlerMappings the handler mappings of the application.
+     * @param handlerExceptionResolver the resolver writing the 403 response.
+     * @param secureCallEvaluator the evaluator deciding whether a call may reach a secured handler.
+     * @return an instance of {@link SecuredHandlerIndex}, populated once the application context has started.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "secured.early-rejection", havingValue = "true", matchIfMissing = true)
+    public SecuredHandlerIndex securedHandlerIndex(ObjectProvider<HandlerMapping> handlerMappings,
+                                                   @Qualifier("handlerExceptionResolver") ObjectProvider<HandlerExceptionResolver> handlerExceptionResolver,
+                                                   SecureCallEvaluator secureCallEvaluator) {
+        return new SecuredHandlerIndex(handlerMappings, handlerExceptionResolver, secureCallEvaluator);
+    }
+
+    /**
+     * Provides a {@link CompiledSecuredPostProcessor} that authorizes {@code @Secured} methods without SpEL
+     * evaluation when {@code microservice.security.guard.secured.mode} is set to {@code compiled}, and otherwise
+     * observes the decisions of the expression so that allowed calls are audited in either mode.
      *
-     * @return an instance of {@link SecureCallEvaluator} for validating security-related conditions.
+     * @param secureCallEvaluator provides the {@link SecureCallEvaluator} used for secured methods.
+     * @param auditLog provides the {@link SecurityAuditLog} recording allowed calls, when auditing is enabled.
+     * @param environment the environment holding the secured mode; properties are not bound yet for post processors.
+     * @return an instance of {@link CompiledSecuredPostProcessor}.
      */
     @Bean
-    public SecureCallEvaluator secureCallEvaluator() {
-        return new SecureCallEvaluator();
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static CompiledSecuredPostProcessor compiledSecuredPostProcessor(ObjectProvider<SecureCallEvaluator> secureCallEvaluator,
+                                                                     ObjectProvider<SecurityAuditLog> auditLog,
+                                                                     Environment environment) {
+        SecurityGuardProperties.SecuredEvaluation.Mode mode = Binder.get(environment)
+                .bind(SecurityGuardProperties.PREFIX + ".secured.mode", SecurityGuardProperties.SecuredEvaluation.Mode.class)
+                .orElse(SecurityGuardProperties.SecuredEvaluation.Mode.EXPRESSION);
+        return new CompiledSecuredPostProcessor(secureCallEvaluator, auditLog,
+                mode == SecurityGuardProperties.SecuredEvaluation.Mode.COMPILED);
     }
 
     /**
-     * Provides a {@link SecurityControllerAdvice} bean that handles global exception handling for security-related
-     * issues, such as access denied exceptions, and customizes the response accordingly.
+     * Provides the {@link RequireScopesAdvisor} enforcing
+     * {@link io.github.ilyaslabs.microservice.security.guard.annotation.RequireScopes} on method invocations.
      *
-     * @return an instance of {@link SecurityControllerAdvice} configured to intercept and handle specific exceptions.
+     * @param scopeRegistry provides the {@link ScopeRegistry} the requirements are encoded with.
+     * @param decisionCache provides the {@link AuthorizationDecisionCache}, when decision caching is enabled.
+     * @param auditLog provides the {@link SecurityAuditLog} recording allowed calls, when auditing is enabled.
+     * @return an instance of {@link RequireScopesAdvisor}.
      */
     @Bean
-    public SecurityControllerAdvice securityControllerAdvice() {
-        return new SecurityControllerAdvice();
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static RequireScopesAdvisor requireScopesAdvisor(ObjectProvider<ScopeRegistry> scopeRegistry,
+                                                     ObjectProvider<AuthorizationDecisionCache> decisionCache,
+                                                     ObjectProvider<SecurityAuditLog> auditLog) {
+        // memoize the absence of the optional cache as well, instead of looking it up on every call
+        Supplier<Optional<AuthorizationDecisionCache>> cache = SingletonSupplier.of(() -> Optional.ofNullable(decisionCache.getIfAvailable()));
+        return new RequireScopesAdvisor(
+                SingletonSupplier.of(scopeRegistry::getObject),
+                () -> cache.get().orElse(null),
+                SingletonSupplier.of(() -> auditLog.getIfAvailable(() -> SecurityAuditLog.NOOP))
+        );
     }
 
     /**
-     * Provides a {@link UserDetailsService} bean that is configured to throw a
-     * {@link UsernameNotFoundException} for any username lookup. This implementation
-     * effectively disables user details retrieval.
+     * Provides a {@link AuthenticationContextClientHttpRequestInterceptor} that propagates the current
+     * authentication context to downstream services called through {@code RestClient} or {@code RestTemplate}.
      *
-     * @return an instance of {@link UserDetailsService} that always throws a
-     *         {@link UsernameNotFoundException} with a message indicating that the service is disabled.
+     * @param authenticationContextProvider the provider of the current authentication context.
+     * @param headerSigner the signer of propagated headers, available when header signatures are enabled.
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link AuthenticationContextClientHttpRequestInterceptor}.
      */
     @Bean
-    public UserDetailsService userDetailsService() {
-        return _ -> {
-            throw new UsernameNotFoundException("UserDetailsService disabled");
-        };
+    public AuthenticationContextClientHttpRequestInterceptor authenticationContextClientHttpRequestInterceptor(
+            AuthenticationContextProvider authenticationContextProvider, ObjectProvider<HeaderSigner> headerSigner,
+            SecurityGuardProperties properties) {
+        AuthenticationContextClientHttpRequestInterceptor interceptor = new AuthenticationContextClientHttpRequestInterceptor(authenticationContextProvider);
+        headerSigner.ifAvailable(interceptor::setHeaderSigner);
+        interceptor.setCompactScopes(properties.getScopeRegistry().isCompactHeader());
+        return interceptor;
     }
 
     /**
-     * Provides an instance of {@link AuthenticationContextProvider} to manage
-     * and retrieve the current authentication context for the application.
+     * Provides a {@link AuthenticationContextHttpRequests} that propagates the current authentication context
+     * to downstream services called through the JDK {@link java.net.http.HttpClient}.
      *
-     * @return an instance of {@link AuthenticationContextProvider} that integrates
-     *         with Spring Security to handle authentication context retrieval.
+     * @param authenticationContextProvider the provider of the current authentication context.
+     * @param headerSigner the signer of propagated headers, available when header signatures are enabled.
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link AuthenticationContextHttpRequests}.
      */
     @Bean
-    public AuthenticationContextProvider authenticationContextProvider() {
-        return new SpringAuthenticationContextProvider();
+    public AuthenticationContextHttpRequests authenticationContextHttpRequests(
+            AuthenticationContextProvider authenticationContextProvider, ObjectProvider<HeaderSigner> headerSigner,
+            SecurityGuardProperties properties) {
+        AuthenticationContextHttpRequests requests = new AuthenticationContextHttpRequests(authenticationContextProvider);
+        headerSigner.ifAvailable(requests::setHeaderSigner);
+        requests.setCompactScopes(properties.getScopeRegistry().isCompactHeader());
+        return requests;
     }
 
 }
@@ -12,4 +12,9 @@ public class JwtConstants {
      * embedded within the token.
      */
     public static final String KEY_SCOPE_CLAIM = "scope";
+
+    /**
+     * Represents the prefix of an {@code Authorization} header value carrying a bearer JSON Web Token (JWT).
+     */
+    public static final String BEARER_PREFIX = "Bearer ";
 }
@@ -0,0 +1,182 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import io.github.ilyaslabs.microservice.exception.HttpResponseException;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes the 401 and 403 responses of the security guard from JSON bodies serialized once.
+ * <p>
+ * The bodies are the {@link HttpResponseException.ResponseBody} of {@link HttpResponseException#ofUnauthorized} and
+ * {@link HttpResponseException#ofForbidden}, serialized at startup with the same message converters Spring MVC uses
+ * for controller responses, so the bytes are identical to a body returned by a handler. Responses are written
+ * directly, with content type and length, instead of through {@code sendError}, so a rejection never triggers an
+ * error dispatch back through the filter chain.
+ */
+@Slf4j
+public class RejectionResponseWriter implements SmartInitializingSingleton {
+
+    private static final String ACCESS_DENIED = "Access Denied";
+
+    private static final String UNAUTHORIZED = "Unauthorized";
+
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+    private volatile Rejection unauthorized;
+
+    private volatile Rejection forbidden;
+
+    /**
+     * Creates a writer that serializes the bodies with the converters of Spring MVC once all singletons are instantiated.
+     *
+     * @param handlerAdapter provides the handler adapter holding the MVC message converters
+     */
+    public RejectionResponseWriter(ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    /**
+     * Creates a writer that serializes the bodies with the given converters.
+     *
+     * @param messageConverters the converters, the first one able to write JSON is used
+     */
+    public RejectionResponseWriter(List<HttpMessageConverter<?>> messageConverters) {
+        this.handlerAdapter = null;
+        serialize(messageConverters);
+    }
+
+    /**
+     * Serializes the bodies with the converters of Spring MVC.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        RequestMappingHandlerAdapter adapter = handlerAdapter != null ? handlerAdapter.getIfAvailable() : null;
+
+        if (adapter != null) {
+            serialize(adapter.getMessageConverters());
+        }
+    }
+
+    /**
+     * Writes an HTTP 401 response.
+     *
+     * @param response the response to write to
+     * @throws IOException if writing the body fails
+     */
+    public void writeUnauthorized(HttpServletResponse response) throws IOException {
+        write(response, HttpStatus.UNAUTHORIZED, unauthorized);
+    }
+
+    /**
+     * Writes an HTTP 403 response.
+     *
+     * @param response the response to write to
+     * @throws IOException if writing the body fails
+     */
+    public void writeForbidden(HttpServletResponse response) throws IOException {
+        write(response, HttpStatus.FORBIDDEN, forbidden);
+    }
+
+    /**
+     * Returns the HTTP 403 response as an entity, for handlers and controller advices.
+     *
+     * @return the pre-serialized response, or {@code null} if no JSON converter was available
+     */
+    public ResponseEntity<byte[]> forbiddenEntity() {
+
+        Rejection rejection = forbidden;
+
+        if (rejection == null) {
+            return null;
+        }
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .contentType(rejection.contentType())
+                .contentLength(rejection.body().length)
+                .body(rejection.body());
+    }
+
+    private static void write(HttpServletResponse response, HttpStatus status, Rejection rejection) throws IOException {
+
+        response.setStatus(status.value());
+
+        if (rejection == null) {
+            response.setContentLength(0);
+            return;
+        }
+
+        response.setContentType(rejection.contentType().toString());
+        response.setContentLength(rejection.body().length);
+        response.getOutputStream().write(rejection.body());
+    }
+
+    private void serialize(List<HttpMessageConverter<?>> messageConverters) {
+        unauthorized = serialize(messageConverters, HttpResponseException.ofUnauthorized(UNAUTHORIZED).toResponseBody());
+        forbidden = serialize(messageConverters, HttpResponseException.ofForbidden(ACCESS_DENIED).toResponseBody());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Rejection serialize(List<HttpMessageConverter<?>> messageConverters, HttpResponseException.ResponseBody body) {
+
+        for (HttpMessageConverter<?> converter : messageConverters) {
+
+            if (!converter.canWrite(body.getClass(), MediaType.APPLICATION_JSON)) {
+                continue;
+            }
+
+            BufferedOutputMessage message = new BufferedOutputMessage();
+
+            try {
+                ((HttpMessageConverter<Object>) converter).write(body, MediaType.APPLICATION_JSON, message);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to serialize rejection response", e);
+            }
+
+            MediaType contentType = message.getHeaders().getContentType();
+
+            return new Rejection(message.body.toByteArray(), contentType != null ? contentType : MediaType.APPLICATION_JSON);
+        }
+
+        log.warn("No JSON message converter found, rejections are sent without a body");
+
+        return null;
+    }
+
+    /**
+     * A serialized rejection body, shared by all responses and only ever read.
+     */
+    private record Rejection(byte[] body, MediaType contentType) {
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
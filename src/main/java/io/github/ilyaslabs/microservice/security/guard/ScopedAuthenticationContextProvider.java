@@ -0,0 +1,80 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import jakarta.servlet.ServletException;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Provides the authentication context bound as a {@link ScopedValue} for the duration of a request.
+ * <p>
+ * Reading a scoped value does not involve a ThreadLocal lookup, and the binding is inherited by subtasks forked
+ * with {@code StructuredTaskScope}, so request fan-out on virtual threads sees the caller's context without
+ * copying a security context per thread. When no context is bound (e.g. code running outside of a request),
+ * the provider falls back to the {@link SpringAuthenticationContextProvider}.
+ */
+public class ScopedAuthenticationContextProvider implements AuthenticationContextProvider {
+
+    private static final ScopedValue<AuthenticationContext> AUTHENTICATION_CONTEXT = ScopedValue.newInstance();
+
+    private final AuthenticationContextProvider fallback = new SpringAuthenticationContextProvider();
+
+    /**
+     * Runs a request processing step with the authentication context bound.
+     *
+     * @param authenticationContext the context of the request
+     * @param operation             the request processing to run
+     * @throws ServletException if the operation fails with a servlet exception
+     * @throws IOException      if the operation fails with an I/O exception
+     */
+    public static void runWithContext(AuthenticationContext authenticationContext, RequestOperation operation) throws ServletException, IOException {
+        try {
+            ScopedValue.where(AUTHENTICATION_CONTEXT, authenticationContext).call(() -> {
+                operation.run();
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AuthenticationContext current() {
+        return currentOptional()
+                .orElseThrow(() -> new IllegalStateException("No authentication context found"));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<AuthenticationContext> currentOptional() {
+
+        if (AUTHENTICATION_CONTEXT.isBound()) {
+            return Optional.of(AUTHENTICATION_CONTEXT.get());
+        }
+
+        return fallback.currentOptional();
+    }
+
+    /**
+     * A request processing step, typically the remainder of the filter chain.
+     */
+    @FunctionalInterface
+    public interface RequestOperation {
+
+        /**
+         * Runs the operation.
+         *
+         * @throws ServletException if the operation fails with a servlet exception
+         * @throws IOException      if the operation fails with an I/O exception
+         */
+        void run() throws ServletException, IOException;
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.ilyaslabs.microservice.security.guard;
 
+import io.github.ilyaslabs.microservice.security.guard.filter.LazyAuthenticationToken;
 import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
 import org.springframework.security.core.Authentication;
 
@@ -11,6 +12,11 @@ public class SecureCallEvaluator {
 
     public boolean isAllowed(Authentication authentication) {
 
+        if (authentication instanceof LazyAuthenticationToken lazyAuthentication) {
+            // decided from the raw header, the context is built only if the handler reads it
+            return !lazyAuthentication.isGatewayCall();
+        }
+
         if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticationContext context)) {
             return false;
         }
@@ -1,6 +1,8 @@
 package io.github.ilyaslabs.microservice.security.guard;
 
 import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.path.PublicPathMatcher;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -21,7 +23,8 @@ import java.io.IOException;
  * - Disables CSRF, CORS, form login, and HTTP basic authentication.
  * - Configures stateless session management to enable microservice security.
  * - Integrates a custom authentication filter to handle request authorization.
- * - Configures an unauthorized response handler to return an HTTP 401 status code for unauthorized requests.
+ * - Configures an unauthorized response handler to return an HTTP 401 status code for unauthorized requests,
+ * written by the {@link RejectionResponseWriter} when one is set.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -29,6 +32,28 @@ public class SecurityConfig {
 
     private final CustomAuthenticationWebFilter customAuthenticationWebFilter;
 
+    private SecurityGuardMetrics metrics = SecurityGuardMetrics.NOOP;
+
+    private RejectionResponseWriter rejectionResponseWriter;
+
+    /**
+     * Sets the metrics recording unauthorized requests.
+     *
+     * @param metrics the metrics, {@link SecurityGuardMetrics#NOOP} by default
+     */
+    public void setMetrics(SecurityGuardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the writer of the pre-serialized 401 response.
+     *
+     * @param rejectionResponseWriter the writer, or {@code null} to send the error through the container
+     */
+    public void setRejectionResponseWriter(RejectionResponseWriter rejectionResponseWriter) {
+        this.rejectionResponseWriter = rejectionResponseWriter;
+    }
+
     /**
      * Creates a basic filter chain required for microservice security.
      *
@@ -57,7 +82,40 @@ public class SecurityConfig {
     }
 
     /**
-     * Handles an unauthorized response by sending an HTTP 401 status code.
+     * Creates a minimal filter chain for public paths. It keeps the stateless defaults of
+     * {@link #httpSecurity(HttpSecurity)} but has no authentication filter, request cache, anonymous authentication
+     * or security headers, so public requests pass through a handful of filters only.
+     *
+     * @param http              the HttpSecurity object to configure
+     * @param publicPathMatcher the matcher selecting the public requests
+     * @return the configured filter chain
+     */
+    public SecurityFilterChain publicPaths(HttpSecurity http, PublicPathMatcher publicPathMatcher) {
+
+        http
+                .securityMatcher(publicPathMatcher)
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(customizer ->
+                        customizer
+                                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .cors(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .httpBasic(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .anonymous(AbstractHttpConfigurer::disable)
+                .headers(AbstractHttpConfigurer::disable)
+                .exceptionHandling(customizer ->
+                        customizer
+                                .authenticationEntryPoint(this::unauthorizedResponse)
+                );
+
+        return http.build();
+    }
+
+    /**
+     * Handles an unauthorized response by writing an HTTP 401 response, or sending an HTTP 401 status code if no
+     * {@link RejectionResponseWriter} is set.
      *
      * @param httpServletRequest the HTTP servlet request triggering the unauthorized response
      * @param response           the HTTP servlet response to send the error to
@@ -65,6 +123,13 @@ public class SecurityConfig {
      * @throws IOException if an input or output error occurs while sending the error response
      */
     private void unauthorizedResponse(HttpServletRequest httpServletRequest, HttpServletResponse response, AuthenticationException e) throws IOException {
+        metrics.recordUnauthorized();
+
+        if (rejectionResponseWriter != null) {
+            rejectionResponseWriter.writeUnauthorized(response);
+            return;
+        }
+
         response.sendError(HttpStatus.UNAUTHORIZED.value(), HttpStatus.UNAUTHORIZED.getReasonPhrase());
     }
 
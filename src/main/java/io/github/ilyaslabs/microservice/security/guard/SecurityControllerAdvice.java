@@ -1,30 +1,131 @@
 package io.github.ilyaslabs.microservice.security.guard;
 
 import io.github.ilyaslabs.microservice.exception.HttpResponseException;
+import io.github.ilyaslabs.microservice.security.guard.audit.SecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.jfr.RejectionEvent;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
 
 /**
  * A controller advice that provides exception handling for security-related exceptions.
  * This class centralizes the handling of exceptions, such as `AccessDeniedException`, and provides custom responses
  * to enhance security and user experience.
  * Key Features:
- * - Logs security exceptions with a warning level to assist with debugging and monitoring.
+ * - Logs security exceptions with a warning level to assist with debugging and monitoring, or, when a
+ * {@link SecurityAuditLog} is set, records them in the audit log without blocking the request thread.
  * - Customizes HTTP responses for specific security-related exceptions, such as returning a 403 Forbidden status
  * for access denial scenarios.
+ * - Returns the 403 body pre-serialized by the {@link RejectionResponseWriter} when one is available, instead of
+ * serializing a new body for every denial.
+ * - Records denied calls, tagged by handler, in the {@link SecurityGuardMetrics}, and emits them as
+ * {@link RejectionEvent}s while a flight recording enables them.
  */
 @ControllerAdvice
 @Slf4j
 public class SecurityControllerAdvice {
 
+    private SecurityGuardMetrics metrics = SecurityGuardMetrics.NOOP;
+
+    private RejectionResponseWriter rejectionResponseWriter;
+
+    private SecurityAuditLog auditLog = SecurityAuditLog.NOOP;
+
+    /**
+     * Sets the metrics recording denied calls.
+     *
+     * @param metrics the metrics, {@link SecurityGuardMetrics#NOOP} by default
+     */
+    public void setMetrics(SecurityGuardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the writer providing the pre-serialized 403 response.
+     *
+     * @param rejectionResponseWriter the writer, or {@code null} to serialize the body on every denial
+     */
+    public void setRejectionResponseWriter(RejectionResponseWriter rejectionResponseWriter) {
+        this.rejectionResponseWriter = rejectionResponseWriter;
+    }
+
+    /**
+     * Sets the audit log recording denied calls instead of the application log.
+     *
+     * @param auditLog the audit log, {@link SecurityAuditLog#NOOP} by default
+     */
+    public void setAuditLog(SecurityAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<HttpResponseException.ResponseBody> handleAccessDeniedException(AccessDeniedException exception) {
-        log.warn("Access Denied: {}", exception.getMessage());
+    public ResponseEntity<?> handleAccessDeniedException(AccessDeniedException exception) {
+        RejectionEvent event = new RejectionEvent();
+        event.begin();
+
+        Method handler = currentHandler();
+
+        if (auditLog.isEnabled()) {
+            auditLog.recordDenied(currentAuthenticationContext(), handler, exception.getMessage());
+        } else {
+            log.warn("Access Denied: {}", exception.getMessage());
+        }
+
+        metrics.recordForbidden(handler);
+
+        if (event.shouldCommit()) {
+            AuthenticationContext context = currentAuthenticationContext();
+            event.commit(HttpStatus.FORBIDDEN.value(), "access-denied", context != null && context.isGatewayCall(),
+                    handler != null ? ClassUtils.getQualifiedMethodName(handler) : null);
+        }
+
+        ResponseEntity<byte[]> forbidden = rejectionResponseWriter != null ? rejectionResponseWriter.forbiddenEntity() : null;
+
+        if (forbidden != null) {
+            return forbidden;
+        }
+
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(HttpResponseException.ofForbidden("Access Denied")
                 .toResponseBody());
     }
+
+    /**
+     * Returns the authentication context of the current servlet request; the reactive stack binds it to the
+     * subscriber context instead.
+     */
+    private static AuthenticationContext currentAuthenticationContext() {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticationContext authenticationContext
+                ? authenticationContext
+                : null;
+    }
+
+    /**
+     * Returns the handler method of the current servlet request; the reactive stack has no request attributes.
+     */
+    private static Method currentHandler() {
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        return attributes != null
+                && attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof HandlerMethod handlerMethod
+                ? handlerMethod.getMethod()
+                : null;
+    }
 }
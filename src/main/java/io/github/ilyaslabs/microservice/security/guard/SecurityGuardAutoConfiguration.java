@@ -0,0 +1,22 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import io.github.ilyaslabs.microservice.security.guard.annotation.EnableMicroserviceSecurity;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Auto-configures the guard for servlet applications, as {@link EnableMicroserviceSecurity} does, unless
+ * {@code microservice.security.guard.enabled} is set to {@code false}.
+ * <p>
+ * Runs before Spring Boot's user details auto-configuration, so that the guard's {@code UserDetailsService} is in
+ * place and no default user is generated. Optional features register their beans only when their property is set;
+ * with AOT processing these conditions are evaluated at build time.
+ */
+@AutoConfiguration(beforeName = "org.springframework.boot.security.autoconfigure.UserDetailsServiceAutoConfiguration")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+@Import(HttpSecurityConfigurer.class)
+public class SecurityGuardAutoConfiguration {
+}
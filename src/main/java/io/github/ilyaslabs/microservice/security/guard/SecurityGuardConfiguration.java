@@ -0,0 +1,190 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import io.github.ilyaslabs.microservice.security.guard.audit.RingBufferSecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.audit.SecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.authorization.AuthorizationDecisionCache;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.jwt.JwtAuthenticationConfiguration;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetricsConfiguration;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSignatureVerifier;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSigner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers the parsing and authorization core shared by the servlet ({@link HttpSecurityConfigurer}) and the
+ * reactive security configuration, so that both stacks interpret the security headers identically. The
+ * {@link SecurityGuardRuntimeHints} are contributed here, so that both stacks run as native images.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SecurityGuardProperties.class)
+@Import({JwtAuthenticationConfiguration.class, SecurityGuardMetricsConfiguration.class})
+@ImportRuntimeHints(SecurityGuardRuntimeHints.class)
+public class SecurityGuardConfiguration {
+
+    /**
+     * Provides a {@link ScopeRegistry} assigning each configured scope a bit index, those of the registry file first.
+     *
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link ScopeRegistry}, empty if no scopes are configured.
+     */
+    @Bean
+    public ScopeRegistry scopeRegistry(SecurityGuardProperties properties) {
+        SecurityGuardProperties.ScopeRegistryProperties scopeRegistry = properties.getScopeRegistry();
+        List<String> scopes = new ArrayList<>();
+        if (scopeRegistry.getFile() != null) {
+            try {
+                scopeRegistry.getFile().getContentAsString(StandardCharsets.UTF_8).lines()
+                        .map(String::strip)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .forEach(scopes::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read the scope registry file " + scopeRegistry.getFile(), e);
+            }
+        }
+        scopes.addAll(scopeRegistry.getScopes());
+        return ScopeRegistry.of(scopes);
+    }
+
+    /**
+     * Provides a bounded cache that interns scope header values into shared authority lists.
+     *
+     * @param properties the security guard configuration properties.
+     * @param scopeRegistry the registry used to encode scope sets as bitsets.
+     * @return an instance of {@link ScopeAuthorityCache} sized according to the configuration.
+     */
+    @Bean
+    public ScopeAuthorityCache scopeAuthorityCache(SecurityGuardProperties properties, ScopeRegistry scopeRegistry) {
+        SecurityGuardProperties.ScopeCache scopeCache = properties.getScopeCache();
+        return new ScopeAuthorityCache(scopeCache.getMaxSize(), scopeCache.getMaxAuthorities(), scopeRegistry);
+    }
+
+    /**
+     * Provides the {@link AuthenticationContextResolver} that builds authentication contexts from the security headers.
+     *
+     * @param scopeAuthorityCache the cache used to resolve scope headers into authorities.
+     * @return an instance of {@link AuthenticationContextResolver}.
+     */
+    @Bean
+    public AuthenticationContextResolver authenticationContextResolver(ScopeAuthorityCache scopeAuthorityCache) {
+        return new AuthenticationContextResolver(scopeAuthorityCache);
+    }
+
+    /**
+     * Provides a {@link SecureCallEvaluator} bean used to evaluate whether a particular call
+     * or request is authorized based on the associated authentication context.
+     *
+     * @return an instance of {@link SecureCallEvaluator} for validating security-related conditions.
+     */
+    @Bean
+    public SecureCallEvaluator secureCallEvaluator() {
+        return new SecureCallEvaluator();
+    }
+
+    /**
+     * Provides the {@link AuthorizationDecisionCache} memoizing {@code @RequireScopes} decisions, when
+     * {@code microservice.security.guard.decision-cache.enabled} is set to {@code true}.
+     *
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link AuthorizationDecisionCache} sized according to the configuration.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "decision-cache.enabled", havingValue = "true")
+    public AuthorizationDecisionCache authorizationDecisionCache(SecurityGuardProperties properties) {
+        return new AuthorizationDecisionCache(properties.getDecisionCache().getMaxSize());
+    }
+
+    /**
+     * Provides the {@link SecurityAuditLog} writing authorization decisions to a local file, when
+     * {@code microservice.security.guard.audit.enabled} is set to {@code true}. The writer is stopped, after
+     * writing the buffered decisions, when the context is closed.
+     *
+     * @param properties the security guard configuration properties.
+     * @return a started instance of {@link RingBufferSecurityAuditLog}.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "audit.enabled", havingValue = "true")
+    public RingBufferSecurityAuditLog securityAuditLog(SecurityGuardProperties properties) {
+        SecurityGuardProperties.Audit audit = properties.getAudit();
+        RingBufferSecurityAuditLog auditLog = new RingBufferSecurityAuditLog(
+                audit.getFile(),
+                audit.getBufferSize(),
+                audit.getBatchSize(),
+                audit.getPollInterval(),
+                audit.isIncludeAllowed(),
+                Clock.systemUTC()
+        );
+        auditLog.start();
+        return auditLog;
+    }
+
+    /**
+     * Provides the {@link HeaderSignatureVerifier} applied by the servlet and reactive filters, when
+     * {@code microservice.security.guard.signature.enabled} is set to {@code true}.
+     *
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link HeaderSignatureVerifier} with the configured secret and replay window.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "signature.enabled", havingValue = "true")
+    public HeaderSignatureVerifier headerSignatureVerifier(SecurityGuardProperties properties) {
+        SecurityGuardProperties.Signature signature = properties.getSignature();
+        return new HeaderSignatureVerifier(secret(signature), signature.getReplayWindow(), signature.getNonceCapacity());
+    }
+
+    /**
+     * Provides the {@link HeaderSigner} applied to propagated headers, when
+     * {@code microservice.security.guard.signature.enabled} is set to {@code true}.
+     *
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link HeaderSigner} with the configured secret.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "signature.enabled", havingValue = "true")
+    public HeaderSigner headerSigner(SecurityGuardProperties properties) {
+        return new HeaderSigner(secret(properties.getSignature()));
+    }
+
+    private static byte[] secret(SecurityGuardProperties.Signature signature) {
+        if (signature.getSecret() == null) {
+            throw new IllegalStateException(SecurityGuardProperties.PREFIX + ".signature.secret must be set when header signatures are enabled");
+        }
+        return signature.getSecret().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Provides a {@link SecurityControllerAdvice} bean that handles global exception handling for security-related
+     * issues, such as access denied exceptions, and customizes the response accordingly.
+     *
+     * @param metrics the metrics recording denied calls, available when Micrometer is present.
+     * @param rejectionResponseWriter the writer of the pre-serialized 403 response, available on the servlet stack.
+     * @param auditLog the audit log recording denied calls, available when auditing is enabled.
+     * @return an instance of {@link SecurityControllerAdvice} configured to intercept and handle specific exceptions.
+     */
+    @Bean
+    public SecurityControllerAdvice securityControllerAdvice(ObjectProvider<SecurityGuardMetrics> metrics,
+                                                             ObjectProvider<RejectionResponseWriter> rejectionResponseWriter,
+                                                             ObjectProvider<SecurityAuditLog> auditLog) {
+        SecurityControllerAdvice securityControllerAdvice = new SecurityControllerAdvice();
+        metrics.ifAvailable(securityControllerAdvice::setMetrics);
+        rejectionResponseWriter.ifAvailable(securityControllerAdvice::setRejectionResponseWriter);
+        auditLog.ifAvailable(securityControllerAdvice::setAuditLog);
+        return securityControllerAdvice;
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DeferredImportSelector;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Provides the beans of the servlet guard that back off when the application defines its own.
+ * <p>
+ * {@link ConditionalOnMissingBean} only sees the beans registered before it is evaluated, so this configuration is
+ * imported by {@link HttpSecurityConfigurer} through a {@link Selector deferred selector}. It is then processed after
+ * every configuration class of the application, both under auto-configuration and with
+ * {@code @EnableMicroserviceSecurity}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SecurityGuardDefaultsConfiguration {
+
+    /**
+     * Provides a {@link UserDetailsService} bean that is configured to throw a
+     * {@link UsernameNotFoundException} for any username lookup, unless the application defines its own. This
+     * implementation effectively disables user details retrieval, and keeps Spring Boot from generating a default user.
+     *
+     * @return an instance of {@link UserDetailsService} that always throws a
+     *         {@link UsernameNotFoundException} with a message indicating that the service is disabled.
+     */
+    @Bean
+    @ConditionalOnMissingBean(UserDetailsService.class)
+    public UserDetailsService userDetailsService() {
+        return _ -> {
+            throw new UsernameNotFoundException("UserDetailsService disabled");
+        };
+    }
+
+    /**
+     * Provides an instance of {@link AuthenticationContextProvider} to manage
+     * and retrieve the current authentication context for the application, unless the application defines its own.
+     *
+     * @param properties the security guard configuration properties.
+     * @return an instance of {@link AuthenticationContextProvider} that integrates
+     *         with Spring Security, or reads the scoped value bound by the filter in {@code scoped-value} mode.
+     */
+    @Bean
+    @ConditionalOnMissingBean(AuthenticationContextProvider.class)
+    public AuthenticationContextProvider authenticationContextProvider(SecurityGuardProperties properties) {
+        if (properties.getContext().getMode() == SecurityGuardProperties.Context.Mode.SCOPED_VALUE) {
+            return new ScopedAuthenticationContextProvider();
+        }
+        return new SpringAuthenticationContextProvider();
+    }
+
+    /**
+     * Imports {@link SecurityGuardDefaultsConfiguration} once the configuration classes of the application are
+     * processed.
+     */
+    public static class Selector implements DeferredImportSelector {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String[] selectImports(AnnotationMetadata importingClassMetadata) {
+            return new String[]{SecurityGuardDefaultsConfiguration.class.getName()};
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties of the microservice security guard, bound from {@code microservice.security.guard.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = SecurityGuardProperties.PREFIX)
+public class SecurityGuardProperties {
+
+    /**
+     * Prefix of all security guard properties.
+     */
+    public static final String PREFIX = "microservice.security.guard";
+
+    /**
+     * Whether the guard is auto-configured; applications using {@code @EnableMicroserviceSecurity} or
+     * {@code @EnableReactiveMicroserviceSecurity} enable it regardless.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Settings of the cache that interns {@link SecurityHeaders#X_SCOPES} values into authority lists.
+     */
+    private ScopeCache scopeCache = new ScopeCache();
+
+    /**
+     * Settings of the {@link io.github.ilyaslabs.microservice.security.guard.annotation.Secured} authorization.
+     */
+    private SecuredEvaluation secured = new SecuredEvaluation();
+
+    /**
+     * Settings of the registry assigning known scopes a bit index.
+     */
+    private ScopeRegistryProperties scopeRegistry = new ScopeRegistryProperties();
+
+    /**
+     * Settings of how the authentication context is held during a request.
+     */
+    private Context context = new Context();
+
+    /**
+     * Settings of the bearer JWT authentication mode.
+     */
+    private Jwt jwt = new Jwt();
+
+    /**
+     * Settings of the paths served without authentication.
+     */
+    private PublicPaths publicPaths = new PublicPaths();
+
+    /**
+     * Settings of the per-user rate limiter.
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * Settings of the security audit log.
+     */
+    private Audit audit = new Audit();
+
+    /**
+     * Settings of the authorization decision cache.
+     */
+    private DecisionCache decisionCache = new DecisionCache();
+
+    /**
+     * Address ranges internal and gateway calls are accepted from.
+     */
+    private TrustedNetworks trustedNetworks = new TrustedNetworks();
+
+    /**
+     * Settings of the signature over the security headers of internal calls.
+     */
+    private Signature signature = new Signature();
+
+    /**
+     * Settings of the declarative path policy.
+     */
+    private PathPolicy pathPolicy = new PathPolicy();
+
+    /**
+     * Settings of the scope header cache.
+     */
+    @Getter
+    @Setter
+    public static class ScopeCache {
+
+        /**
+         * Maximum number of distinct scope header values to keep.
+         */
+        private int maxSize = 1024;
+
+        /**
+         * Maximum number of distinct authorities to intern.
+         */
+        private int maxAuthorities = 4096;
+    }
+
+    /**
+     * Settings of the scope registry.
+     */
+    @Getter
+    @Setter
+    public static class ScopeRegistryProperties {
+
+        /**
+         * Known scopes, indexed in the given order. Scopes outside this list are still accepted but are
+         * checked by name instead of by bit index.
+         */
+        private List<String> scopes = new ArrayList<>();
+
+        /**
+         * A scope registry file shared by the services of a call graph, one scope per line, blank lines and lines
+         * starting with {@code #} ignored. Its scopes are indexed before those of {@link #scopes}.
+         */
+        private Resource file;
+
+        /**
+         * Whether propagated scopes known to the registry are sent in the compact
+         * {@link SecurityHeaders#X_SCOPES_COMPACT} format besides {@link SecurityHeaders#X_SCOPES}, which receivers
+         * on another registry version fall back to. Compact scopes are always accepted.
+         */
+        private boolean compactHeader = false;
+    }
+
+    /**
+     * Address ranges internal and gateway calls are accepted from, in CIDR notation such as {@code 10.0.0.0/8} or
+     * {@code fd00::/8}.
+     */
+    @Getter
+    @Setter
+    public static class TrustedNetworks {
+
+        /**
+         * Ranges calls without the {@link SecurityHeaders#X_API_GATEWAY} header may come from; empty to accept
+         * them from anywhere.
+         */
+        private List<String> internal = new ArrayList<>();
+
+        /**
+         * Addresses of the API gateways; empty to accept gateway calls from anywhere.
+         */
+        private List<String> gateway = new ArrayList<>();
+    }
+
+    /**
+     * Settings of the declarative path policy, rules requiring scopes or internal calls per method and path pattern.
+     */
+    @Getter
+    @Setter
+    public static class PathPolicy {
+
+        /**
+         * The policy file; no path policy is enforced if not set.
+         */
+        private Path file;
+
+        /**
+         * Whether changes of the file are applied without a restart.
+         */
+        private boolean watch = true;
+
+        /**
+         * How long the file must stay unchanged before a change is applied.
+         */
+        private Duration quietPeriod = Duration.ofMillis(200);
+    }
+
+    /**
+     * Settings of the HMAC signature over the {@link SecurityHeaders} of calls.
+     */
+    @Getter
+    @Setter
+    public static class Signature {
+
+        /**
+         * Whether incoming security headers must be signed, and outgoing ones are signed.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The secret shared by the services and the API gateway, at least 32 bytes in UTF-8.
+         */
+        private String secret;
+
+        /**
+         * How far a signature timestamp may be from now, covering clock skew and transit time.
+         */
+        private Duration replayWindow = Duration.ofSeconds(30);
+
+        /**
+         * Number of nonces remembered per half replay window; signed requests beyond it are rejected.
+         */
+        private int nonceCapacity = 16384;
+    }
+
+    /**
+     * Settings of the authorization decision cache.
+     */
+    @Getter
+    @Setter
+    public static class DecisionCache {
+
+        /**
+         * Whether {@code @RequireScopes} decisions are cached per requirement, scope set and kind of call;
+         * {@code @Secured} decisions are cheaper to evaluate than to look up and are never cached.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of cached decisions.
+         */
+        private int maxSize = 4096;
+    }
+
+    /**
+     * Settings of the security audit log.
+     */
+    @Getter
+    @Setter
+    public static class Audit {
+
+        /**
+         * Whether authorization decisions are written to the audit file instead of the application log.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The file decisions are appended to.
+         */
+        private Path file = Path.of("security-audit.log");
+
+        /**
+         * Number of decisions buffered for the writer; further decisions are dropped and counted.
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * Maximum number of decisions written at once.
+         */
+        private int batchSize = 512;
+
+        /**
+         * How long the writer waits when there is nothing to write.
+         */
+        private Duration pollInterval = Duration.ofMillis(50);
+
+        /**
+         * Whether calls allowed to reach a secured handler are recorded as well as denials, in either secured mode.
+         */
+        private boolean includeAllowed = false;
+    }
+
+    /**
+     * Settings of the per-user rate limiter.
+     */
+    @Getter
+    @Setter
+    public static class RateLimit {
+
+        /**
+         * Whether requests are rate limited by user id.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Limit of internal calls, per user id.
+         */
+        private Policy user = new Policy();
+
+        /**
+         * Limit of calls through the API gateway, per user id.
+         */
+        private Policy gateway = new Policy();
+
+        /**
+         * Limit shared by all internal calls without a user id.
+         */
+        private Policy anonymous = new Policy();
+
+        /**
+         * How long the state of a user without requests is kept.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(5);
+
+        /**
+         * Maximum number of users tracked per policy; requests of further users are admitted without being limited.
+         */
+        private int maxUsers = 100_000;
+
+        /**
+         * Token bucket settings.
+         */
+        @Getter
+        @Setter
+        public static class Policy {
+
+            /**
+             * Sustained number of requests per second; zero disables the limit.
+             */
+            private double requestsPerSecond = 0;
+
+            /**
+             * Number of requests that may be made at once.
+             */
+            private int burst = 1;
+        }
+    }
+
+    /**
+     * Settings of the public paths.
+     */
+    @Getter
+    @Setter
+    public static class PublicPaths {
+
+        /**
+         * Path patterns that skip the authentication filter, e.g. {@code /actuator/health} or {@code /static/**}.
+         * Segments may be literals, {@code *} for a single segment, or a trailing {@code **}.
+         */
+        private List<String> patterns = new ArrayList<>();
+
+        /**
+         * Whether public paths are served by a separate, minimal security filter chain instead of the main one.
+         */
+        private boolean minimalChain = false;
+    }
+
+    /**
+     * Settings of the bearer JWT authentication mode.
+     */
+    @Getter
+    @Setter
+    public static class Jwt {
+
+        /**
+         * Whether the authentication context is built from a verified bearer JWT instead of the
+         * {@link SecurityHeaders#X_USER_ID} and {@link SecurityHeaders#X_SCOPES} headers.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Location of the JWK set the tokens are signed with, e.g. {@code classpath:jwks.json} or {@code file:/etc/keys/jwks.json}.
+         */
+        private Resource jwkSet;
+
+        /**
+         * Accepted signature algorithms.
+         */
+        private List<String> algorithms = new ArrayList<>(List.of("RS256"));
+
+        /**
+         * Maximum number of verified tokens to keep.
+         */
+        private int cacheSize = 4096;
+
+        /**
+         * Tolerated clock skew when checking {@code exp} and {@code nbf}.
+         */
+        private Duration clockSkew = Duration.ofSeconds(60);
+    }
+
+    /**
+     * Settings of the authentication context holder.
+     */
+    @Getter
+    @Setter
+    public static class Context {
+
+        /**
+         * Where the {@link AuthenticationContextProvider} reads the context from.
+         */
+        private Mode mode = Mode.THREAD_LOCAL;
+
+        /**
+         * Whether the security headers are parsed only when the authentication context is first read, instead of
+         * on every request. Has no effect in bearer JWT mode, where the token is verified on every request.
+         */
+        private boolean lazy = false;
+
+        /**
+         * Authentication context holder modes.
+         */
+        public enum Mode {
+
+            /**
+             * Read the context from Spring's ThreadLocal backed {@code SecurityContextHolder}.
+             */
+            THREAD_LOCAL,
+
+            /**
+             * Bind the context as a {@link ScopedValue} for the duration of the request, inherited by
+             * structured concurrency subtasks.
+             */
+            SCOPED_VALUE
+        }
+    }
+
+    /**
+     * Settings of the {@link io.github.ilyaslabs.microservice.security.guard.annotation.Secured} authorization.
+     */
+    @Getter
+    @Setter
+    public static class SecuredEvaluation {
+
+        /**
+         * How secured methods are authorized.
+         */
+        private Mode mode = Mode.EXPRESSION;
+
+        /**
+         * Authorization modes for secured methods.
+         */
+        public enum Mode {
+
+            /**
+             * Evaluate the {@code @PreAuthorize} expression meta-annotated on {@code @Secured}.
+             */
+            EXPRESSION,
+
+            /**
+             * Call the {@link io.github.ilyaslabs.microservice.security.guard.SecureCallEvaluator} directly,
+             * without expression evaluation.
+             */
+            COMPILED
+        }
+
+        /**
+         * Whether calls denied by {@code @Secured} are rejected by the authentication filter, before the request is
+         * dispatched to the handler. The method-level check remains in place either way.
+         */
+        private boolean earlyRejection = true;
+    }
+}
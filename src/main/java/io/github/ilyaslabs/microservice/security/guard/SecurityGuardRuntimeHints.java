@@ -0,0 +1,42 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import io.github.ilyaslabs.microservice.security.guard.annotation.RequireScopes;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Registers the reflection and proxy hints the guard needs at runtime in a native image, beyond what the AOT
+ * processing of its bean definitions covers.
+ */
+class SecurityGuardRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+
+        // the principal of every authentication, read through its accessors by expressions and serializers
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), AuthenticationContext.class);
+
+        // @Secured is @PreAuthorize("@secureCallEvaluator.isAllowed(authentication)"), invoked by SpEL unless compiled
+        hints.reflection().registerMethod(
+                ReflectionUtils.findMethod(SecureCallEvaluator.class, "isAllowed", Authentication.class), ExecutableMode.INVOKE);
+        hints.reflection().registerType(Secured.class, MemberCategory.INVOKE_DECLARED_METHODS);
+
+        // registered with the servlet container as well, which binds init parameters to the filter's bean properties
+        hints.reflection().registerType(CustomAuthenticationWebFilter.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // value and allOf are aliases, so the annotation is read as a synthesized proxy
+        hints.reflection().registerType(RequireScopes.class, MemberCategory.INVOKE_DECLARED_METHODS);
+        hints.proxies().registerJdkProxy(RequireScopes.class);
+    }
+}
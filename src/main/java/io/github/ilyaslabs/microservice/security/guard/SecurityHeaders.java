@@ -16,10 +16,31 @@ public enum SecurityHeaders {
      */
     X_SCOPES("X-SCOPES"),
 
+    /**
+     * Represents the authorities of the user as a bitmask against the shared scope registry, sent instead of
+     * {@link #X_SCOPES} by services configured to do so.
+     */
+    X_SCOPES_COMPACT("X-SCOPES-COMPACT"),
+
     /**
      * Represents the user ID.
      */
-    X_USER_ID("X-USER-ID");
+    X_USER_ID("X-USER-ID"),
+
+    /**
+     * Represents the time, in milliseconds since the epoch, at which the security headers were signed.
+     */
+    X_SIGNATURE_TIMESTAMP("X-SIGNATURE-TIMESTAMP"),
+
+    /**
+     * Represents the single-use nonce of a signature.
+     */
+    X_SIGNATURE_NONCE("X-SIGNATURE-NONCE"),
+
+    /**
+     * Represents the HMAC signature over the security headers, the timestamp and the nonce.
+     */
+    X_SIGNATURE("X-SIGNATURE");
 
     private final String headerName;
 
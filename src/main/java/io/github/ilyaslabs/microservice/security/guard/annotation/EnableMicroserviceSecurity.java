@@ -18,6 +18,9 @@ import java.lang.annotation.Target;
  *
  * Use this annotation to activate customized HTTP security behaviors,
  * including stateless session management and custom authentication filters.
+ * Servlet applications are configured the same way by auto-configuration; the
+ * annotation keeps the guard enabled when {@code microservice.security.guard.enabled}
+ * is set to {@code false} or auto-configuration is excluded.
  *
  * Target: Classes annotated with `@Configuration`
  * Retention: Runtime
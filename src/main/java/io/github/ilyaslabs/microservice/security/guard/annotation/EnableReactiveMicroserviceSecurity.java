@@ -0,0 +1,30 @@
+package io.github.ilyaslabs.microservice.security.guard.annotation;
+
+import io.github.ilyaslabs.microservice.security.guard.reactive.ReactiveHttpSecurityConfigurer;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to enable WebFlux security configuration in a reactive Spring application.
+ *
+ * When applied to a `@Configuration` class, this annotation imports the
+ * {@code ReactiveHttpSecurityConfigurer} class, the reactive counterpart of
+ * {@link EnableMicroserviceSecurity}, which sets up the security web filter chain and
+ * reactive method security based on the same security headers.
+ * WebFlux applications are configured the same way by auto-configuration; the
+ * annotation keeps the guard enabled when it is switched off or excluded there.
+ *
+ * Target: Classes annotated with `@Configuration`
+ * Retention: Runtime
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Import(ReactiveHttpSecurityConfigurer.class)
+public @interface EnableReactiveMicroserviceSecurity {
+}
@@ -0,0 +1,57 @@
+package io.github.ilyaslabs.microservice.security.guard.annotation;
+
+import org.springframework.core.annotation.AliasFor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requires the caller to hold scopes, and optionally to be an internal call, to invoke a method.
+ * <p>
+ * The attributes combine: a call is allowed if it holds every {@link #allOf()} scope, at least one
+ * {@link #anyOf()} scope (when any are listed) and, with {@link #internalOnly()}, did not come through the API
+ * gateway. The requirement of each method is compiled once at startup into a mask over the configured scope
+ * registry, so checking a call is a few word operations instead of an expression evaluation.
+ * A method-level annotation replaces the one on its class.
+ * <pre>
+ * &#64;RequireScopes(allOf = "orders:read", anyOf = {"orders:admin", "support"}, internalOnly = true)
+ * </pre>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequireScopes {
+
+    /**
+     * Alias for {@link #allOf()}.
+     *
+     * @return the scopes that are all required
+     */
+    @AliasFor("allOf")
+    String[] value() default {};
+
+    /**
+     * Scopes the caller must all hold.
+     *
+     * @return the scopes that are all required
+     */
+    @AliasFor("value")
+    String[] allOf() default {};
+
+    /**
+     * Scopes of which the caller must hold at least one; ignored if empty.
+     *
+     * @return the alternative scopes
+     */
+    String[] anyOf() default {};
+
+    /**
+     * Whether calls through the API gateway are denied, as with {@link Secured}.
+     *
+     * @return true to allow internal calls only
+     */
+    boolean internalOnly() default false;
+}
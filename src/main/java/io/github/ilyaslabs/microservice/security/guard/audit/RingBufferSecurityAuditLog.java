@@ -0,0 +1,414 @@
+package io.github.ilyaslabs.microservice.security.guard.audit;
+
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link SecurityAuditLog} that hands decisions to a background writer through a bounded, lock-free ring buffer
+ * and appends them to a local file in batches.
+ * <p>
+ * The ring buffer is a multi-producer, single-consumer array queue (after Dmitry Vyukov's bounded queue): each slot
+ * carries a sequence number, a producer claims a slot with a single compare-and-set on the tail, fills the
+ * preallocated slot and publishes it by advancing the slot's sequence. Recording a decision therefore neither
+ * allocates nor takes a lock. When the buffer is full the decision is dropped and counted; the writer reports the
+ * number of dropped decisions in the file, so gaps in the trail are visible.
+ * <p>
+ * The writer thread drains up to a batch of decisions, formats them as tab separated lines
+ * ({@code timestamp, decision, user id, call type, handler, reason}) and appends the batch with a single
+ * {@link FileChannel} write. It parks for the poll interval when the buffer is empty.
+ * <p>
+ * When the file cannot be opened or written, the writer fails over to the application log: the batch that failed
+ * and every decision drained meanwhile are logged, and the file is reopened every retry interval until writing
+ * succeeds again. Failures are counted in {@link #writeFailures()}, and {@link #isWriting()} tells whether the file
+ * is currently being written, so that neither state goes unnoticed.
+ */
+@Slf4j
+public class RingBufferSecurityAuditLog implements SecurityAuditLog, AutoCloseable {
+
+    private static final String ALLOW = "ALLOW";
+
+    private static final String DENY = "DENY";
+
+    private static final long RETRY_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final Slot[] slots;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder writeFailures = new LongAdder();
+
+    private final Path file;
+
+    private final boolean includeAllowed;
+
+    private final int batchSize;
+
+    private final long pollIntervalNanos;
+
+    private final Clock clock;
+
+    private final StringBuilder batch = new StringBuilder();
+
+    private final Thread writer;
+
+    private long head;
+
+    private long reportedDrops;
+
+    private volatile boolean running;
+
+    private volatile boolean failing;
+
+    /**
+     * Creates an audit log; decisions are buffered but not written until {@link #start()} is called.
+     *
+     * @param file           the file decisions are appended to, created with its directories if missing
+     * @param capacity       the capacity of the ring buffer, rounded up to a power of two
+     * @param batchSize      the maximum number of decisions written at once
+     * @param pollInterval   how long the writer waits when the buffer is empty
+     * @param includeAllowed whether allowed calls are recorded, or only denials
+     * @param clock          the clock timestamping decisions
+     */
+    public RingBufferSecurityAuditLog(Path file, int capacity, int batchSize, Duration pollInterval, boolean includeAllowed, Clock clock) {
+
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("capacity and batch size must be positive");
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+        this.slots = new Slot[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+
+        this.file = file;
+        this.batchSize = batchSize;
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.includeAllowed = includeAllowed;
+        this.clock = clock;
+        this.writer = Thread.ofPlatform()
+                .name("security-guard-audit")
+                .daemon()
+                .unstarted(this::run);
+    }
+
+    /**
+     * Starts the background writer.
+     */
+    public void start() {
+        running = true;
+        writer.start();
+    }
+
+    /**
+     * Stops the background writer after it has written the buffered decisions.
+     */
+    @Override
+    public void close() {
+
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(writer);
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordAllowed(AuthenticationContext authenticationContext, Method handler) {
+        if (includeAllowed) {
+            offer(ALLOW, authenticationContext, handler, null);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordDenied(AuthenticationContext authenticationContext, Method handler, String reason) {
+        offer(DENY, authenticationContext, handler, reason);
+    }
+
+    /**
+     * Returns the number of decisions dropped because the buffer was full.
+     *
+     * @return the number of dropped decisions
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of times the file could not be opened or written.
+     *
+     * @return the number of write failures
+     */
+    public long writeFailures() {
+        return writeFailures.sum();
+    }
+
+    /**
+     * Returns whether decisions currently reach the file, rather than the application log after a write failure.
+     *
+     * @return false while the writer fails over to the application log
+     */
+    public boolean isWriting() {
+        return !failing;
+    }
+
+    private void offer(String decision, AuthenticationContext authenticationContext, Method handler, String reason) {
+
+        long position = tail.get();
+
+        while (true) {
+            long sequence = sequences.getAcquire((int) position & mask);
+            long difference = sequence - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the writer has not consumed this slot yet: the buffer is full
+                dropped.increment();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        int index = (int) position & mask;
+        Slot slot = slots[index];
+        slot.timestamp = clock.millis();
+        slot.decision = decision;
+        slot.userId = authenticationContext != null ? authenticationContext.userId() : null;
+        slot.gatewayCall = authenticationContext != null && authenticationContext.isGatewayCall();
+        slot.handler = handler;
+        slot.reason = reason;
+
+        sequences.setRelease(index, position + 1);
+    }
+
+    private void run() {
+
+        while (running) {
+            try (FileChannel channel = open()) {
+
+                if (failing) {
+                    log.info("Security audit log {} is written again", file);
+                    failing = false;
+                }
+
+                while (running) {
+                    if (drain(channel) == 0) {
+                        LockSupport.parkNanos(this, pollIntervalNanos);
+                    }
+                }
+
+                while (drain(channel) > 0) {
+                    // write what was buffered before the log was closed
+                }
+
+                return;
+            } catch (IOException e) {
+                writeFailures.increment();
+                if (!failing) {
+                    log.error("Security audit log {} failed, decisions are written to the application log until it can be reopened", file, e);
+                    failing = true;
+                }
+                failOver();
+                LockSupport.parkNanos(this, RETRY_INTERVAL_NANOS);
+            }
+        }
+
+        // closed while failing over
+        failOver();
+    }
+
+    /**
+     * Logs the batch that could not be written, and every buffered decision, to the application log.
+     */
+    private void failOver() {
+        while (true) {
+            if (!batch.isEmpty()) {
+                batch.setLength(batch.length() - 1);
+                log.warn("Security audit:\n{}", batch);
+                batch.setLength(0);
+            }
+            if (fill() == 0 && batch.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private FileChannel open() throws IOException {
+
+        Path parent = file.toAbsolutePath().getParent();
+
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Writes up to a batch of buffered decisions.
+     *
+     * @return the number of decisions written
+     */
+    private int drain(FileChannel channel) throws IOException {
+
+        int count = fill();
+
+        if (!batch.isEmpty()) {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            batch.setLength(0);
+        }
+
+        return count;
+    }
+
+    /**
+     * Formats up to a batch of buffered decisions into the batch, preceded by the drops not reported yet.
+     *
+     * @return the number of decisions taken from the buffer
+     */
+    private int fill() {
+
+        batch.setLength(0);
+
+        long drops = dropped.sum();
+        if (drops != reportedDrops) {
+            batch.append(Instant.ofEpochMilli(clock.millis())).append('\t').append("DROPPED").append('\t')
+                    .append(drops - reportedDrops).append('\n');
+            reportedDrops = drops;
+        }
+
+        int count = 0;
+
+        while (count < batchSize) {
+            int index = (int) head & mask;
+
+            if (sequences.getAcquire(index) != head + 1) {
+                break;
+            }
+
+            Slot slot = slots[index];
+            append(slot);
+            slot.clear();
+
+            sequences.setRelease(index, head + slots.length);
+            head++;
+            count++;
+        }
+
+        return count;
+    }
+
+    private void append(Slot slot) {
+        batch.append(Instant.ofEpochMilli(slot.timestamp)).append('\t')
+                .append(slot.decision).append('\t')
+                .append(slot.userId != null ? slot.userId.toHexString() : "-").append('\t')
+                .append(slot.gatewayCall ? "gateway" : "internal").append('\t');
+
+        if (slot.handler != null) {
+            batch.append(slot.handler.getDeclaringClass().getName()).append('#').append(slot.handler.getName());
+        } else {
+            batch.append('-');
+        }
+
+        batch.append('\t');
+        appendSanitized(slot.reason);
+        batch.append('\n');
+    }
+
+    /**
+     * Appends a free-form reason, replacing control characters so that a reason cannot forge audit lines.
+     */
+    private void appendSanitized(String reason) {
+
+        if (reason == null) {
+            batch.append('-');
+            return;
+        }
+
+        for (int i = 0; i < reason.length(); i++) {
+            char c = reason.charAt(i);
+            batch.append(Character.isISOControl(c) ? ' ' : c);
+        }
+    }
+
+    /**
+     * A preallocated ring buffer entry, written by one producer and then read by the writer.
+     */
+    private static final class Slot {
+
+        private long timestamp;
+
+        private String decision;
+
+        private ObjectId userId;
+
+        private boolean gatewayCall;
+
+        private Method handler;
+
+        private String reason;
+
+        private void clear() {
+            userId = null;
+            handler = null;
+            reason = null;
+        }
+    }
+}
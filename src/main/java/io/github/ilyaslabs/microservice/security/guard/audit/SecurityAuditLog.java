@@ -0,0 +1,48 @@
+package io.github.ilyaslabs.microservice.security.guard.audit;
+
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+
+import java.lang.reflect.Method;
+
+/**
+ * Records the authorization decisions of the security guard as an audit trail.
+ * <p>
+ * Implementations must not block the calling request thread. Like the metrics, every method has an empty default
+ * and {@link #NOOP} is used when auditing is disabled.
+ */
+public interface SecurityAuditLog {
+
+    /**
+     * An audit log that records nothing.
+     */
+    SecurityAuditLog NOOP = new SecurityAuditLog() {
+    };
+
+    /**
+     * Records a call allowed to reach a secured handler.
+     *
+     * @param authenticationContext the authentication context of the call, or {@code null} if unknown
+     * @param handler               the handler method, or {@code null} if unknown
+     */
+    default void recordAllowed(AuthenticationContext authenticationContext, Method handler) {
+    }
+
+    /**
+     * Records a call denied access to a handler.
+     *
+     * @param authenticationContext the authentication context of the call, or {@code null} if unknown
+     * @param handler               the handler method, or {@code null} if unknown
+     * @param reason                the reason of the denial
+     */
+    default void recordDenied(AuthenticationContext authenticationContext, Method handler, String reason) {
+    }
+
+    /**
+     * Returns whether decisions are recorded at all, so that callers can skip collecting their arguments.
+     *
+     * @return true if this log records decisions
+     */
+    default boolean isEnabled() {
+        return false;
+    }
+}
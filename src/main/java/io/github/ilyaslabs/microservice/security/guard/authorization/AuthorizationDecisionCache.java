@@ -0,0 +1,138 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.SecureCallEvaluator;
+import io.github.ilyaslabs.microservice.security.guard.cache.BoundedCache;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeSet;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Predicate;
+
+/**
+ * Memoizes authorization decisions per rule, scope set and kind of call.
+ * <p>
+ * Decisions are keyed by the identity of the rule, the identity of the caller's {@link ScopeSet} and the gateway
+ * flag. A rule is any object standing for one policy, like a {@link ScopeRequirement}, which is compiled once per
+ * method and target class, so two classes inheriting a method under different class-level annotations never share a
+ * decision. Scope sets resolved through the {@link ScopeAuthorityCache} are interned, so all callers presenting the
+ * same scopes share one key and the lookup never hashes or compares scope names. Without the scope cache every
+ * request carries its own scope set and decisions are not reused. Custom evaluators may be cached as well, provided
+ * they decide from the scopes and the gateway flag only, never from the user id or the request. Checks cheaper than
+ * the lookup itself, like the {@link SecureCallEvaluator} reading the gateway flag, are not worth caching.
+ * <p>
+ * Entries are bounded by a {@link BoundedCache}; when the policy behind a rule changes, the cache must be cleared
+ * with {@link #invalidateAll()}. Lookups are timed, and the hit ratio is exposed through {@link #stats()}, both recorded
+ * in the {@link SecurityGuardMetrics}.
+ */
+public class AuthorizationDecisionCache {
+
+    private final BoundedCache<DecisionKey, Boolean> decisions;
+
+    private SecurityGuardMetrics metrics = SecurityGuardMetrics.NOOP;
+
+    /**
+     * Creates a cache holding at most {@code maximumSize} decisions.
+     *
+     * @param maximumSize the maximum number of decisions, must be positive
+     */
+    public AuthorizationDecisionCache(int maximumSize) {
+        this.decisions = new BoundedCache<>(maximumSize);
+    }
+
+    /**
+     * Sets the metrics timing the decisions.
+     *
+     * @param metrics the metrics, {@link SecurityGuardMetrics#NOOP} by default
+     */
+    public void setMetrics(SecurityGuardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns whether a call meets the requirement, checking it only if no decision is cached for the caller's scopes
+     * and kind of call. Authentications whose principal is not an {@link AuthenticationContext} are checked without
+     * caching.
+     *
+     * @param requirement    the compiled requirement of the invoked method
+     * @param authentication the authentication of the call, may be {@code null}
+     * @return true if the call is allowed
+     */
+    public boolean isAllowed(ScopeRequirement requirement, Authentication authentication) {
+        return isAllowed(requirement, authentication, requirement::isAllowed);
+    }
+
+    /**
+     * Returns the decision of the evaluator for a call under the rule, evaluating it only if no decision is cached
+     * for the rule, the caller's scopes and kind of call. Authentications whose principal is not an
+     * {@link AuthenticationContext} are evaluated without caching.
+     *
+     * @param rule           the rule being decided, compared by identity, so one instance must stand for one policy
+     * @param authentication the authentication of the call, may be {@code null}
+     * @param evaluator      the evaluator deciding from the scopes and the gateway flag
+     * @return true if the call is allowed
+     */
+    public boolean isAllowed(Object rule, Authentication authentication, Predicate<Authentication> evaluator) {
+
+        long start = metrics.startDecision();
+
+        boolean allowed = authentication != null && authentication.getPrincipal() instanceof AuthenticationContext context
+                ? decisions.get(new DecisionKey(rule, context.scopes(), context.isGatewayCall()), _ -> evaluator.test(authentication))
+                : evaluator.test(authentication);
+
+        metrics.stopDecision(start);
+
+        return allowed;
+    }
+
+    /**
+     * Removes all decisions, to be called whenever the policy behind a rule changes.
+     */
+    public void invalidateAll() {
+        decisions.invalidateAll();
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the cache statistics.
+     *
+     * @return the current statistics
+     */
+    public BoundedCache.CacheStats stats() {
+        return decisions.stats();
+    }
+
+    /**
+     * Identifies a decision; the rule and the interned scope set are compared by identity.
+     */
+    private static final class DecisionKey {
+
+        private final Object rule;
+
+        private final ScopeSet scopes;
+
+        private final boolean gatewayCall;
+
+        private final int hash;
+
+        private DecisionKey(Object rule, ScopeSet scopes, boolean gatewayCall) {
+            this.rule = rule;
+            this.scopes = scopes;
+            this.gatewayCall = gatewayCall;
+            this.hash = (31 * System.identityHashCode(rule) + System.identityHashCode(scopes)) * 2 + (gatewayCall ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof DecisionKey other
+                    && rule == other.rule
+                    && scopes == other.scopes
+                    && gatewayCall == other.gatewayCall);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.SecureCallEvaluator;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import io.github.ilyaslabs.microservice.security.guard.audit.SecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.jfr.AuthorizationEvent;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.core.MethodClassKey;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.method.AuthorizationAdvisor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Wraps Spring Security's {@link PreAuthorize} advisor so that methods protected only by {@link Secured}
+ * are authorized by calling {@link SecureCallEvaluator} directly, without SpEL evaluation.
+ * <p>
+ * Whether a method's effective {@link PreAuthorize} originates from {@link Secured} is resolved once, when the
+ * pointcut is matched during proxy creation at startup, and an invocation finds it through an
+ * {@link InvocationCache} without allocating a lookup key. Every other {@link PreAuthorize} method is delegated
+ * unchanged to the wrapped advisor. Denials throw {@link AccessDeniedException}, so they are translated to
+ * 403 by the same exception handling as the expression based path. Allowed calls are recorded in the
+ * {@link SecurityAuditLog}, if one is set. Every decision is emitted as an {@link AuthorizationEvent} while a flight
+ * recording enables it. Decisions are not memoized in the {@link AuthorizationDecisionCache}: the evaluator reads a
+ * single flag of the context, which is cheaper than building and looking up a decision key.
+ * <p>
+ * Created with {@code compiled} set to false, the advisor leaves {@link Secured} methods to the expression of the
+ * wrapped advisor as well, and only observes its decisions: the calls it lets through are recorded in the
+ * {@link SecurityAuditLog}, and both allowed and denied calls are emitted as {@link AuthorizationEvent}s, so that
+ * the default expression mode is audited and recorded like the compiled one.
+ */
+public class CompiledSecuredAdvisor implements AuthorizationAdvisor {
+
+    private final AuthorizationAdvisor delegate;
+
+    private final Supplier<SecureCallEvaluator> secureCallEvaluator;
+
+    private final Supplier<SecurityAuditLog> auditLog;
+
+    private final boolean compiled;
+
+    private final Map<MethodClassKey, Boolean> securedMethods = new ConcurrentHashMap<>();
+
+    private final InvocationCache<Boolean> invocations = new InvocationCache<>(this::isSecuredMethod);
+
+    private final Pointcut pointcut;
+
+    /**
+     * Creates an advisor that short-circuits {@link Secured} methods and delegates everything else.
+     *
+     * @param delegate            the {@link PreAuthorize} advisor registered by method security
+     * @param secureCallEvaluator supplies the evaluator used for {@link Secured} methods
+     */
+    public CompiledSecuredAdvisor(AuthorizationAdvisor delegate, Supplier<SecureCallEvaluator> secureCallEvaluator) {
+        this(delegate, secureCallEvaluator, () -> SecurityAuditLog.NOOP);
+    }
+
+    /**
+     * Creates an advisor that short-circuits {@link Secured} methods, records allowed calls, and delegates
+     * everything else.
+     *
+     * @param delegate            the {@link PreAuthorize} advisor registered by method security
+     * @param secureCallEvaluator supplies the evaluator used for {@link Secured} methods
+     * @param auditLog            supplies the audit log recording allowed calls
+     */
+    public CompiledSecuredAdvisor(AuthorizationAdvisor delegate, Supplier<SecureCallEvaluator> secureCallEvaluator,
+                                  Supplier<SecurityAuditLog> auditLog) {
+        this(delegate, secureCallEvaluator, auditLog, true);
+    }
+
+    /**
+     * Creates an advisor that either short-circuits {@link Secured} methods or leaves them to the expression, records
+     * allowed calls, and delegates everything else.
+     *
+     * @param delegate            the {@link PreAuthorize} advisor registered by method security
+     * @param secureCallEvaluator supplies the evaluator used for {@link Secured} methods
+     * @param auditLog            supplies the audit log recording allowed calls
+     * @param compiled            true to authorize {@link Secured} methods without SpEL, false to only observe the
+     *                            decisions of the expression
+     */
+    public CompiledSecuredAdvisor(AuthorizationAdvisor delegate, Supplier<SecureCallEvaluator> secureCallEvaluator,
+                                  Supplier<SecurityAuditLog> auditLog, boolean compiled) {
+        this.delegate = delegate;
+        this.secureCallEvaluator = secureCallEvaluator;
+        this.auditLog = auditLog;
+        this.compiled = compiled;
+        this.pointcut = new ResolvingPointcut(delegate.getPointcut());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        if (!invocations.get(invocation)) {
+            return delegate.invoke(invocation);
+        }
+
+        if (!compiled) {
+            return observe(invocation);
+        }
+
+        Authentication authentication = SecurityContextHolder.getContextHolderStrategy().getContext().getAuthentication();
+
+        AuthorizationEvent event = new AuthorizationEvent();
+        event.begin();
+
+        boolean allowed = secureCallEvaluator.get().isAllowed(authentication);
+
+        if (event.shouldCommit()) {
+            event.commit("@Secured", allowed, authentication, ClassUtils.getQualifiedMethodName(invocation.getMethod(),
+                    InvocationCache.targetClass(invocation)));
+        }
+
+        if (!allowed) {
+            throw new AccessDeniedException("Access Denied");
+        }
+
+        SecurityAuditLog audit = auditLog.get();
+
+        if (audit.isEnabled()) {
+            audit.recordAllowed(authentication.getPrincipal() instanceof AuthenticationContext context ? context : null,
+                    invocation.getMethod());
+        }
+
+        return invocation.proceed();
+    }
+
+    /**
+     * Lets the wrapped advisor decide, emitting the decision as an event and recording the call in the audit log once
+     * it is allowed to proceed.
+     */
+    private Object observe(MethodInvocation invocation) throws Throwable {
+
+        SecurityAuditLog audit = auditLog.get();
+        AuthorizationEvent event = new AuthorizationEvent();
+
+        if (!event.isEnabled() && !audit.isEnabled()) {
+            return delegate.invoke(invocation);
+        }
+
+        event.begin();
+
+        ObservedInvocation observed = new ObservedInvocation(invocation, audit, event);
+
+        try {
+            return delegate.invoke(observed);
+        } catch (AccessDeniedException e) {
+            // a denial thrown by the method itself, after it was allowed to proceed, is not a decision of the advisor
+            if (!observed.proceeded && event.shouldCommit()) {
+                event.commit("@Secured", false, SecurityContextHolder.getContextHolderStrategy().getContext().getAuthentication(),
+                        ClassUtils.getQualifiedMethodName(invocation.getMethod(), InvocationCache.targetClass(invocation)));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Advice getAdvice() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isPerInstance() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getOrder() {
+        return delegate.getOrder();
+    }
+
+    /**
+     * Returns whether the effective {@link PreAuthorize} of the method is the one contributed by {@link Secured}.
+     *
+     * @param method      the invoked method
+     * @param targetClass the class of the invoked target
+     * @return true if the method is authorized only by {@link Secured}
+     */
+    boolean isSecuredMethod(Method method, Class<?> targetClass) {
+        return securedMethods.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> SecuredMethods.isSecured(method, targetClass));
+    }
+
+    /**
+     * An invocation that emits the allowed decision and records the call when the wrapped advisor proceeds with it.
+     */
+    private static final class ObservedInvocation implements MethodInvocation {
+
+        private final MethodInvocation invocation;
+
+        private final SecurityAuditLog audit;
+
+        private final AuthorizationEvent event;
+
+        private boolean proceeded;
+
+        private ObservedInvocation(MethodInvocation invocation, SecurityAuditLog audit, AuthorizationEvent event) {
+            this.invocation = invocation;
+            this.audit = audit;
+            this.event = event;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+
+            proceeded = true;
+
+            Authentication authentication = SecurityContextHolder.getContextHolderStrategy().getContext().getAuthentication();
+
+            if (event.shouldCommit()) {
+                event.commit("@Secured", true, authentication, ClassUtils.getQualifiedMethodName(invocation.getMethod(),
+                        InvocationCache.targetClass(invocation)));
+            }
+
+            if (audit.isEnabled()) {
+                audit.recordAllowed(authentication != null && authentication.getPrincipal() instanceof AuthenticationContext context
+                        ? context : null, invocation.getMethod());
+            }
+
+            return invocation.proceed();
+        }
+
+        @Override
+        public Method getMethod() {
+            return invocation.getMethod();
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return invocation.getArguments();
+        }
+
+        @Override
+        public Object getThis() {
+            return invocation.getThis();
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return invocation.getStaticPart();
+        }
+    }
+
+    /**
+     * Pointcut that matches exactly like the wrapped one and records the {@link Secured} resolution of every
+     * matched method, so that it is computed while proxies are created rather than on the first call.
+     */
+    private final class ResolvingPointcut extends StaticMethodMatcher implements Pointcut {
+
+        private final Pointcut pointcut;
+
+        private ResolvingPointcut(Pointcut pointcut) {
+            this.pointcut = pointcut;
+        }
+
+        @Override
+        public ClassFilter getClassFilter() {
+            return pointcut.getClassFilter();
+        }
+
+        @Override
+        public MethodMatcher getMethodMatcher() {
+            return this;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+
+            boolean matches = pointcut.getMethodMatcher().matches(method, targetClass);
+
+            if (matches) {
+                isSecuredMethod(method, targetClass);
+            }
+
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.SecureCallEvaluator;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import io.github.ilyaslabs.microservice.security.guard.audit.SecurityAuditLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.security.authorization.method.AuthorizationAdvisor;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * Replaces the {@code @PreAuthorize} advisor registered by method security with a {@link CompiledSecuredAdvisor},
+ * switching {@link Secured} methods to SpEL-free authorization in compiled mode, and observing the decisions of the
+ * expression otherwise.
+ * <p>
+ * The post processor is {@link PriorityOrdered}, and first among those, so that it is in place before the advisor
+ * is first requested by the auto-proxy creator.
+ */
+public class CompiledSecuredPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+    /**
+     * Name of the {@code @PreAuthorize} advisor bean registered by {@code @EnableMethodSecurity}.
+     */
+    public static final String PRE_AUTHORIZE_ADVISOR_BEAN_NAME = "preAuthorizeAuthorizationMethodInterceptor";
+
+    private final ObjectProvider<SecureCallEvaluator> secureCallEvaluator;
+
+    private final ObjectProvider<SecurityAuditLog> auditLog;
+
+    private final boolean compiled;
+
+    /**
+     * Creates the post processor for compiled mode.
+     *
+     * @param secureCallEvaluator provides the evaluator used for {@link Secured} methods, resolved on first use
+     * @param auditLog            provides the audit log recording allowed calls, resolved on first use
+     */
+    public CompiledSecuredPostProcessor(ObjectProvider<SecureCallEvaluator> secureCallEvaluator,
+                                        ObjectProvider<SecurityAuditLog> auditLog) {
+        this(secureCallEvaluator, auditLog, true);
+    }
+
+    /**
+     * Creates the post processor.
+     *
+     * @param secureCallEvaluator provides the evaluator used for {@link Secured} methods, resolved on first use
+     * @param auditLog            provides the audit log recording allowed calls, resolved on first use
+     * @param compiled            true to authorize {@link Secured} methods without SpEL, false to only observe them
+     */
+    public CompiledSecuredPostProcessor(ObjectProvider<SecureCallEvaluator> secureCallEvaluator,
+                                        ObjectProvider<SecurityAuditLog> auditLog,
+                                        boolean compiled) {
+        this.secureCallEvaluator = secureCallEvaluator;
+        this.auditLog = auditLog;
+        this.compiled = compiled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (PRE_AUTHORIZE_ADVISOR_BEAN_NAME.equals(beanName) && bean instanceof AuthorizationAdvisor advisor) {
+            return new CompiledSecuredAdvisor(advisor, SingletonSupplier.of(secureCallEvaluator::getObject),
+                    SingletonSupplier.of(() -> auditLog.getIfAvailable(() -> SecurityAuditLog.NOOP)), compiled);
+        }
+
+        return bean;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Remembers, per invoked method, what an advisor resolved for the class of the last target it was invoked on.
+ * <p>
+ * A method is nearly always invoked on targets of a single class, so an invocation on that class finds its value
+ * with one lookup keyed by the method, without resolving the user class behind a proxy or allocating a
+ * method-class key. Only an invocation on another class, e.g. a second subclass inheriting the method, resolves
+ * again and replaces the remembered value.
+ *
+ * @param <V> the type of the resolved values, which may be {@code null}
+ */
+final class InvocationCache<V> {
+
+    private final BiFunction<Method, Class<?>, V> resolver;
+
+    private final Map<Method, Resolved<V>> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache resolving values with the given function.
+     *
+     * @param resolver resolves the value of a method invoked on a target class
+     */
+    InvocationCache(BiFunction<Method, Class<?>, V> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Returns the value resolved for the invoked method and the class of its target.
+     *
+     * @param invocation the method invocation
+     * @return the resolved value, may be {@code null}
+     */
+    V get(MethodInvocation invocation) {
+
+        Method method = invocation.getMethod();
+        Object target = invocation.getThis();
+        Class<?> type = target != null ? target.getClass() : method.getDeclaringClass();
+
+        Resolved<V> last = resolved.get(method);
+
+        if (last != null && last.type() == type) {
+            return last.value();
+        }
+
+        V value = resolver.apply(method, targetClass(invocation));
+        resolved.put(method, new Resolved<>(type, value));
+
+        return value;
+    }
+
+    /**
+     * Returns the user class of the invoked target.
+     *
+     * @param invocation the method invocation
+     * @return the target class, or the declaring class of the method if there is no target
+     */
+    static Class<?> targetClass(MethodInvocation invocation) {
+        return invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+    }
+
+    private record Resolved<V>(Class<?> type, V value) {
+    }
+}
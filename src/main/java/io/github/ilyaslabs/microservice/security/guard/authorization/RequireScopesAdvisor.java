@@ -0,0 +1,215 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.annotation.RequireScopes;
+import io.github.ilyaslabs.microservice.security.guard.audit.SecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.jfr.AuthorizationEvent;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authorization.method.AuthorizationAdvisor;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Enforces {@link RequireScopes} on method invocations.
+ * <p>
+ * The annotation of every matched method is compiled into a {@link ScopeRequirement} when the pointcut is matched
+ * during proxy creation at startup; an invocation looks the requirement up through an {@link InvocationCache} and
+ * checks it without expression evaluation. Denials throw {@link AccessDeniedException}, so they are translated to 403 like any other method
+ * security denial. Decisions are memoized in the {@link AuthorizationDecisionCache} and allowed calls recorded in the
+ * {@link SecurityAuditLog}, when these are enabled. Every decision is emitted as an {@link AuthorizationEvent} while a
+ * flight recording enables it.
+ */
+@Slf4j
+public class RequireScopesAdvisor implements AuthorizationAdvisor {
+
+    private final Supplier<ScopeRegistry> scopeRegistry;
+
+    private final Supplier<AuthorizationDecisionCache> decisionCache;
+
+    private final Supplier<SecurityAuditLog> auditLog;
+
+    private final Map<MethodClassKey, ScopeRequirement> requirements = new ConcurrentHashMap<>();
+
+    private final InvocationCache<ScopeRequirement> invocations = new InvocationCache<>(this::requirement);
+
+    private final Pointcut pointcut = new RequireScopesPointcut();
+
+    /**
+     * Creates the advisor.
+     *
+     * @param scopeRegistry supplies the registry the requirements are encoded with
+     * @param decisionCache supplies the decision cache, or {@code null} to check every call
+     * @param auditLog      supplies the audit log recording allowed calls
+     */
+    public RequireScopesAdvisor(Supplier<ScopeRegistry> scopeRegistry, Supplier<AuthorizationDecisionCache> decisionCache,
+                                Supplier<SecurityAuditLog> auditLog) {
+        this.scopeRegistry = scopeRegistry;
+        this.decisionCache = decisionCache;
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        Method method = invocation.getMethod();
+        ScopeRequirement requirement = invocations.get(invocation);
+
+        if (requirement == null) {
+            return invocation.proceed();
+        }
+
+        Authentication authentication = SecurityContextHolder.getContextHolderStrategy().getContext().getAuthentication();
+        AuthorizationDecisionCache cache = decisionCache.get();
+
+        AuthorizationEvent event = new AuthorizationEvent();
+        event.begin();
+
+        boolean allowed = cache != null
+                ? cache.isAllowed(requirement, authentication)
+                : requirement.isAllowed(authentication);
+
+        if (event.shouldCommit()) {
+            event.commit("@RequireScopes", allowed, authentication, ClassUtils.getQualifiedMethodName(method, InvocationCache.targetClass(invocation)));
+        }
+
+        if (!allowed) {
+            throw new AccessDeniedException("Access Denied");
+        }
+
+        SecurityAuditLog audit = auditLog.get();
+
+        if (audit.isEnabled()) {
+            audit.recordAllowed(authentication.getPrincipal() instanceof AuthenticationContext context ? context : null, method);
+        }
+
+        return invocation.proceed();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Advice getAdvice() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isPerInstance() {
+        return true;
+    }
+
+    /**
+     * Runs right after {@code @PreAuthorize}, so both apply when a method carries both.
+     */
+    @Override
+    public int getOrder() {
+        return AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder() + 1;
+    }
+
+    /**
+     * Returns the compiled requirement of a method.
+     *
+     * @param method      the invoked method
+     * @param targetClass the class of the invoked target
+     * @return the requirement, or {@code null} if neither the method nor its class is annotated
+     */
+    ScopeRequirement requirement(Method method, Class<?> targetClass) {
+
+        MethodClassKey key = new MethodClassKey(method, targetClass);
+        ScopeRequirement requirement = requirements.get(key);
+
+        if (requirement != null) {
+            return requirement;
+        }
+
+        MergedAnnotation<RequireScopes> annotation = findAnnotation(method, targetClass);
+
+        if (!annotation.isPresent()) {
+            return null;
+        }
+
+        return requirements.computeIfAbsent(key, _ -> compile(method, annotation.synthesize()));
+    }
+
+    private ScopeRequirement compile(Method method, RequireScopes annotation) {
+
+        ScopeRequirement requirement = ScopeRequirement.compile(annotation, scopeRegistry.get());
+
+        if (!requirement.isFullyIndexed()) {
+            log.info("@RequireScopes of {} uses scopes missing from the scope registry, they are compared by name", method);
+        }
+
+        return requirement;
+    }
+
+    private static MergedAnnotation<RequireScopes> findAnnotation(Method method, Class<?> targetClass) {
+
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+
+        MergedAnnotation<RequireScopes> annotation = MergedAnnotations
+                .from(specificMethod, MergedAnnotations.SearchStrategy.TYPE_HIERARCHY)
+                .get(RequireScopes.class);
+
+        if (!annotation.isPresent()) {
+            annotation = MergedAnnotations
+                    .from(targetClass, MergedAnnotations.SearchStrategy.TYPE_HIERARCHY)
+                    .get(RequireScopes.class);
+        }
+
+        return annotation;
+    }
+
+    /**
+     * Matches annotated methods, compiling their requirement while proxies are created rather than on the first call.
+     */
+    private final class RequireScopesPointcut extends StaticMethodMatcher implements Pointcut {
+
+        @Override
+        public ClassFilter getClassFilter() {
+            return ClassFilter.TRUE;
+        }
+
+        @Override
+        public MethodMatcher getMethodMatcher() {
+            return this;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return requirement(method, targetClass) != null;
+        }
+    }
+}
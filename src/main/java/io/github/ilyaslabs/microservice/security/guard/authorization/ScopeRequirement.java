@@ -0,0 +1,88 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.annotation.RequireScopes;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeSet;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The compiled form of a {@link RequireScopes} annotation or a path policy rule: its scopes encoded as masks over a
+ * {@link ScopeRegistry}.
+ * <p>
+ * When the caller's scopes are backed by the same registry and every required scope is registered, a check is one
+ * AND per bitset word; unregistered scopes fall back to comparing names.
+ *
+ * @param allOf        the scopes that are all required
+ * @param anyOf        the scopes of which one is required, empty if there is no such condition
+ * @param internalOnly whether gateway calls are denied
+ */
+public record ScopeRequirement(ScopeSet allOf, ScopeSet anyOf, boolean internalOnly) {
+
+    /**
+     * Compiles an annotation.
+     *
+     * @param annotation the annotation
+     * @param registry   the registry the caller's scopes are encoded with
+     * @return the compiled requirement
+     */
+    public static ScopeRequirement compile(RequireScopes annotation, ScopeRegistry registry) {
+        return of(List.of(annotation.allOf()), List.of(annotation.anyOf()), annotation.internalOnly(), registry);
+    }
+
+    /**
+     * Compiles a requirement from scope names.
+     *
+     * @param allOf        the scopes that are all required
+     * @param anyOf        the scopes of which one is required, empty if there is no such condition
+     * @param internalOnly whether gateway calls are denied
+     * @param registry     the registry the caller's scopes are encoded with
+     * @return the compiled requirement
+     */
+    public static ScopeRequirement of(Collection<String> allOf, Collection<String> anyOf, boolean internalOnly, ScopeRegistry registry) {
+        return new ScopeRequirement(registry.mask(allOf), registry.mask(anyOf), internalOnly);
+    }
+
+    /**
+     * Checks whether a call meets the requirement.
+     *
+     * @param authentication the authentication of the call, may be {@code null}
+     * @return true if the call is allowed
+     */
+    public boolean isAllowed(Authentication authentication) {
+        return authentication != null
+                && authentication.getPrincipal() instanceof AuthenticationContext context
+                && isAllowed(context);
+    }
+
+    /**
+     * Checks whether a caller meets the requirement.
+     *
+     * @param context the authentication context of the caller
+     * @return true if the call is allowed
+     */
+    public boolean isAllowed(AuthenticationContext context) {
+
+        if (internalOnly && context.isExternalCall()) {
+            return false;
+        }
+
+        if (!context.hasAllScopes(allOf)) {
+            return false;
+        }
+
+        return anyOf.size() == 0 || context.hasAnyScope(anyOf);
+    }
+
+    /**
+     * Returns whether every required scope is registered, i.e. checks never compare scope names.
+     *
+     * @return true if both masks are fully indexed
+     */
+    public boolean isFullyIndexed() {
+        return allOf.isFullyIndexed() && anyOf.isFullyIndexed();
+    }
+}
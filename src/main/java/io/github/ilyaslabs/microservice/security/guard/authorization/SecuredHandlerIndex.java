@@ -0,0 +1,279 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.SecureCallEvaluator;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import io.github.ilyaslabs.microservice.security.guard.jfr.AuthorizationEvent;
+import io.github.ilyaslabs.microservice.security.guard.jfr.RejectionEvent;
+import io.github.ilyaslabs.microservice.security.guard.path.PathTrie;
+import io.github.ilyaslabs.microservice.security.guard.path.RequestPaths;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.RequestPath;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable index of the handler methods authorized by {@link Secured}, built from the handler mappings once
+ * the application context has started.
+ * <p>
+ * The authentication filter uses it to reject calls that the {@link SecureCallEvaluator} denies before the request
+ * reaches the {@code DispatcherServlet}: the handler is looked up with the same handler mappings, in the same order,
+ * and only if it is a {@link Secured} method is the call rejected. The rejection is written by the application's
+ * {@link HandlerExceptionResolver}, so the response is the same 403 the method-level check produces through
+ * {@link io.github.ilyaslabs.microservice.security.guard.SecurityControllerAdvice}. The method-level check stays in
+ * place for every call that reaches the handler.
+ * <p>
+ * The path patterns of the {@link Secured} mappings are compiled into a {@link PathTrie} per request method, with
+ * variables and wildcards widened to whole segments, so the trie can only over-approximate the secured paths.
+ * Requests to any other path skip the evaluator and the handler lookup altogether. Denied calls to {@link Secured} handlers are emitted as
+ * {@link AuthorizationEvent}s while a flight recording enables them.
+ */
+@Slf4j
+public class SecuredHandlerIndex implements SmartInitializingSingleton {
+
+    private final ObjectProvider<HandlerMapping> handlerMappingProvider;
+
+    private final ObjectProvider<HandlerExceptionResolver> handlerExceptionResolverProvider;
+
+    private final SecureCallEvaluator secureCallEvaluator;
+
+    private volatile List<HandlerMapping> handlerMappings = List.of();
+
+    private volatile Set<Method> securedMethods = Set.of();
+
+    private volatile PathTrie<Boolean> anyMethodPaths = PathTrie.empty();
+
+    private volatile Map<String, PathTrie<Boolean>> securedPaths = Map.of();
+
+    private volatile HandlerExceptionResolver handlerExceptionResolver;
+
+    /**
+     * Creates the index; it is populated once all singletons are instantiated.
+     *
+     * @param handlerMappingProvider           provides the handler mappings of the application
+     * @param handlerExceptionResolverProvider provides the resolver writing the 403 response
+     * @param secureCallEvaluator              the evaluator deciding whether a call may reach a {@link Secured} handler
+     */
+    public SecuredHandlerIndex(ObjectProvider<HandlerMapping> handlerMappingProvider,
+                               ObjectProvider<HandlerExceptionResolver> handlerExceptionResolverProvider,
+                               SecureCallEvaluator secureCallEvaluator) {
+        this.handlerMappingProvider = handlerMappingProvider;
+        this.handlerExceptionResolverProvider = handlerExceptionResolverProvider;
+        this.secureCallEvaluator = secureCallEvaluator;
+    }
+
+    /**
+     * Builds the index from the request mappings registered at startup.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        List<HandlerMapping> mappings = handlerMappingProvider.orderedStream().toList();
+
+        Set<Method> secured = new HashSet<>();
+        Map<String, Boolean> anyMethod = new HashMap<>();
+        Map<String, Map<String, Boolean>> byMethod = new HashMap<>();
+
+        for (HandlerMapping mapping : mappings) {
+            if (mapping instanceof RequestMappingInfoHandlerMapping requestMappings) {
+                for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : requestMappings.getHandlerMethods().entrySet()) {
+                    HandlerMethod handlerMethod = entry.getValue();
+                    if (SecuredMethods.isSecured(handlerMethod.getMethod(), handlerMethod.getBeanType())) {
+                        secured.add(handlerMethod.getMethod());
+                        addPaths(entry.getKey(), anyMethod, byMethod);
+                    }
+                }
+            }
+        }
+
+        Map<String, PathTrie<Boolean>> paths = new HashMap<>();
+        byMethod.forEach((method, patterns) -> paths.put(method, PathTrie.of(patterns)));
+
+        handlerExceptionResolver = handlerExceptionResolverProvider.getIfAvailable();
+        securedMethods = Set.copyOf(secured);
+        anyMethodPaths = PathTrie.of(anyMethod);
+        securedPaths = Map.copyOf(paths);
+        handlerMappings = secured.isEmpty() ? List.of() : mappings;
+
+        log.debug("Indexed {} @Secured handler methods", secured.size());
+    }
+
+    /**
+     * Returns whether the handler method is authorized by {@link Secured}.
+     *
+     * @param handlerMethod the handler method
+     * @return true if the method is in the index
+     */
+    public boolean isSecured(HandlerMethod handlerMethod) {
+        return securedMethods.contains(handlerMethod.getMethod());
+    }
+
+    /**
+     * Returns whether the request may be mapped to a {@link Secured} handler, judged from its method and decoded
+     * path only. A false answer is definite; a true one still needs the handler lookup.
+     *
+     * @param request the request
+     * @return false if no {@link Secured} mapping can match the request
+     */
+    public boolean maybeSecured(HttpServletRequest request) {
+
+        if (RequestPaths.match(anyMethodPaths, request) != null) {
+            return true;
+        }
+
+        String method = request.getMethod();
+        PathTrie<Boolean> paths = securedPaths.get(method);
+
+        if (paths == null && HttpMethod.HEAD.matches(method)) {
+            // GET mappings serve HEAD requests as well
+            paths = securedPaths.get(HttpMethod.GET.name());
+        }
+
+        return paths != null && RequestPaths.match(paths, request) != null;
+    }
+
+    /**
+     * Returns the {@link Secured} handler of the request if the call is not allowed to reach it.
+     * Calls to paths no {@link Secured} mapping can match, and allowed calls, return without a handler lookup.
+     *
+     * @param request        the request
+     * @param authentication the authentication of the request
+     * @return the denied handler method, or {@code null} if the call may proceed
+     */
+    public HandlerMethod findDeniedHandler(HttpServletRequest request, Authentication authentication) {
+
+        AuthorizationEvent event = new AuthorizationEvent();
+        event.begin();
+
+        if (handlerMappings.isEmpty() || !maybeSecured(request) || secureCallEvaluator.isAllowed(authentication)) {
+            return null;
+        }
+
+        if (handlerMethod(request) instanceof HandlerMethod handlerMethod && isSecured(handlerMethod)) {
+            if (event.shouldCommit()) {
+                event.commit("@Secured handler", false, authentication,
+                        ClassUtils.getQualifiedMethodName(handlerMethod.getMethod(), handlerMethod.getBeanType()));
+            }
+            return handlerMethod;
+        }
+
+        return null;
+    }
+
+    /**
+     * Rejects a call to a {@link Secured} handler with the same response as the method-level check.
+     *
+     * @param request  the request
+     * @param response the response
+     * @param handler  the denied handler method
+     * @throws IOException if writing the response fails
+     */
+    public void reject(HttpServletRequest request, HttpServletResponse response, HandlerMethod handler) throws IOException {
+
+        RejectionEvent event = new RejectionEvent();
+        event.begin();
+
+        HandlerExceptionResolver resolver = handlerExceptionResolver;
+
+        ModelAndView handled = resolver != null
+                ? resolver.resolveException(request, response, handler, new AccessDeniedException("Access Denied"))
+                : null;
+
+        if (handled == null) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), HttpStatus.FORBIDDEN.getReasonPhrase());
+            // a resolved exception is recorded by the controller advice handling it
+            if (event.shouldCommit()) {
+                event.commit(HttpStatus.FORBIDDEN.value(), "access-denied", false,
+                        ClassUtils.getQualifiedMethodName(handler.getMethod(), handler.getBeanType()));
+            }
+        }
+    }
+
+    private static void addPaths(RequestMappingInfo info, Map<String, Boolean> anyMethod,
+                                 Map<String, Map<String, Boolean>> byMethod) {
+
+        Set<String> patterns = info.getPatternValues();
+        Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+
+        for (String pattern : patterns.isEmpty() ? Set.of("/**") : patterns) {
+            String candidate = candidatePattern(pattern);
+            if (methods.isEmpty()) {
+                anyMethod.put(candidate, Boolean.TRUE);
+            } else {
+                for (RequestMethod method : methods) {
+                    byMethod.computeIfAbsent(method.name(), _ -> new HashMap<>()).put(candidate, Boolean.TRUE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Widens a mapping pattern to the {@link PathTrie} syntax: segments holding a variable or a wildcard match any
+     * segment, and a capturing or {@code **} segment matches the rest of the path.
+     */
+    static String candidatePattern(String pattern) {
+
+        StringBuilder candidate = new StringBuilder();
+
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**") || segment.startsWith("{*")) {
+                candidate.append("/**");
+                break;
+            }
+            boolean variable = segment.indexOf('{') >= 0 || segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+            candidate.append('/').append(variable ? "*" : segment);
+        }
+
+        return candidate.isEmpty() ? "/" : candidate.toString();
+    }
+
+    private Object handlerMethod(HttpServletRequest request) {
+
+        RequestPath previousPath = ServletRequestPathUtils.hasParsedRequestPath(request)
+                ? ServletRequestPathUtils.getParsedRequestPath(request)
+                : null;
+
+        ServletRequestPathUtils.parseAndCache(request);
+
+        try {
+            for (HandlerMapping mapping : handlerMappings) {
+                HandlerExecutionChain chain = mapping.getHandler(request);
+                if (chain != null) {
+                    return chain.getHandler();
+                }
+            }
+            return null;
+        } catch (Exception e) {
+            // no match, unsupported method and the like are reported by the DispatcherServlet
+            return null;
+        } finally {
+            ServletRequestPathUtils.setParsedRequestPath(previousPath, request);
+        }
+    }
+}
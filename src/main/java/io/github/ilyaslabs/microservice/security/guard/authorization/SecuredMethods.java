@@ -0,0 +1,45 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import java.lang.reflect.Method;
+
+/**
+ * Resolves whether a method is authorized by {@link Secured}, following the same method-before-class lookup of
+ * {@link PreAuthorize} as Spring Security.
+ */
+final class SecuredMethods {
+
+    private SecuredMethods() {
+    }
+
+    /**
+     * Returns whether the effective {@link PreAuthorize} of the method is the one contributed by {@link Secured}.
+     *
+     * @param method      the method
+     * @param targetClass the class of the target the method is invoked on
+     * @return true if the method is authorized only by {@link Secured}
+     */
+    static boolean isSecured(Method method, Class<?> targetClass) {
+
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+
+        MergedAnnotation<PreAuthorize> preAuthorize = MergedAnnotations
+                .from(specificMethod, MergedAnnotations.SearchStrategy.TYPE_HIERARCHY)
+                .get(PreAuthorize.class);
+
+        if (!preAuthorize.isPresent()) {
+            preAuthorize = MergedAnnotations
+                    .from(targetClass, MergedAnnotations.SearchStrategy.TYPE_HIERARCHY)
+                    .get(PreAuthorize.class);
+        }
+
+        MergedAnnotation<?> source = preAuthorize.getMetaSource();
+
+        return preAuthorize.isPresent() && source != null && source.getType() == Secured.class;
+    }
+}
@@ -0,0 +1,257 @@
+package io.github.ilyaslabs.microservice.security.guard.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A small concurrent cache with a hard upper bound on the number of entries.
+ * <p>
+ * Entries live in a {@link ConcurrentHashMap}; each new entry also takes a slot of a ring as large as the bound, and
+ * once the ring is full, the slot of a victim chosen by the CLOCK (second chance) policy is reused: a rotating hand
+ * skips, and clears, entries that were read since it last passed them. An insert thus evicts in amortized constant
+ * time, and frequently read entries survive a flood of unique keys. Reads take no lock and only set the reference
+ * bit of an entry when it is clear; inserts of new keys serialize on the ring. Hits, misses and evictions are
+ * counted with {@link LongAdder}s so that concurrent readers do not contend.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries;
+
+    private final int maximumSize;
+
+    private final Entry<?, ?>[] ring;
+
+    private int hand;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache holding at most {@code maximumSize} entries.
+     *
+     * @param maximumSize the maximum number of entries, must be positive
+     */
+    public BoundedCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maximumSize, 1024));
+        this.ring = new Entry<?, ?>[maximumSize];
+    }
+
+    /**
+     * Returns the value cached for the key, computing and caching it with the loader on a miss.
+     * The loader may run more than once for the same key under contention; only one result is retained.
+     *
+     * @param key    the key, not {@code null}
+     * @param loader computes the value for a missing key, must not return {@code null}
+     * @return the cached or freshly computed value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+
+        Entry<K, V> entry = entries.get(key);
+
+        if (entry != null) {
+            hits.increment();
+            return entry.read();
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+
+        Entry<K, V> created = new Entry<>(key, value);
+        Entry<K, V> existing = entries.putIfAbsent(key, created);
+
+        if (existing != null) {
+            return existing.value;
+        }
+
+        admit(created);
+
+        return value;
+    }
+
+    /**
+     * Returns the value cached for the key without loading it.
+     *
+     * @param key the key, not {@code null}
+     * @return the cached value, or {@code null} if absent
+     */
+    public V getIfPresent(K key) {
+
+        Entry<K, V> entry = entries.get(key);
+
+        if (entry != null) {
+            hits.increment();
+            return entry.read();
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the value for the key, evicting another entry if the bound is exceeded.
+     *
+     * @param key   the key, not {@code null}
+     * @param value the value, not {@code null}
+     */
+    public void put(K key, V value) {
+
+        Entry<K, V> created = new Entry<>(key, value);
+        Entry<K, V> existing = entries.putIfAbsent(key, created);
+
+        if (existing == null) {
+            admit(created);
+        } else {
+            // the entry keeps its ring slot, so that the key never holds two
+            existing.value = value;
+        }
+    }
+
+    /**
+     * Removes the entry for the key, if present. Its ring slot is reused once the hand reaches it.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries whose value matches the predicate.
+     *
+     * @param predicate selects the values to remove
+     */
+    public void invalidateIf(Predicate<? super V> predicate) {
+        entries.values().removeIf(entry -> predicate.test(entry.value));
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void invalidateAll() {
+        synchronized (ring) {
+            entries.clear();
+            Arrays.fill(ring, null);
+        }
+    }
+
+    /**
+     * Returns the current number of entries.
+     *
+     * @return the number of cached entries
+     */
+    public long size() {
+        return entries.mappingCount();
+    }
+
+    /**
+     * Returns the configured maximum number of entries.
+     *
+     * @return the maximum size
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the cache statistics.
+     *
+     * @return the current statistics
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.mappingCount());
+    }
+
+    /**
+     * Gives a newly cached entry a ring slot, evicting the entry of the slot the hand settles on. The hand passes
+     * every slot at most twice, since it clears the reference bits it skips.
+     */
+    private void admit(Entry<K, V> entry) {
+        synchronized (ring) {
+            int skipped = 0;
+            while (true) {
+                int slot = hand;
+                hand = slot + 1 == ring.length ? 0 : slot + 1;
+
+                @SuppressWarnings("unchecked")
+                Entry<K, V> occupant = (Entry<K, V>) ring[slot];
+
+                // a slot left behind by an invalidated entry is stale even when its key was cached again since
+                boolean live = occupant != null && entries.get(occupant.key) == occupant;
+
+                // bounded even while readers keep setting bits again
+                if (live && occupant.referenced && skipped++ < ring.length) {
+                    occupant.referenced = false;
+                    continue;
+                }
+
+                // an empty or stale slot is reused without an eviction
+                if (live && entries.remove(occupant.key, occupant)) {
+                    evictions.increment();
+                }
+
+                ring[slot] = entry;
+                return;
+            }
+        }
+    }
+
+    /**
+     * A cached value with its key and the reference bit of the CLOCK policy. Entries are compared by identity, so
+     * that the ring only ever evicts the very entry that took the slot.
+     */
+    private static final class Entry<K, V> {
+
+        private final K key;
+
+        private volatile V value;
+
+        private volatile boolean referenced;
+
+        private Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        private V read() {
+            // a plain read first, so that hot entries do not write to their cache line on every hit
+            if (!referenced) {
+                referenced = true;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Point-in-time statistics of a {@link BoundedCache}.
+     *
+     * @param hits      the number of lookups that found a cached value
+     * @param misses    the number of lookups that did not find a cached value
+     * @param evictions the number of entries removed to stay within the size bound
+     * @param size      the number of entries at the time of the snapshot
+     */
+    public record CacheStats(long hits, long misses, long evictions, long size) {
+
+        /**
+         * Returns the ratio of hits to all lookups.
+         *
+         * @return the hit ratio between 0 and 1, or 0 if there were no lookups
+         */
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+}
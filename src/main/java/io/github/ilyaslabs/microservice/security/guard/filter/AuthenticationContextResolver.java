@@ -0,0 +1,107 @@
+package io.github.ilyaslabs.microservice.security.guard.filter;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeSet;
+import org.bson.types.ObjectId;
+
+/**
+ * Builds an {@link AuthenticationContext} from the raw {@link SecurityHeaders} values.
+ * <p>
+ * This is the parsing core shared by the servlet {@link CustomAuthenticationWebFilter} and the reactive
+ * web filter, so that both stacks interpret the headers identically. A {@link SecurityHeaders#X_SCOPES_COMPACT} value
+ * is decoded against the scope registry of the {@link ScopeAuthorityCache}; when it cannot be decoded, e.g. because
+ * the sender uses another registry version, the scopes are taken from {@link SecurityHeaders#X_SCOPES}.
+ */
+public class AuthenticationContextResolver {
+
+    private final ScopeAuthorityCache scopeAuthorityCache;
+
+    /**
+     * Creates a resolver that parses the scopes header on every call.
+     */
+    public AuthenticationContextResolver() {
+        this(null);
+    }
+
+    /**
+     * Creates a resolver that resolves scope headers through the given cache.
+     *
+     * @param scopeAuthorityCache the cache interning scope headers, or {@code null} to parse on every call
+     */
+    public AuthenticationContextResolver(ScopeAuthorityCache scopeAuthorityCache) {
+        this.scopeAuthorityCache = scopeAuthorityCache;
+    }
+
+    /**
+     * Builds the authentication context from the raw header values.
+     *
+     * @param userId     the {@link SecurityHeaders#X_USER_ID} value, may be {@code null}
+     * @param scopes     the {@link SecurityHeaders#X_SCOPES} value, may be {@code null}
+     * @param apiGateway the {@link SecurityHeaders#X_API_GATEWAY} value, may be {@code null}
+     * @return the authentication context of the request
+     */
+    public AuthenticationContext resolve(String userId, String scopes, String apiGateway) {
+        return resolve(userId, scopes, null, apiGateway);
+    }
+
+    /**
+     * Builds the authentication context from the raw header values, preferring the compact scopes.
+     *
+     * @param userId        the {@link SecurityHeaders#X_USER_ID} value, may be {@code null}
+     * @param scopes        the {@link SecurityHeaders#X_SCOPES} value, may be {@code null}
+     * @param compactScopes the {@link SecurityHeaders#X_SCOPES_COMPACT} value, may be {@code null}
+     * @param apiGateway    the {@link SecurityHeaders#X_API_GATEWAY} value, may be {@code null}
+     * @return the authentication context of the request
+     */
+    public AuthenticationContext resolve(String userId, String scopes, String compactScopes, String apiGateway) {
+
+        ObjectId id = SecurityHeaderParser.parseUserId(userId);
+
+        ScopeSet scopeSet = resolveScopes(scopes, compactScopes);
+
+        return new AuthenticationContext(id, scopeSet.authorities(), isGatewayCall(apiGateway), scopeSet);
+    }
+
+    /**
+     * Interprets the raw API gateway header value.
+     *
+     * @param apiGateway the {@link SecurityHeaders#X_API_GATEWAY} value, may be {@code null}
+     * @return true if the request is a gateway call
+     */
+    public static boolean isGatewayCall(String apiGateway) {
+        // if request contains X-API-GATEWAY header, consider it as a gateway call
+        return apiGateway != null;
+    }
+
+    /**
+     * Resolves the raw scopes header value.
+     *
+     * @param scopes the {@link SecurityHeaders#X_SCOPES} value, may be {@code null}
+     * @return the scope set, shared between requests when a cache is configured
+     */
+    public ScopeSet resolveScopes(String scopes, String compactScopes) {
+
+        if (compactScopes != null && scopeAuthorityCache != null) {
+            ScopeSet scopeSet = scopeAuthorityCache.resolveCompactScopeSet(compactScopes);
+            if (scopeSet != null) {
+                return scopeSet;
+            }
+        }
+
+        return resolveScopes(scopes);
+    }
+
+    /**
+     * Resolves the raw scopes header value.
+     *
+     * @param scopes the {@link SecurityHeaders#X_SCOPES} value, may be {@code null}
+     * @return the scope set, shared between requests when a cache is configured
+     */
+    public ScopeSet resolveScopes(String scopes) {
+        return scopeAuthorityCache != null
+                ? scopeAuthorityCache.resolveScopeSet(scopes)
+                : ScopeSet.of(SecurityHeaderParser.parseScopes(scopes));
+    }
+}
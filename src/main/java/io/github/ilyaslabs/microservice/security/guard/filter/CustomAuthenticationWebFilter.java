@@ -1,37 +1,74 @@
 package io.github.ilyaslabs.microservice.security.guard.filter;
 
+import io.github.ilyaslabs.microservice.security.guard.RejectionResponseWriter;
+import io.github.ilyaslabs.microservice.security.guard.ScopedAuthenticationContextProvider;
 import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.authorization.ScopeRequirement;
+import io.github.ilyaslabs.microservice.security.guard.authorization.SecuredHandlerIndex;
+import io.github.ilyaslabs.microservice.security.guard.jfr.HeaderParsingEvent;
+import io.github.ilyaslabs.microservice.security.guard.jfr.RejectionEvent;
+import io.github.ilyaslabs.microservice.security.guard.jwt.JwtAuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.path.PublicPathMatcher;
 import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.network.TrustedNetworks;
+import io.github.ilyaslabs.microservice.security.guard.policy.ReloadablePathPolicy;
+import io.github.ilyaslabs.microservice.security.guard.ratelimit.UserRateLimiter;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSignatureVerifier;
 import jakarta.annotation.Nonnull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.bson.types.ObjectId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This filter is responsible for authenticating incoming HTTP requests by extracting user-specific
  * information from custom headers and setting the authentication context within the security context.
  * It is executed once per request.
  * The filter performs the following:
+ * - Skips requests to the configured public paths, see {@link PublicPathMatcher}.
  * - Checks if the security context already contains authentication information; if present, the filter
  * chain is continued without further processing.
  * - Extracts the user ID from a custom header, {@link SecurityHeaders#X_USER_ID}, if it is present and valid.
  * - Extracts the associated security authorities from another custom header, {@link SecurityHeaders#X_SCOPES}, and converts
- * them into a collection of {@link SimpleGrantedAuthority}.
- * - Creates an {@link AuthenticationContext} object using the extracted user ID and authorities.
- * - Sets the authentication context within the {@link SecurityContextHolder}.
+ * them into a collection of {@link SimpleGrantedAuthority}; a {@link SecurityHeaders#X_SCOPES_COMPACT} bitmask against
+ * the shared scope registry takes precedence when it can be decoded.
+ * - Headers are interpreted by the {@link AuthenticationContextResolver} shared with the reactive stack, which
+ * parses them with {@link SecurityHeaderParser} without intermediate arrays or streams; when a
+ * {@link ScopeAuthorityCache} is configured, repeated scope headers share one interned authority list.
+ * - When a {@link JwtAuthenticationContextResolver} is set, the user ID and authorities are taken from a verified
+ * bearer token instead, and requests carrying an invalid token are answered with HTTP 401.
+ * - When a {@link HeaderSignatureVerifier} is set, requests whose security headers are not signed with the shared
+ * secret, or whose signature was already used, are answered with HTTP 401 before any context is built.
+ * - Creates an {@link AuthenticationContext} object using the extracted user ID and authorities; in lazy mode the
+ * headers are kept in a {@link LazyAuthenticationToken} and parsed only when the context is first read.
+ * - Sets the authentication context within the {@link SecurityContextHolder}, and optionally binds it as a scoped
+ * value for the {@link ScopedAuthenticationContextProvider}.
+ * - When {@link TrustedNetworks} are set, answers internal calls from outside the internal ranges, and gateway calls
+ * from outside the gateway ranges, with HTTP 403.
+ * - When a {@link UserRateLimiter} is set, answers requests over the limit of their user with HTTP 429 and a
+ * {@code Retry-After} header, without continuing the chain.
+ * - When a {@link ReloadablePathPolicy} is set, answers requests not meeting the requirement of the rule matching
+ * their method and path with HTTP 403.
+ * - When a {@link SecuredHandlerIndex} is set, rejects calls to {@code @Secured} handlers that are not allowed
+ * to reach them with HTTP 403, before the request is dispatched.
+ * - Records the time spent and the kind of call in the {@link SecurityGuardMetrics}, a no-op unless Micrometer is
+ * configured.
+ * - Emits a {@link HeaderParsingEvent} per request and a {@link RejectionEvent} per 401 or 403 to Java Flight
+ * Recorder; both cost nothing measurable unless a recording enables them.
  * - Continues the filter chain after successfully processing the request.
  * If the required headers are not present or valid, the filter simply delegates to the next filter in the chain
  * without setting any authentication information.
@@ -39,6 +76,168 @@ import java.util.stream.Stream;
  */
 public class CustomAuthenticationWebFilter extends OncePerRequestFilter {
 
+    private final AuthenticationContextResolver authenticationContextResolver;
+
+    private boolean scopedContext;
+
+    private boolean lazyContext;
+
+    private JwtAuthenticationContextResolver jwtAuthenticationContextResolver;
+
+    private SecurityGuardMetrics metrics = SecurityGuardMetrics.NOOP;
+
+    private PublicPathMatcher publicPathMatcher;
+
+    private SecuredHandlerIndex securedHandlerIndex;
+
+    private RejectionResponseWriter rejectionResponseWriter;
+
+    private UserRateLimiter userRateLimiter;
+
+    private TrustedNetworks trustedNetworks;
+
+    private HeaderSignatureVerifier headerSignatureVerifier;
+
+    private ReloadablePathPolicy pathPolicy;
+
+    /**
+     * Creates a filter that parses the scopes header on every request.
+     */
+    public CustomAuthenticationWebFilter() {
+        this(new AuthenticationContextResolver());
+    }
+
+    /**
+     * Creates a filter that resolves scope headers through the given cache.
+     *
+     * @param scopeAuthorityCache the cache interning scope headers into authority lists, or {@code null}
+     *                            to parse the header on every request
+     */
+    public CustomAuthenticationWebFilter(ScopeAuthorityCache scopeAuthorityCache) {
+        this(new AuthenticationContextResolver(scopeAuthorityCache));
+    }
+
+    /**
+     * Creates a filter that builds authentication contexts with the given resolver.
+     *
+     * @param authenticationContextResolver the resolver parsing the security headers
+     */
+    public CustomAuthenticationWebFilter(AuthenticationContextResolver authenticationContextResolver) {
+        this.authenticationContextResolver = authenticationContextResolver;
+    }
+
+    /**
+     * Sets whether the authentication context is additionally bound as a scoped value for the remainder of the
+     * request, to be read by the {@link ScopedAuthenticationContextProvider}.
+     *
+     * @param scopedContext true to bind the context as a scoped value
+     */
+    public void setScopedContext(boolean scopedContext) {
+        this.scopedContext = scopedContext;
+    }
+
+    /**
+     * Sets whether the security headers are parsed only when the authentication context is first read. The
+     * context is still built for every request when it is bound as a scoped value, when requests are rate limited,
+     * or when early rejection evaluates a call to an application with {@code @Secured} handlers.
+     *
+     * @param lazyContext true to defer parsing the headers
+     */
+    public void setLazyContext(boolean lazyContext) {
+        this.lazyContext = lazyContext;
+    }
+
+    /**
+     * Sets the resolver used to build the authentication context from a bearer JWT instead of the
+     * {@link SecurityHeaders#X_USER_ID} and {@link SecurityHeaders#X_SCOPES} headers.
+     *
+     * @param jwtAuthenticationContextResolver the resolver of bearer tokens, or {@code null} to trust the headers
+     */
+    public void setJwtAuthenticationContextResolver(JwtAuthenticationContextResolver jwtAuthenticationContextResolver) {
+        this.jwtAuthenticationContextResolver = jwtAuthenticationContextResolver;
+    }
+
+    /**
+     * Sets the metrics recording the authentication of each request.
+     *
+     * @param metrics the metrics, {@link SecurityGuardMetrics#NOOP} by default
+     */
+    public void setMetrics(SecurityGuardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the public paths for which no authentication context is built.
+     *
+     * @param publicPathMatcher the matcher of public paths, or {@code null} to authenticate every request
+     */
+    public void setPublicPathMatcher(PublicPathMatcher publicPathMatcher) {
+        this.publicPathMatcher = publicPathMatcher != null && !publicPathMatcher.isEmpty() ? publicPathMatcher : null;
+    }
+
+    /**
+     * Sets the index of {@code @Secured} handlers used to reject denied calls before dispatch.
+     *
+     * @param securedHandlerIndex the index, or {@code null} to leave the check to method security only
+     */
+    public void setSecuredHandlerIndex(SecuredHandlerIndex securedHandlerIndex) {
+        this.securedHandlerIndex = securedHandlerIndex;
+    }
+
+    /**
+     * Sets the writer of the pre-serialized 401 response for invalid bearer tokens.
+     *
+     * @param rejectionResponseWriter the writer, or {@code null} to send the error through the container
+     */
+    public void setRejectionResponseWriter(RejectionResponseWriter rejectionResponseWriter) {
+        this.rejectionResponseWriter = rejectionResponseWriter;
+    }
+
+    /**
+     * Sets the rate limiter applied to every authenticated request.
+     *
+     * @param userRateLimiter the rate limiter, or {@code null} to not limit requests
+     */
+    public void setUserRateLimiter(UserRateLimiter userRateLimiter) {
+        this.userRateLimiter = userRateLimiter;
+    }
+
+    /**
+     * Sets the address ranges internal and gateway calls are accepted from.
+     *
+     * @param trustedNetworks the allowlists, or {@code null} to accept calls from any address
+     */
+    public void setTrustedNetworks(TrustedNetworks trustedNetworks) {
+        this.trustedNetworks = trustedNetworks;
+    }
+
+    /**
+     * Sets the verifier of the signature over the security headers. Not applied to bearer tokens, which are
+     * signed themselves.
+     *
+     * @param headerSignatureVerifier the verifier, or {@code null} to trust unsigned headers
+     */
+    public void setHeaderSignatureVerifier(HeaderSignatureVerifier headerSignatureVerifier) {
+        this.headerSignatureVerifier = headerSignatureVerifier;
+    }
+
+    /**
+     * Sets the declarative policy of requirements per method and path.
+     *
+     * @param pathPolicy the policy, or {@code null} to not restrict requests by path
+     */
+    public void setPathPolicy(ReloadablePathPolicy pathPolicy) {
+        this.pathPolicy = pathPolicy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean shouldNotFilter(@Nonnull HttpServletRequest request) {
+        return publicPathMatcher != null && publicPathMatcher.matches(request);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -50,24 +249,172 @@ public class CustomAuthenticationWebFilter extends OncePerRequestFilter {
             return;
         }
 
-        ObjectId userId = Optional.ofNullable(request.getHeader(SecurityHeaders.X_USER_ID.getName()))
-                .filter(ObjectId::isValid)
-                .map(ObjectId::new)
-                .orElse(null);
+        long start = metrics.startFilter();
+
+        HeaderParsingEvent parsingEvent = new HeaderParsingEvent();
+        parsingEvent.begin();
+        RejectionEvent rejectionEvent = new RejectionEvent();
+        rejectionEvent.begin();
+
+        Authentication authentication;
+
+        boolean gatewayCall;
+
+        if (jwtAuthenticationContextResolver != null) {
+            AuthenticationContext authenticationContext;
+            try {
+                authenticationContext = jwtAuthenticationContextResolver.resolve(
+                        request.getHeader(HttpHeaders.AUTHORIZATION),
+                        request.getHeader(SecurityHeaders.X_API_GATEWAY.getName())
+                );
+            } catch (AuthenticationException e) {
+                metrics.recordUnauthorized();
+                metrics.stopFilter(start);
+                parsed(parsingEvent, "invalid-token", false, request);
+                unauthorized(response);
+                rejected(rejectionEvent, HttpStatus.UNAUTHORIZED, "invalid-token", false, request);
+                return;
+            }
+            authentication = authenticated(authenticationContext);
+            gatewayCall = authenticationContext.isGatewayCall();
+            parsed(parsingEvent, authenticationContext.userId() != null ? "authenticated" : "anonymous", gatewayCall, request);
+        } else {
+            String userId = request.getHeader(SecurityHeaders.X_USER_ID.getName());
+            String scopes = request.getHeader(SecurityHeaders.X_SCOPES.getName());
+            String compactScopes = request.getHeader(SecurityHeaders.X_SCOPES_COMPACT.getName());
+            String apiGateway = request.getHeader(SecurityHeaders.X_API_GATEWAY.getName());
+
+            if (headerSignatureVerifier != null && !headerSignatureVerifier.verify(userId, scopes, compactScopes, apiGateway,
+                    request.getHeader(SecurityHeaders.X_SIGNATURE_TIMESTAMP.getName()),
+                    request.getHeader(SecurityHeaders.X_SIGNATURE_NONCE.getName()),
+                    request.getHeader(SecurityHeaders.X_SIGNATURE.getName()))) {
+                metrics.recordUnauthorized();
+                metrics.stopFilter(start);
+                parsed(parsingEvent, "invalid-signature", false, request);
+                unauthorized(response);
+                rejected(rejectionEvent, HttpStatus.UNAUTHORIZED, "invalid-signature", false, request);
+                return;
+            }
+
+            if (lazyContext) {
+                LazyAuthenticationToken lazyAuthentication = new LazyAuthenticationToken(
+                        authenticationContextResolver, metrics, userId, scopes, compactScopes, apiGateway);
+                authentication = lazyAuthentication;
+                gatewayCall = lazyAuthentication.isGatewayCall();
+                parsed(parsingEvent, "deferred", gatewayCall, request);
+            } else {
+                AuthenticationContext authenticationContext = authenticationContextResolver.resolve(userId, scopes, compactScopes, apiGateway);
+
+                if (userId != null && authenticationContext.userId() == null) {
+                    metrics.recordInvalidUserId();
+                }
+
+                authentication = authenticated(authenticationContext);
+                gatewayCall = authenticationContext.isGatewayCall();
+
+                if (parsingEvent.shouldCommit()) {
+                    String decision = authenticationContext.userId() != null ? "authenticated"
+                            : userId != null ? "invalid-user-id" : "anonymous";
+                    parsingEvent.commit(decision, gatewayCall, handler(request));
+                }
+            }
+        }
+
+        if (trustedNetworks != null && !trustedNetworks.isTrusted(request.getRemoteAddr(), gatewayCall)) {
+            metrics.recordForbidden(null);
+            metrics.stopFilter(start);
+            forbidden(response);
+            rejected(rejectionEvent, HttpStatus.FORBIDDEN, "untrusted-network", gatewayCall, request);
+            return;
+        }
+
+        if (userRateLimiter != null) {
+            long retryAfterNanos = userRateLimiter.tryAcquire((AuthenticationContext) authentication.getPrincipal());
+            if (retryAfterNanos > 0) {
+                metrics.recordRateLimited();
+                metrics.stopFilter(start);
+                tooManyRequests(response, retryAfterNanos);
+                return;
+            }
+        }
+
+        if (pathPolicy != null) {
+            ScopeRequirement requirement = pathPolicy.match(request);
+            if (requirement != null && !requirement.isAllowed(authentication)) {
+                metrics.recordForbidden(null);
+                metrics.stopFilter(start);
+                forbidden(response);
+                rejected(rejectionEvent, HttpStatus.FORBIDDEN, "path-policy", gatewayCall, request);
+                return;
+            }
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        List<SimpleGrantedAuthority> authorityList = Optional.ofNullable(request.getHeader(SecurityHeaders.X_SCOPES.getName()))
-                .map(scopes -> Arrays.stream(scopes.split(" "))).orElse(Stream.of(""))
-                .filter(StringUtils::hasText)
-                .map(SimpleGrantedAuthority::new)
-                .toList();
+        metrics.recordCall(gatewayCall);
 
-        // if request contains X-API-GATEWAY header, consider it as a gateway call
-        boolean isGatewayCall = request.getHeader(SecurityHeaders.X_API_GATEWAY.getName()) != null;
+        if (securedHandlerIndex != null) {
+            HandlerMethod deniedHandler = securedHandlerIndex.findDeniedHandler(request, authentication);
+            if (deniedHandler != null) {
+                metrics.stopFilter(start);
+                securedHandlerIndex.reject(request, response, deniedHandler);
+                return;
+            }
+        }
 
-        AuthenticationContext authenticationContext = new AuthenticationContext(userId, authorityList, isGatewayCall);
+        metrics.stopFilter(start);
 
-        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(authenticationContext, null, authorityList));
+        if (scopedContext) {
+            ScopedAuthenticationContextProvider.runWithContext((AuthenticationContext) authentication.getPrincipal(),
+                    () -> filterChain.doFilter(request, response));
+            return;
+        }
 
         filterChain.doFilter(request, response);
     }
+
+    private void forbidden(HttpServletResponse response) throws IOException {
+        if (rejectionResponseWriter != null) {
+            rejectionResponseWriter.writeForbidden(response);
+        } else {
+            response.sendError(HttpStatus.FORBIDDEN.value(), HttpStatus.FORBIDDEN.getReasonPhrase());
+        }
+    }
+
+    private void unauthorized(HttpServletResponse response) throws IOException {
+        if (rejectionResponseWriter != null) {
+            rejectionResponseWriter.writeUnauthorized(response);
+        } else {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), HttpStatus.UNAUTHORIZED.getReasonPhrase());
+        }
+    }
+
+    private static void parsed(HeaderParsingEvent event, String decision, boolean gatewayCall, HttpServletRequest request) {
+        if (event.shouldCommit()) {
+            event.commit(decision, gatewayCall, handler(request));
+        }
+    }
+
+    private static void rejected(RejectionEvent event, HttpStatus status, String decision, boolean gatewayCall,
+                                 HttpServletRequest request) {
+        if (event.shouldCommit()) {
+            event.commit(status.value(), decision, gatewayCall, handler(request));
+        }
+    }
+
+    private static String handler(HttpServletRequest request) {
+        return request.getMethod() + " " + request.getRequestURI();
+    }
+
+    private static Authentication authenticated(AuthenticationContext authenticationContext) {
+        return new UsernamePasswordAuthenticationToken(authenticationContext, null, authenticationContext.authorities());
+    }
+
+    private static void tooManyRequests(HttpServletResponse response, long retryAfterNanos) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        // Retry-After has a resolution of seconds; round up so that a client honouring it is admitted
+        long retryAfterSeconds = (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentLength(0);
+    }
 }
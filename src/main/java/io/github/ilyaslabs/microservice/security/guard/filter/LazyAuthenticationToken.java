@@ -0,0 +1,205 @@
+package io.github.ilyaslabs.microservice.security.guard.filter;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * An {@link Authentication} that keeps the raw {@link SecurityHeaders} values of a request and builds the
+ * {@link AuthenticationContext} only when the principal, the authorities or the name are first read.
+ * <p>
+ * Endpoints that never look at the caller skip parsing the user id and the scopes entirely. The context is
+ * resolved at most once per request, with double-checked locking, so threads the request fans out to see the
+ * same instance. Otherwise the token behaves like the authenticated {@code UsernamePasswordAuthenticationToken}
+ * the filter builds eagerly: the principal is the {@link AuthenticationContext}, so the
+ * {@code SecureCallEvaluator} and the {@code AuthenticationContextProvider}s read it unchanged; the evaluator decides
+ * from {@link #isGatewayCall()} without building the context.
+ * <p>
+ * Only the raw header values are serialized. A deserialized token builds its context again with a default
+ * {@link AuthenticationContextResolver}, which does not know the scope registry of the application.
+ */
+public final class LazyAuthenticationToken implements Authentication {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private transient AuthenticationContextResolver authenticationContextResolver;
+
+    private transient SecurityGuardMetrics metrics;
+
+    private final String userId;
+
+    private final String scopes;
+
+    private final String compactScopes;
+
+    private final String apiGateway;
+
+    private transient volatile AuthenticationContext authenticationContext;
+
+    private Object details;
+
+    /**
+     * Creates a token for the raw header values of a request.
+     *
+     * @param authenticationContextResolver the resolver building the context on first access
+     * @param metrics                       the metrics recording a malformed user id once the context is built
+     * @param userId                        the {@link SecurityHeaders#X_USER_ID} value, may be {@code null}
+     * @param scopes                        the {@link SecurityHeaders#X_SCOPES} value, may be {@code null}
+     * @param apiGateway                    the {@link SecurityHeaders#X_API_GATEWAY} value, may be {@code null}
+     */
+    public LazyAuthenticationToken(AuthenticationContextResolver authenticationContextResolver, SecurityGuardMetrics metrics,
+                                   String userId, String scopes, String apiGateway) {
+        this(authenticationContextResolver, metrics, userId, scopes, null, apiGateway);
+    }
+
+    /**
+     * Creates a token for the raw header values of a request, including the compact scopes.
+     *
+     * @param authenticationContextResolver the resolver building the context on first access
+     * @param metrics                       the metrics recording a malformed user id once the context is built
+     * @param userId                        the {@link SecurityHeaders#X_USER_ID} value, may be {@code null}
+     * @param scopes                        the {@link SecurityHeaders#X_SCOPES} value, may be {@code null}
+     * @param compactScopes                 the {@link SecurityHeaders#X_SCOPES_COMPACT} value, may be {@code null}
+     * @param apiGateway                    the {@link SecurityHeaders#X_API_GATEWAY} value, may be {@code null}
+     */
+    public LazyAuthenticationToken(AuthenticationContextResolver authenticationContextResolver, SecurityGuardMetrics metrics,
+                                   String userId, String scopes, String compactScopes, String apiGateway) {
+        this.authenticationContextResolver = authenticationContextResolver;
+        this.metrics = metrics;
+        this.userId = userId;
+        this.scopes = scopes;
+        this.compactScopes = compactScopes;
+        this.apiGateway = apiGateway;
+    }
+
+    /**
+     * Returns whether the request came through the API gateway, without building the context.
+     *
+     * @return true for a gateway call
+     */
+    public boolean isGatewayCall() {
+        return AuthenticationContextResolver.isGatewayCall(apiGateway);
+    }
+
+    /**
+     * Returns whether the context has been built.
+     *
+     * @return true once the principal or the authorities have been read
+     */
+    public boolean isResolved() {
+        return authenticationContext != null;
+    }
+
+    /**
+     * Returns the authentication context, building it on first access.
+     *
+     * @return the authentication context of the request
+     */
+    public AuthenticationContext authenticationContext() {
+
+        AuthenticationContext context = authenticationContext;
+
+        if (context == null) {
+            synchronized (this) {
+                context = authenticationContext;
+                if (context == null) {
+                    context = authenticationContextResolver.resolve(userId, scopes, compactScopes, apiGateway);
+                    if (userId != null && context.userId() == null) {
+                        metrics.recordInvalidUserId();
+                    }
+                    authenticationContext = context;
+                }
+            }
+        }
+
+        return context;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authenticationContext().authorities();
+    }
+
+    /**
+     * Returns {@code null}; header based authentication has no credentials.
+     */
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getDetails() {
+        return details;
+    }
+
+    /**
+     * Sets the authentication details.
+     *
+     * @param details the details
+     */
+    public void setDetails(Object details) {
+        this.details = details;
+    }
+
+    /**
+     * Returns the {@link AuthenticationContext}, building it on first access.
+     */
+    @Override
+    public Object getPrincipal() {
+        return authenticationContext();
+    }
+
+    /**
+     * Returns {@code true}; the token is created for requests the filter has authenticated.
+     */
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    /**
+     * Rejects changing the authentication state, as for an authenticated {@code UsernamePasswordAuthenticationToken}.
+     *
+     * @throws IllegalArgumentException always
+     */
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        throw new IllegalArgumentException("The authentication state of a header based token cannot be changed");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return authenticationContext().toString();
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        authenticationContextResolver = new AuthenticationContextResolver();
+        metrics = SecurityGuardMetrics.NOOP;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [Principal=" + (isResolved() ? authenticationContext : "<unresolved>")
+                + ", Authenticated=true]";
+    }
+}
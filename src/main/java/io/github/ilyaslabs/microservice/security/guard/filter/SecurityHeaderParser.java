@@ -0,0 +1,163 @@
+package io.github.ilyaslabs.microservice.security.guard.filter;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import org.bson.types.ObjectId;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Hand-written parser for the {@link SecurityHeaders} values that are read on every request.
+ * <p>
+ * The parser avoids the intermediate {@code Optional}s, arrays and streams of a naive implementation:
+ * {@link SecurityHeaders#X_USER_ID} is validated and decoded in a single pass over the hex string, and
+ * {@link SecurityHeaders#X_SCOPES} is tokenized in place, allocating only the resulting authorities.
+ * The results are identical to {@code ObjectId.isValid}/{@code new ObjectId(String)} and
+ * {@code split(" ")} followed by a {@code StringUtils::hasText} filter.
+ */
+public final class SecurityHeaderParser {
+
+    private static final int OBJECT_ID_HEX_LENGTH = 24;
+
+    private static final int OBJECT_ID_BYTE_LENGTH = 12;
+
+    private static final char SCOPE_SEPARATOR = ' ';
+
+    private SecurityHeaderParser() {
+    }
+
+    /**
+     * Parses the value of the {@link SecurityHeaders#X_USER_ID} header.
+     *
+     * @param value the raw header value, may be {@code null}
+     * @return the parsed {@link ObjectId}, or {@code null} if the value is absent or not a valid hex object id
+     */
+    public static ObjectId parseUserId(String value) {
+
+        if (value == null || value.length() != OBJECT_ID_HEX_LENGTH) {
+            return null;
+        }
+
+        byte[] bytes = new byte[OBJECT_ID_BYTE_LENGTH];
+
+        for (int i = 0; i < OBJECT_ID_BYTE_LENGTH; i++) {
+            int high = hexValue(value.charAt(i << 1));
+            int low = hexValue(value.charAt((i << 1) + 1));
+
+            if ((high | low) < 0) {
+                return null;
+            }
+
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+
+        return new ObjectId(bytes);
+    }
+
+    /**
+     * Parses the value of the {@link SecurityHeaders#X_SCOPES} header into authorities.
+     * Scopes are separated by a single space; blank tokens are skipped and order and duplicates are preserved.
+     *
+     * @param value the raw header value, may be {@code null}
+     * @return an unmodifiable list of authorities, empty if the value is absent or blank
+     */
+    public static List<SimpleGrantedAuthority> parseScopes(String value) {
+        return parseScopes(value, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * Parses the value of the {@link SecurityHeaders#X_SCOPES} header, obtaining each authority from the given factory.
+     * This allows callers to intern authorities instead of allocating a new instance per scope.
+     *
+     * @param value            the raw header value, may be {@code null}
+     * @param authorityFactory maps a single scope name to its authority
+     * @return an unmodifiable list of authorities, empty if the value is absent or blank
+     */
+    public static List<SimpleGrantedAuthority> parseScopes(String value, Function<String, SimpleGrantedAuthority> authorityFactory) {
+
+        int count = countScopes(value);
+
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+
+        SimpleGrantedAuthority[] authorities = new SimpleGrantedAuthority[count];
+        int index = 0;
+        int start = 0;
+        int length = value.length();
+
+        while (start <= length) {
+            int end = value.indexOf(SCOPE_SEPARATOR, start);
+
+            if (end < 0) {
+                end = length;
+            }
+
+            if (hasText(value, start, end)) {
+                authorities[index++] = authorityFactory.apply(value.substring(start, end));
+            }
+
+            start = end + 1;
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(authorities));
+    }
+
+    /**
+     * Counts the non-blank, space separated tokens of a scopes header without allocating.
+     *
+     * @param value the raw header value, may be {@code null}
+     * @return the number of scopes that {@link #parseScopes(String)} would return
+     */
+    static int countScopes(String value) {
+
+        if (value == null) {
+            return 0;
+        }
+
+        int count = 0;
+        int start = 0;
+        int length = value.length();
+
+        while (start <= length) {
+            int end = value.indexOf(SCOPE_SEPARATOR, start);
+
+            if (end < 0) {
+                end = length;
+            }
+
+            if (hasText(value, start, end)) {
+                count++;
+            }
+
+            start = end + 1;
+        }
+
+        return count;
+    }
+
+    private static boolean hasText(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
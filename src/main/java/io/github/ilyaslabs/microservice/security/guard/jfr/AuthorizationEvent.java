@@ -0,0 +1,72 @@
+package io.github.ilyaslabs.microservice.security.guard.jfr;
+
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Flight recorder event covering one authorization check of {@code @Secured} or {@code @RequireScopes}, including
+ * lookups in the decision cache. Used like {@link HeaderParsingEvent}.
+ */
+@Name(AuthorizationEvent.NAME)
+@Label("Authorization")
+@Category({"Security Guard", "Authorization"})
+@Description("Evaluation of @Secured or @RequireScopes for a call")
+@StackTrace(false)
+public final class AuthorizationEvent extends Event {
+
+    /**
+     * Name of the event type.
+     */
+    public static final String NAME = "io.github.ilyaslabs.security.guard.Authorization";
+
+    @Label("Check")
+    @Description("@Secured, @RequireScopes, or @Secured handler for the check done by the filter before dispatch")
+    private String check;
+
+    @Label("Decision")
+    @Description("allowed or denied")
+    private String decision;
+
+    @Label("Gateway Call")
+    private boolean gatewayCall;
+
+    @Label("Handler")
+    private String handler;
+
+    /**
+     * Fills in and commits the event; call only after {@link #shouldCommit()} returned true.
+     *
+     * @param check       the kind of check
+     * @param allowed     whether the call is allowed
+     * @param gatewayCall whether the call came through the API gateway
+     * @param handler     the checked handler method, or the method and path of the request if it is not resolved
+     */
+    public void commit(String check, boolean allowed, boolean gatewayCall, String handler) {
+        this.check = check;
+        this.decision = allowed ? "allowed" : "denied";
+        this.gatewayCall = gatewayCall;
+        this.handler = handler;
+        commit();
+    }
+
+    /**
+     * Fills in and commits the event, taking the gateway flag from the authentication of the call; call only after
+     * {@link #shouldCommit()} returned true.
+     *
+     * @param check          the kind of check
+     * @param allowed        whether the call is allowed
+     * @param authentication the authentication of the call, may be {@code null}
+     * @param handler        the checked handler method, or the method and path of the request if it is not resolved
+     */
+    public void commit(String check, boolean allowed, Authentication authentication, String handler) {
+        commit(check, allowed, authentication != null
+                && authentication.getPrincipal() instanceof AuthenticationContext context
+                && context.isGatewayCall(), handler);
+    }
+}
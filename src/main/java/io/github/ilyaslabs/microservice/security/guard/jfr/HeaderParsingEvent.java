@@ -0,0 +1,53 @@
+package io.github.ilyaslabs.microservice.security.guard.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering the interpretation of the security headers, or of the bearer token, of a request.
+ * <p>
+ * Like every event of the guard it is meant to stay on hot paths: create it, call {@link #begin()}, and only fill
+ * it in once {@link #shouldCommit()} returns true. While the event is disabled, {@code begin()} and
+ * {@code shouldCommit()} are no-ops and the JIT eliminates the allocation.
+ */
+@Name(HeaderParsingEvent.NAME)
+@Label("Header Parsing")
+@Category({"Security Guard", "Authentication"})
+@Description("Interpretation of the security headers of a request")
+@StackTrace(false)
+public final class HeaderParsingEvent extends Event {
+
+    /**
+     * Name of the event type.
+     */
+    public static final String NAME = "io.github.ilyaslabs.security.guard.HeaderParsing";
+
+    @Label("Decision")
+    @Description("authenticated, anonymous, deferred in lazy mode, invalid-user-id, invalid-token or invalid-signature")
+    private String decision;
+
+    @Label("Gateway Call")
+    private boolean gatewayCall;
+
+    @Label("Handler")
+    @Description("Method and path of the request")
+    private String handler;
+
+    /**
+     * Fills in and commits the event; call only after {@link #shouldCommit()} returned true.
+     *
+     * @param decision    the outcome of the parsing
+     * @param gatewayCall whether the call came through the API gateway
+     * @param handler     the method and path of the request
+     */
+    public void commit(String decision, boolean gatewayCall, String handler) {
+        this.decision = decision;
+        this.gatewayCall = gatewayCall;
+        this.handler = handler;
+        commit();
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.ilyaslabs.microservice.security.guard.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a call answered with HTTP 401 or 403. In the filter the duration spans the request's
+ * time in the filter up to and including writing the response; for method security denials it covers handling the
+ * {@code AccessDeniedException}. Used like {@link HeaderParsingEvent}.
+ */
+@Name(RejectionEvent.NAME)
+@Label("Rejection")
+@Category({"Security Guard"})
+@Description("A call answered with HTTP 401 or 403")
+@StackTrace(false)
+public final class RejectionEvent extends Event {
+
+    /**
+     * Name of the event type.
+     */
+    public static final String NAME = "io.github.ilyaslabs.security.guard.Rejection";
+
+    @Label("Status")
+    private int status;
+
+    @Label("Decision")
+    @Description("invalid-token, invalid-signature, untrusted-network, path-policy or access-denied")
+    private String decision;
+
+    @Label("Gateway Call")
+    private boolean gatewayCall;
+
+    @Label("Handler")
+    private String handler;
+
+    /**
+     * Fills in and commits the event; call only after {@link #shouldCommit()} returned true.
+     *
+     * @param status      the HTTP status of the response
+     * @param decision    the reason of the rejection
+     * @param gatewayCall whether the call came through the API gateway
+     * @param handler     the rejected handler method, or the method and path of the request if it is not resolved
+     */
+    public void commit(int status, String decision, boolean gatewayCall, String handler) {
+        this.status = status;
+        this.decision = decision;
+        this.gatewayCall = gatewayCall;
+        this.handler = handler;
+        commit();
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.ilyaslabs.microservice.security.guard.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import io.github.ilyaslabs.microservice.security.guard.SecurityGuardProperties;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Registers the {@link JwtAuthenticationContextResolver} when {@code microservice.security.guard.jwt.enabled} is set
+ * to {@code true}. Kept apart from the shared configuration so that the optional JOSE dependency is only required
+ * by services using the JWT mode.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "com.nimbusds.jwt.JWTClaimsSet")
+@ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "jwt.enabled", havingValue = "true")
+public class JwtAuthenticationConfiguration {
+
+    /**
+     * Provides the {@link JwtAuthenticationContextResolver} that builds authentication contexts from verified bearer tokens.
+     *
+     * @param properties the security guard configuration properties.
+     * @param authenticationContextResolver the resolver used to intern the scope claim.
+     * @param metrics the metrics exposing the verified token cache, available when Micrometer is present.
+     * @return an instance of {@link JwtAuthenticationContextResolver} verifying tokens against the configured JWK set.
+     */
+    @Bean
+    public JwtAuthenticationContextResolver jwtAuthenticationContextResolver(SecurityGuardProperties properties,
+                                                                             AuthenticationContextResolver authenticationContextResolver,
+                                                                             ObjectProvider<SecurityGuardMetrics> metrics) {
+        SecurityGuardProperties.Jwt jwt = properties.getJwt();
+
+        if (jwt.getJwkSet() == null) {
+            throw new IllegalStateException(SecurityGuardProperties.PREFIX + ".jwt.jwk-set must be set when JWT authentication is enabled");
+        }
+
+        Set<JWSAlgorithm> algorithms = jwt.getAlgorithms().stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet());
+
+        JwtAuthenticationContextResolver jwtAuthenticationContextResolver = new JwtAuthenticationContextResolver(
+                JwtAuthenticationContextResolver.loadJwkSet(jwt.getJwkSet()),
+                algorithms,
+                authenticationContextResolver,
+                jwt.getCacheSize(),
+                jwt.getClockSkew(),
+                Clock.systemUTC()
+        );
+
+        metrics.ifAvailable(m -> m.bindCache("jwt", jwtAuthenticationContextResolver::stats));
+
+        return jwtAuthenticationContextResolver;
+    }
+}
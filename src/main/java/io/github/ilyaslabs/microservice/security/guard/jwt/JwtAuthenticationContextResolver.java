@@ -0,0 +1,239 @@
+package io.github.ilyaslabs.microservice.security.guard.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimNames;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.github.ilyaslabs.microservice.security.guard.JwtConstants;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.cache.BoundedCache;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.filter.SecurityHeaderParser;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeSet;
+import org.bson.types.ObjectId;
+import org.springframework.core.io.Resource;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Builds an {@link AuthenticationContext} from a bearer JWT instead of the plain {@link SecurityHeaders}.
+ * <p>
+ * The token signature is verified against a local JWK set whose keys are converted once
+ * (see {@link PreparsedJwsKeySelector}); the user id is taken from the {@code sub} claim and the scopes from the
+ * {@link JwtConstants#KEY_SCOPE_CLAIM} claim, either as a space separated string or as an array.
+ * Tokens must carry {@code sub} and {@code exp}.
+ * <p>
+ * Signature verification dominates the cost of a request, so verified tokens are kept in a {@link BoundedCache}
+ * keyed by the SHA-256 digest of the token, until the token expires. A service receiving the same token across
+ * a burst of calls verifies it only once. Whether the call came through the gateway is still decided by the
+ * {@link SecurityHeaders#X_API_GATEWAY} header.
+ */
+public class JwtAuthenticationContextResolver {
+
+    private final DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+
+    private final AuthenticationContextResolver authenticationContextResolver;
+
+    private final BoundedCache<TokenDigest, VerifiedToken> verifiedTokens;
+
+    private final Clock clock;
+
+    private final long clockSkewMillis;
+
+    /**
+     * Creates a resolver verifying tokens against the given key set.
+     *
+     * @param jwkSet                        the keys tokens are signed with
+     * @param algorithms                    the accepted signature algorithms
+     * @param authenticationContextResolver the resolver used to intern the scope claim into scope sets
+     * @param maximumCacheSize              the maximum number of verified tokens to retain
+     * @param clockSkew                     the tolerated clock skew for {@code exp} and {@code nbf}
+     * @param clock                         the clock tokens are checked against
+     */
+    public JwtAuthenticationContextResolver(JWKSet jwkSet,
+                                            Set<JWSAlgorithm> algorithms,
+                                            AuthenticationContextResolver authenticationContextResolver,
+                                            int maximumCacheSize,
+                                            Duration clockSkew,
+                                            Clock clock) {
+
+        this.authenticationContextResolver = authenticationContextResolver;
+        this.verifiedTokens = new BoundedCache<>(maximumCacheSize);
+        this.clock = clock;
+        this.clockSkewMillis = clockSkew.toMillis();
+
+        DefaultJWTClaimsVerifier<SecurityContext> claimsVerifier = new DefaultJWTClaimsVerifier<>(
+                null, Set.of(JWTClaimNames.SUBJECT, JWTClaimNames.EXPIRATION_TIME)) {
+
+            @Override
+            protected Date currentTime() {
+                return new Date(clock.millis());
+            }
+        };
+        claimsVerifier.setMaxClockSkew((int) clockSkew.toSeconds());
+
+        jwtProcessor.setJWSKeySelector(new PreparsedJwsKeySelector(jwkSet, algorithms));
+        jwtProcessor.setJWTClaimsSetVerifier(claimsVerifier);
+    }
+
+    /**
+     * Loads a JWK set from a file or classpath resource.
+     *
+     * @param resource the JWK set document
+     * @return the parsed key set
+     * @throws IllegalStateException if the resource cannot be read or is not a valid JWK set
+     */
+    public static JWKSet loadJwkSet(Resource resource) {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return JWKSet.load(inputStream);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Unable to load JWK set from " + resource, e);
+        }
+    }
+
+    /**
+     * Builds the authentication context of a request.
+     *
+     * @param authorization the {@code Authorization} header value, may be {@code null}
+     * @param apiGateway    the {@link SecurityHeaders#X_API_GATEWAY} value, may be {@code null}
+     * @return the authentication context, without user and scopes if no bearer token is present
+     * @throws BadCredentialsException if a bearer token is present but invalid or expired
+     */
+    public AuthenticationContext resolve(String authorization, String apiGateway) {
+
+        if (authorization == null || !authorization.regionMatches(true, 0, JwtConstants.BEARER_PREFIX, 0, JwtConstants.BEARER_PREFIX.length())) {
+            return authenticationContextResolver.resolve(null, null, apiGateway);
+        }
+
+        VerifiedToken token = verify(authorization.substring(JwtConstants.BEARER_PREFIX.length()).trim());
+
+        return new AuthenticationContext(token.userId(), token.scopes().authorities(), apiGateway != null, token.scopes());
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the verified token cache statistics.
+     *
+     * @return the current statistics
+     */
+    public BoundedCache.CacheStats stats() {
+        return verifiedTokens.stats();
+    }
+
+    private VerifiedToken verify(String token) {
+
+        TokenDigest digest = TokenDigest.of(token);
+        long now = clock.millis();
+
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+
+        if (verified != null) {
+            if (verified.expiresAt() > now) {
+                return verified;
+            }
+            verifiedTokens.invalidate(digest);
+        }
+
+        verified = process(token);
+
+        if (verified.expiresAt() > now) {
+            verifiedTokens.put(digest, verified);
+        }
+
+        return verified;
+    }
+
+    private VerifiedToken process(String token) {
+
+        JWTClaimsSet claims;
+
+        try {
+            claims = jwtProcessor.process(token, null);
+        } catch (ParseException | BadJOSEException | JOSEException e) {
+            throw new BadCredentialsException("Invalid JWT", e);
+        }
+
+        ObjectId userId = SecurityHeaderParser.parseUserId(claims.getSubject());
+
+        if (userId == null) {
+            throw new BadCredentialsException("Invalid JWT subject");
+        }
+
+        ScopeSet scopes = authenticationContextResolver.resolveScopes(scopeClaim(claims));
+
+        return new VerifiedToken(userId, scopes, claims.getExpirationTime().getTime() + clockSkewMillis);
+    }
+
+    private static String scopeClaim(JWTClaimsSet claims) {
+
+        Object scope = claims.getClaim(JwtConstants.KEY_SCOPE_CLAIM);
+
+        if (scope instanceof Collection<?> scopes) {
+            StringJoiner joiner = new StringJoiner(" ");
+            for (Object value : scopes) {
+                joiner.add(String.valueOf(value));
+            }
+            return joiner.toString();
+        }
+
+        return scope != null ? scope.toString() : null;
+    }
+
+    /**
+     * A verified token, valid until {@code expiresAt} (epoch millis, including the clock skew).
+     */
+    private record VerifiedToken(ObjectId userId, ScopeSet scopes, long expiresAt) {
+    }
+
+    /**
+     * The SHA-256 digest of a token, so that the cache does not retain the tokens themselves.
+     * <p>
+     * {@link MessageDigest#getInstance} looks up the provider on every call, so digests are cloned from a prototype
+     * created once.
+     */
+    private record TokenDigest(long first, long second, long third, long fourth) {
+
+        private static final MessageDigest PROTOTYPE = newDigest();
+
+        static TokenDigest of(String token) {
+
+            MessageDigest messageDigest;
+
+            try {
+                messageDigest = (MessageDigest) PROTOTYPE.clone();
+            } catch (CloneNotSupportedException e) {
+                messageDigest = newDigest();
+            }
+
+            ByteBuffer digest = ByteBuffer.wrap(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+
+            return new TokenDigest(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+
+        private static MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.ilyaslabs.microservice.security.guard.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects verification keys from a JWK set whose keys are converted to JCA keys once, at construction.
+ * <p>
+ * Nimbus' {@code JWSVerificationKeySelector} matches the JWK set and converts the matching JWKs to JCA keys on
+ * every token, which for RSA keys means re-creating the modulus and exponent. The key set of this library is
+ * a local file, so the conversion is done up front and selection is a map lookup by key id.
+ */
+final class PreparsedJwsKeySelector implements JWSKeySelector<SecurityContext> {
+
+    private final Set<JWSAlgorithm> algorithms;
+
+    private final Map<String, PreparsedKey> keysById = new HashMap<>();
+
+    private final Map<KeyType, List<Key>> keysByType = new HashMap<>();
+
+    /**
+     * Converts the signature keys of the set.
+     *
+     * @param jwkSet     the key set, keys meant for encryption are ignored
+     * @param algorithms the accepted signature algorithms
+     * @throws IllegalArgumentException if a key cannot be converted
+     */
+    PreparsedJwsKeySelector(JWKSet jwkSet, Set<JWSAlgorithm> algorithms) {
+
+        this.algorithms = Set.copyOf(algorithms);
+
+        for (JWK jwk : jwkSet.getKeys()) {
+
+            if (KeyUse.ENCRYPTION.equals(jwk.getKeyUse())) {
+                continue;
+            }
+
+            Key key = toKey(jwk);
+
+            if (key == null) {
+                continue;
+            }
+
+            if (jwk.getKeyID() != null) {
+                keysById.put(jwk.getKeyID(), new PreparsedKey(jwk.getKeyType(), List.of(key)));
+            }
+
+            keysByType.computeIfAbsent(jwk.getKeyType(), _ -> new ArrayList<>()).add(key);
+        }
+
+        keysByType.replaceAll((_, keys) -> List.copyOf(keys));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<? extends Key> selectJWSKeys(JWSHeader header, SecurityContext context) {
+
+        JWSAlgorithm algorithm = header.getAlgorithm();
+
+        if (!algorithms.contains(algorithm)) {
+            return List.of();
+        }
+
+        KeyType keyType = KeyType.forAlgorithm(algorithm);
+
+        if (header.getKeyID() == null) {
+            return keysByType.getOrDefault(keyType, List.of());
+        }
+
+        PreparsedKey key = keysById.get(header.getKeyID());
+
+        return key != null && key.keyType().equals(keyType) ? key.keys() : List.of();
+    }
+
+    private static Key toKey(JWK jwk) {
+        try {
+            return switch (jwk) {
+                case RSAKey rsaKey -> rsaKey.toPublicKey();
+                case ECKey ecKey -> ecKey.toPublicKey();
+                case OctetSequenceKey octetSequenceKey -> octetSequenceKey.toSecretKey();
+                default -> null;
+            };
+        } catch (JOSEException e) {
+            throw new IllegalArgumentException("Invalid JWK " + jwk.getKeyID(), e);
+        }
+    }
+
+    private record PreparsedKey(KeyType keyType, List<Key> keys) {
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.ilyaslabs.microservice.security.guard.metrics;
+
+import io.github.ilyaslabs.microservice.security.guard.audit.RingBufferSecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.cache.BoundedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * {@link SecurityGuardMetrics} exported through Micrometer.
+ * <p>
+ * Requests only increment {@link LongAdder}s, which stripe their cells under contention; the registered meters
+ * are function meters that read the adders when the registry is scraped. The filter timer is therefore a
+ * {@link FunctionTimer} (count and total time) rather than a histogram.
+ * <p>
+ * Meters:
+ * - {@code security.guard.filter}: time spent authenticating a request.
+ * - {@code security.guard.decision}: time spent on an authorization decision by the decision cache.
+ * - {@code security.guard.calls}: authenticated calls, tagged {@code type=gateway|internal}.
+ * - {@code security.guard.invalid.user.id}: requests carrying a malformed user id.
+ * - {@code security.guard.unauthorized}: requests answered with HTTP 401.
+ * - {@code security.guard.rate.limited}: requests answered with HTTP 429.
+ * - {@code security.guard.forbidden}: requests answered with HTTP 403, tagged by {@code handler}.
+ * - {@code security.guard.cache.size}, {@code .hits}, {@code .misses}, {@code .evictions}: internal caches, tagged by {@code cache}.
+ * - {@code security.guard.audit.dropped}, {@code .write.failures}, {@code .writing}: the audit log writer, when auditing is enabled.
+ */
+public class MicrometerSecurityGuardMetrics implements SecurityGuardMetrics {
+
+    private static final String UNKNOWN_HANDLER = "unknown";
+
+    private final MeterRegistry registry;
+
+    private final LongAdder filterCount = new LongAdder();
+
+    private final LongAdder filterNanos = new LongAdder();
+
+    private final LongAdder decisionCount = new LongAdder();
+
+    private final LongAdder decisionNanos = new LongAdder();
+
+    private final LongAdder gatewayCalls = new LongAdder();
+
+    private final LongAdder internalCalls = new LongAdder();
+
+    private final LongAdder invalidUserIds = new LongAdder();
+
+    private final LongAdder unauthorized = new LongAdder();
+
+    private final LongAdder rateLimited = new LongAdder();
+
+    private final LongAdder forbiddenUnknownHandler;
+
+    private final ConcurrentHashMap<Method, LongAdder> forbiddenByHandler = new ConcurrentHashMap<>();
+
+    // function meters only hold their state weakly
+    private final List<Supplier<BoundedCache.CacheStats>> caches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers the meters with the given registry.
+     *
+     * @param registry the registry to export to
+     */
+    public MicrometerSecurityGuardMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        FunctionTimer.builder("security.guard.filter", this, m -> m.filterCount.sum(), m -> m.filterNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent authenticating a request")
+                .register(registry);
+        FunctionTimer.builder("security.guard.decision", this, m -> m.decisionCount.sum(), m -> m.decisionNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent on an authorization decision")
+                .register(registry);
+        FunctionCounter.builder("security.guard.calls", gatewayCalls, LongAdder::sum)
+                .description("Authenticated calls")
+                .tag("type", "gateway")
+                .register(registry);
+        FunctionCounter.builder("security.guard.calls", internalCalls, LongAdder::sum)
+                .description("Authenticated calls")
+                .tag("type", "internal")
+                .register(registry);
+        FunctionCounter.builder("security.guard.invalid.user.id", invalidUserIds, LongAdder::sum)
+                .description("Requests carrying a malformed user id")
+                .register(registry);
+        FunctionCounter.builder("security.guard.unauthorized", unauthorized, LongAdder::sum)
+                .description("Requests answered with HTTP 401")
+                .register(registry);
+        FunctionCounter.builder("security.guard.rate.limited", rateLimited, LongAdder::sum)
+                .description("Requests answered with HTTP 429")
+                .register(registry);
+
+        forbiddenUnknownHandler = registerForbidden(UNKNOWN_HANDLER);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long startFilter() {
+        return System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stopFilter(long start) {
+        filterNanos.add(System.nanoTime() - start);
+        filterCount.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long startDecision() {
+        return System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stopDecision(long start) {
+        decisionNanos.add(System.nanoTime() - start);
+        decisionCount.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordCall(boolean gatewayCall) {
+        (gatewayCall ? gatewayCalls : internalCalls).increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordInvalidUserId() {
+        invalidUserIds.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordUnauthorized() {
+        unauthorized.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordRateLimited() {
+        rateLimited.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordForbidden(Method handler) {
+
+        if (handler == null) {
+            forbiddenUnknownHandler.increment();
+            return;
+        }
+
+        forbiddenByHandler.computeIfAbsent(handler, method -> registerForbidden(method.getDeclaringClass().getSimpleName() + "#" + method.getName()))
+                .increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bindCache(String name, Supplier<BoundedCache.CacheStats> stats) {
+
+        caches.add(stats);
+
+        Gauge.builder("security.guard.cache.size", stats, s -> s.get().size())
+                .description("Number of entries in the cache")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("security.guard.cache.hits", stats, s -> s.get().hits())
+                .description("Cache lookups that found an entry")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("security.guard.cache.misses", stats, s -> s.get().misses())
+                .description("Cache lookups that did not find an entry")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("security.guard.cache.evictions", stats, s -> s.get().evictions())
+                .description("Entries evicted to keep the cache within its bound")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bindAuditLog(RingBufferSecurityAuditLog auditLog) {
+
+        FunctionCounter.builder("security.guard.audit.dropped", auditLog, RingBufferSecurityAuditLog::dropped)
+                .description("Decisions dropped because the audit buffer was full")
+                .register(registry);
+        FunctionCounter.builder("security.guard.audit.write.failures", auditLog, RingBufferSecurityAuditLog::writeFailures)
+                .description("Failures to open or write the audit file")
+                .register(registry);
+        Gauge.builder("security.guard.audit.writing", auditLog, log -> log.isWriting() ? 1 : 0)
+                .description("Whether decisions reach the audit file, 0 while they fail over to the application log")
+                .register(registry);
+    }
+
+    private LongAdder registerForbidden(String handler) {
+
+        LongAdder counter = new LongAdder();
+
+        FunctionCounter.builder("security.guard.forbidden", counter, LongAdder::sum)
+                .description("Requests answered with HTTP 403")
+                .tag("handler", handler)
+                .register(registry);
+
+        return counter;
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.ilyaslabs.microservice.security.guard.metrics;
+
+import io.github.ilyaslabs.microservice.security.guard.audit.RingBufferSecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.cache.BoundedCache;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * Records what the security guard does on each request.
+ * <p>
+ * Every method has an empty default, and {@link #NOOP} is used wherever no meter registry is available. Call sites
+ * then only see a single implementation, so the JIT inlines the empty methods away and instrumentation costs
+ * nothing when metrics are not exported.
+ */
+public interface SecurityGuardMetrics {
+
+    /**
+     * Metrics that record nothing.
+     */
+    SecurityGuardMetrics NOOP = new SecurityGuardMetrics() {
+    };
+
+    /**
+     * Marks the start of the authentication filter.
+     *
+     * @return a start timestamp to pass to {@link #stopFilter(long)}
+     */
+    default long startFilter() {
+        return 0L;
+    }
+
+    /**
+     * Records the time spent in the authentication filter.
+     *
+     * @param start the timestamp returned by {@link #startFilter()}
+     */
+    default void stopFilter(long start) {
+    }
+
+    /**
+     * Marks the start of an authorization decision.
+     *
+     * @return a start timestamp to pass to {@link #stopDecision(long)}
+     */
+    default long startDecision() {
+        return 0L;
+    }
+
+    /**
+     * Records the time spent on an authorization decision, cached or evaluated.
+     *
+     * @param start the timestamp returned by {@link #startDecision()}
+     */
+    default void stopDecision(long start) {
+    }
+
+    /**
+     * Records an authenticated call.
+     *
+     * @param gatewayCall true if the call came through the API gateway, false for an internal call
+     */
+    default void recordCall(boolean gatewayCall) {
+    }
+
+    /**
+     * Records a request whose {@link io.github.ilyaslabs.microservice.security.guard.SecurityHeaders#X_USER_ID}
+     * header was present but not a valid user id.
+     */
+    default void recordInvalidUserId() {
+    }
+
+    /**
+     * Records a request answered with HTTP 401.
+     */
+    default void recordUnauthorized() {
+    }
+
+    /**
+     * Records a request answered with HTTP 429 by the rate limiter.
+     */
+    default void recordRateLimited() {
+    }
+
+    /**
+     * Records a request answered with HTTP 403.
+     *
+     * @param handler the handler method access was denied to, or {@code null} if unknown
+     */
+    default void recordForbidden(Method handler) {
+    }
+
+    /**
+     * Exposes the statistics of an internal cache.
+     *
+     * @param name  the name of the cache
+     * @param stats supplies a snapshot of the cache statistics
+     */
+    default void bindCache(String name, Supplier<BoundedCache.CacheStats> stats) {
+    }
+
+    /**
+     * Exposes the health of the audit log writer.
+     *
+     * @param auditLog the audit log
+     */
+    default void bindAuditLog(RingBufferSecurityAuditLog auditLog) {
+    }
+}
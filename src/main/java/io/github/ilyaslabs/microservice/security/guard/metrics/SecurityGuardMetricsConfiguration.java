@@ -0,0 +1,51 @@
+package io.github.ilyaslabs.microservice.security.guard.metrics;
+
+import io.github.ilyaslabs.microservice.security.guard.audit.RingBufferSecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.authorization.AuthorizationDecisionCache;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link SecurityGuardMetrics} when Micrometer is on the classpath. Without a {@link MeterRegistry}
+ * bean the metrics are {@link SecurityGuardMetrics#NOOP}; without Micrometer no metrics bean is registered and
+ * the guard uses {@link SecurityGuardMetrics#NOOP} as well.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class SecurityGuardMetricsConfiguration {
+
+    /**
+     * Provides the {@link SecurityGuardMetrics} exported to the application's meter registry.
+     *
+     * @param meterRegistry the meter registry, if the application has one.
+     * @param scopeAuthorityCache the scope header cache to expose.
+     * @param decisionCache the authorization decision cache to expose and time, if enabled.
+     * @param auditLog the audit log whose writer to expose, if enabled.
+     * @return an instance of {@link MicrometerSecurityGuardMetrics}, or {@link SecurityGuardMetrics#NOOP} without a registry.
+     */
+    @Bean
+    public SecurityGuardMetrics securityGuardMetrics(ObjectProvider<MeterRegistry> meterRegistry, ScopeAuthorityCache scopeAuthorityCache,
+                                                     ObjectProvider<AuthorizationDecisionCache> decisionCache,
+                                                     ObjectProvider<RingBufferSecurityAuditLog> auditLog) {
+
+        MeterRegistry registry = meterRegistry.getIfUnique();
+
+        if (registry == null) {
+            return SecurityGuardMetrics.NOOP;
+        }
+
+        SecurityGuardMetrics metrics = new MicrometerSecurityGuardMetrics(registry);
+        metrics.bindCache("scopes", scopeAuthorityCache::stats);
+        metrics.bindCache("authorities", scopeAuthorityCache::authorityStats);
+        decisionCache.ifAvailable(cache -> {
+            metrics.bindCache("decisions", cache::stats);
+            cache.setMetrics(metrics);
+        });
+        auditLog.ifAvailable(metrics::bindAuditLog);
+        return metrics;
+    }
+}
@@ -1,9 +1,11 @@
 package io.github.ilyaslabs.microservice.security.guard.model;
 
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeSet;
 import org.bson.types.ObjectId;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents the authentication context for a user within the application.
@@ -16,19 +18,30 @@ import java.util.List;
  * @param userId The unique identifier of the authenticated user.
  * @param authorities A list of authorities granted to the user for access control.
  * @param isGatewayCall A flag indicating whether the request originated from an API Gateway.
+ * @param scopes The granted authorities as a {@link ScopeSet}, allowing constant time scope checks
+ *               when backed by a {@link io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry}.
+ *               When given, the authorities are always those of the scopes; the scopes are a derived view and
+ *               take no part in {@link #equals(Object)} and {@link #hashCode()}.
  */
 public record AuthenticationContext(
         ObjectId userId,
         List<SimpleGrantedAuthority> authorities,
-        Boolean isGatewayCall
+        Boolean isGatewayCall,
+        ScopeSet scopes
 ) {
 
     /**
-     * Normalizes authorities and gateway flag for context
+     * Normalizes authorities, gateway flag and scopes for context, deriving one of authorities and scopes from the
+     * other so that they never disagree
      */
     public AuthenticationContext {
-        if (authorities == null) {
-            authorities = List.of();
+        if (scopes != null) {
+            authorities = scopes.authorities();
+        } else {
+            if (authorities == null) {
+                authorities = List.of();
+            }
+            scopes = ScopeSet.of(authorities);
         }
 
         if (isGatewayCall == null) {
@@ -36,6 +49,47 @@ public record AuthenticationContext(
         }
     }
 
+    /**
+     * Creates a context whose scopes are not backed by a scope registry.
+     *
+     * @param userId The unique identifier of the authenticated user.
+     * @param authorities A list of authorities granted to the user for access control.
+     * @param isGatewayCall A flag indicating whether the request originated from an API Gateway.
+     */
+    public AuthenticationContext(ObjectId userId, List<SimpleGrantedAuthority> authorities, Boolean isGatewayCall) {
+        this(userId, authorities, isGatewayCall, null);
+    }
+
+    /**
+     * Checks whether the user has been granted the given scope.
+     *
+     * @param scope the scope name
+     * @return true if the scope is granted; false otherwise.
+     */
+    public boolean hasScope(String scope) {
+        return scopes.contains(scope);
+    }
+
+    /**
+     * Checks whether the user has been granted all the given scopes.
+     *
+     * @param required the required scopes, typically a mask from the same scope registry
+     * @return true if every scope is granted; false otherwise.
+     */
+    public boolean hasAllScopes(ScopeSet required) {
+        return scopes.containsAll(required);
+    }
+
+    /**
+     * Checks whether the user has been granted at least one of the given scopes.
+     *
+     * @param candidates the candidate scopes, typically a mask from the same scope registry
+     * @return true if any scope is granted; false otherwise.
+     */
+    public boolean hasAnyScope(ScopeSet candidates) {
+        return scopes.containsAny(candidates);
+    }
+
     /**
      * Determines if the current request is an internal call.
      * An internal call is identified as one that is not external,
@@ -57,4 +111,20 @@ public record AuthenticationContext(
         return isGatewayCall;
     }
 
+    /**
+     * Two contexts are equal if they have the same user, authorities and source; the derived scopes are ignored.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof AuthenticationContext other
+                && Objects.equals(userId, other.userId)
+                && authorities.equals(other.authorities)
+                && isGatewayCall.equals(other.isGatewayCall));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, authorities, isGatewayCall);
+    }
+
 }
@@ -0,0 +1,417 @@
+package io.github.ilyaslabs.microservice.security.guard.network;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable set of IPv4 and IPv6 CIDR ranges, compiled into binary tries and matched without allocation.
+ * <p>
+ * Each address family has its own trie, stored in flat arrays: node {@code n} has its children at
+ * {@code children[2n]} and {@code children[2n + 1]}, and a bitset marks the nodes ending a range. A lookup parses
+ * the address literal in place and walks at most one node per address bit, stopping at the first range containing
+ * the address. IPv4-mapped IPv6 addresses ({@code ::ffff:10.0.0.1}) are matched against the IPv4 ranges.
+ */
+public final class CidrTrie {
+
+    private static final int IPV4_BITS = 32;
+
+    private static final int IPV6_BITS = 128;
+
+    private static final CidrTrie EMPTY = of(List.of());
+
+    private final int[] ipv4Children;
+
+    private final long[] ipv4Terminals;
+
+    private final int[] ipv6Children;
+
+    private final long[] ipv6Terminals;
+
+    private final int size;
+
+    private CidrTrie(Builder ipv4, Builder ipv6, int size) {
+        this.ipv4Children = Arrays.copyOf(ipv4.children, ipv4.nodes << 1);
+        this.ipv4Terminals = Arrays.copyOf(ipv4.terminals, (ipv4.nodes + 63) >>> 6);
+        this.ipv6Children = Arrays.copyOf(ipv6.children, ipv6.nodes << 1);
+        this.ipv6Terminals = Arrays.copyOf(ipv6.terminals, (ipv6.nodes + 63) >>> 6);
+        this.size = size;
+    }
+
+    /**
+     * Compiles the given ranges.
+     *
+     * @param ranges the ranges in CIDR notation, e.g. {@code 10.0.0.0/8} or {@code fd00::/8}; a plain address
+     *               is a range of a single address
+     * @return the compiled trie
+     * @throws IllegalArgumentException if a range is not an address literal with a valid prefix length
+     */
+    public static CidrTrie of(Collection<String> ranges) {
+
+        Builder ipv4 = new Builder();
+        Builder ipv6 = new Builder();
+
+        for (String range : ranges) {
+            add(range.strip(), ipv4, ipv6);
+        }
+
+        return new CidrTrie(ipv4, ipv6, ranges.size());
+    }
+
+    /**
+     * Returns a trie without any range.
+     *
+     * @return an empty trie
+     */
+    public static CidrTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the number of compiled ranges.
+     *
+     * @return the number of ranges
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether no range is configured.
+     *
+     * @return true if no address is contained
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether an address is in one of the ranges.
+     *
+     * @param address an IPv4 or IPv6 address literal, as returned by {@code ServletRequest.getRemoteAddr()};
+     *                IPv6 literals may be enclosed in brackets and carry a zone id
+     * @return true if a range contains the address; false if it does not or the literal is malformed
+     */
+    public boolean contains(String address) {
+
+        if (address == null) {
+            return false;
+        }
+
+        int from = 0;
+        int to = address.length();
+
+        if (to > 1 && address.charAt(0) == '[' && address.charAt(to - 1) == ']') {
+            from++;
+            to--;
+        }
+
+        if (address.indexOf(':', from, to) < 0) {
+            long ipv4 = parseIpv4(address, from, to);
+            return ipv4 >= 0 && matches(ipv4Children, ipv4Terminals, ipv4 << 32, 0L, IPV4_BITS);
+        }
+
+        int zone = address.indexOf('%', from, to);
+
+        return containsIpv6(address, from, zone < 0 ? to : zone);
+    }
+
+    private boolean containsIpv6(String address, int from, int to) {
+
+        // groups before and after "::", each accumulated as a 128-bit value
+        long beforeHigh = 0;
+        long beforeLow = 0;
+        int before = 0;
+        long afterHigh = 0;
+        long afterLow = 0;
+        int after = 0;
+        boolean compressed = false;
+
+        int i = from;
+
+        if (to - i >= 2 && address.charAt(i) == ':' && address.charAt(i + 1) == ':') {
+            compressed = true;
+            i += 2;
+        } else if (i < to && address.charAt(i) == ':') {
+            return false;
+        }
+
+        while (i < to) {
+
+            int start = i;
+            int group = 0;
+
+            while (i < to && i - start < 5) {
+                int digit = hexValue(address.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                group = (group << 4) | digit;
+                i++;
+            }
+
+            int groups = 1;
+            long value = group;
+
+            if (i < to && address.charAt(i) == '.') {
+                // embedded IPv4 address, the last two groups
+                long ipv4 = parseIpv4(address, start, to);
+                if (ipv4 < 0) {
+                    return false;
+                }
+                groups = 2;
+                value = ipv4;
+                i = to;
+            } else if (i == start || i - start > 4) {
+                return false;
+            }
+
+            int bits = groups << 4;
+
+            if (compressed) {
+                afterHigh = (afterHigh << bits) | (afterLow >>> (64 - bits));
+                afterLow = (afterLow << bits) | value;
+                after += groups;
+            } else {
+                beforeHigh = (beforeHigh << bits) | (beforeLow >>> (64 - bits));
+                beforeLow = (beforeLow << bits) | value;
+                before += groups;
+            }
+
+            if (i == to) {
+                break;
+            }
+
+            if (address.charAt(i) != ':' || ++i == to) {
+                return false;
+            }
+
+            if (address.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+
+        int total = before + after;
+
+        if (compressed ? total > 7 : total != 8) {
+            return false;
+        }
+
+        // move the groups before "::" to the top of the address
+        int shift = (8 - before) << 4;
+        long high;
+        long low;
+
+        if (shift == 0) {
+            high = beforeHigh;
+            low = beforeLow;
+        } else if (shift >= 128) {
+            high = 0;
+            low = 0;
+        } else if (shift >= 64) {
+            high = beforeLow << (shift - 64);
+            low = 0;
+        } else {
+            high = (beforeHigh << shift) | (beforeLow >>> (64 - shift));
+            low = beforeLow << shift;
+        }
+
+        high |= afterHigh;
+        low |= afterLow;
+
+        if (high == 0 && (low >>> 32) == 0xffffL) {
+            return matches(ipv4Children, ipv4Terminals, low << 32, 0L, IPV4_BITS);
+        }
+
+        return matches(ipv6Children, ipv6Terminals, high, low, IPV6_BITS);
+    }
+
+    private static boolean matches(int[] children, long[] terminals, long high, long low, int length) {
+
+        int node = 0;
+
+        for (int i = 0; ; i++) {
+
+            if ((terminals[node >>> 6] & (1L << node)) != 0) {
+                return true;
+            }
+
+            if (i == length) {
+                return false;
+            }
+
+            int bit = (int) (i < 64 ? high >>> (63 - i) : low >>> (127 - i)) & 1;
+
+            node = children[(node << 1) | bit];
+
+            // the root is never a child, so 0 marks a missing child
+            if (node == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Parses a dotted IPv4 address.
+     *
+     * @return the address as an unsigned 32-bit value, or -1 if the literal is malformed
+     */
+    private static long parseIpv4(String address, int from, int to) {
+
+        long value = 0;
+        int octets = 0;
+        int i = from;
+
+        while (true) {
+
+            int start = i;
+            int octet = 0;
+
+            while (i < to && i - start < 3) {
+                char c = address.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                octet = octet * 10 + (c - '0');
+                i++;
+            }
+
+            if (i == start || octet > 255) {
+                return -1;
+            }
+
+            value = (value << 8) | octet;
+            octets++;
+
+            if (i == to) {
+                return octets == 4 ? value : -1;
+            }
+
+            if (octets == 4 || address.charAt(i) != '.') {
+                return -1;
+            }
+
+            i++;
+        }
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static void add(String range, Builder ipv4, Builder ipv6) {
+
+        int slash = range.indexOf('/');
+        String literal = slash < 0 ? range : range.substring(0, slash);
+
+        InetAddress address;
+
+        try {
+            address = InetAddress.ofLiteral(literal);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not an IP address range: " + range, e);
+        }
+
+        byte[] bytes = address.getAddress();
+        int maxLength = bytes.length << 3;
+        int length = maxLength;
+
+        if (slash >= 0) {
+            try {
+                length = Integer.parseInt(range, slash + 1, range.length(), 10);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prefix length: " + range, e);
+            }
+            if (length < 0 || length > maxLength) {
+                throw new IllegalArgumentException("Invalid prefix length: " + range);
+            }
+        }
+
+        long high = 0;
+        long low = 0;
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (i < 8) {
+                high = (high << 8) | (bytes[i] & 0xff);
+            } else {
+                low = (low << 8) | (bytes[i] & 0xff);
+            }
+        }
+
+        if (address instanceof Inet4Address) {
+            ipv4.add(high << 32, 0L, length);
+        } else {
+            ipv6.add(high, low, length);
+        }
+    }
+
+    /**
+     * Grows the flat node arrays of one trie while ranges are added.
+     */
+    private static final class Builder {
+
+        private int[] children = new int[32];
+
+        private long[] terminals = new long[1];
+
+        private int nodes = 1;
+
+        private void add(long high, long low, int length) {
+
+            int node = 0;
+
+            for (int i = 0; i < length; i++) {
+
+                if (isTerminal(node)) {
+                    // a shorter range already contains this one
+                    return;
+                }
+
+                int bit = (int) (i < 64 ? high >>> (63 - i) : low >>> (127 - i)) & 1;
+                int slot = (node << 1) | bit;
+
+                if (children[slot] == 0) {
+                    children[slot] = newNode();
+                }
+
+                node = children[slot];
+            }
+
+            terminals[node >>> 6] |= 1L << node;
+        }
+
+        private boolean isTerminal(int node) {
+            return (terminals[node >>> 6] & (1L << node)) != 0;
+        }
+
+        private int newNode() {
+
+            int node = nodes++;
+
+            if ((nodes << 1) > children.length) {
+                children = Arrays.copyOf(children, children.length << 1);
+            }
+
+            if ((node >>> 6) >= terminals.length) {
+                terminals = Arrays.copyOf(terminals, terminals.length << 1);
+            }
+
+            return node;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.ilyaslabs.microservice.security.guard.network;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+
+import java.util.Collection;
+
+/**
+ * The address ranges internal and gateway calls are accepted from.
+ * <p>
+ * A call without the {@link SecurityHeaders#X_API_GATEWAY} header is trusted as internal only if it comes from an
+ * internal range, and a call marked as coming through the gateway only if it comes from a gateway address. An empty
+ * list does not restrict its kind of call. Both lists are compiled into a {@link CidrTrie}; {@link #reload} compiles
+ * new lists and swaps them in with a single volatile write, so a request is checked against either the old or the
+ * new lists, never a mix.
+ */
+public class TrustedNetworks {
+
+    private volatile Allowlists allowlists;
+
+    /**
+     * Compiles the allowlists.
+     *
+     * @param internal the ranges internal calls may come from, empty to accept them from anywhere
+     * @param gateway  the ranges gateway calls may come from, empty to accept them from anywhere
+     */
+    public TrustedNetworks(Collection<String> internal, Collection<String> gateway) {
+        reload(internal, gateway);
+    }
+
+    /**
+     * Compiles new allowlists and replaces the current ones. If a range is invalid, the current allowlists are kept.
+     *
+     * @param internal the ranges internal calls may come from, empty to accept them from anywhere
+     * @param gateway  the ranges gateway calls may come from, empty to accept them from anywhere
+     * @throws IllegalArgumentException if a range is invalid
+     */
+    public void reload(Collection<String> internal, Collection<String> gateway) {
+        allowlists = new Allowlists(CidrTrie.of(internal), CidrTrie.of(gateway));
+    }
+
+    /**
+     * Checks whether a call may come from the given address.
+     *
+     * @param remoteAddress the address literal of the caller
+     * @param gatewayCall   whether the call is marked as coming through the gateway
+     * @return true if the allowlist of the kind of call is empty or contains the address
+     */
+    public boolean isTrusted(String remoteAddress, boolean gatewayCall) {
+
+        CidrTrie ranges = gatewayCall ? allowlists.gateway() : allowlists.internal();
+
+        return ranges.isEmpty() || ranges.contains(remoteAddress);
+    }
+
+    private record Allowlists(CidrTrie internal, CidrTrie gateway) {
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.ilyaslabs.microservice.security.guard.outbound;
+
+import io.github.ilyaslabs.microservice.security.guard.AuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSigner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Propagates the current authentication context to downstream services called through Spring's
+ * {@code RestClient} or {@code RestTemplate}.
+ * <p>
+ * Register it with {@code RestClient.builder().requestInterceptor(interceptor)} or
+ * {@code restTemplate.getInterceptors().add(interceptor)}. Requests made outside of an authenticated
+ * request are sent unchanged. When a {@link HeaderSigner} is set, the propagated headers are signed.
+ */
+@RequiredArgsConstructor
+public class AuthenticationContextClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final AuthenticationContextProvider authenticationContextProvider;
+
+    private HeaderSigner headerSigner;
+
+    private boolean compactScopes;
+
+    /**
+     * Sets whether scopes known to the shared scope registry are sent in the compact
+     * {@code X-SCOPES-COMPACT} format as well; receivers on another registry version read {@code X-SCOPES}.
+     *
+     * @param compactScopes true to send compact scopes, false by default
+     */
+    public void setCompactScopes(boolean compactScopes) {
+        this.compactScopes = compactScopes;
+    }
+
+    /**
+     * Sets the signer of the propagated headers.
+     *
+     * @param headerSigner the signer, or {@code null} to send the headers unsigned
+     */
+    public void setHeaderSigner(HeaderSigner headerSigner) {
+        this.headerSigner = headerSigner;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+
+        authenticationContextProvider.currentOptional()
+                .ifPresent(context -> OutboundSecurityHeaders.write(context, compactScopes, headerSigner, request.getHeaders()::set));
+
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.ilyaslabs.microservice.security.guard.outbound;
+
+import io.github.ilyaslabs.microservice.security.guard.AuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSigner;
+import lombok.RequiredArgsConstructor;
+
+import java.net.http.HttpRequest;
+
+/**
+ * Propagates the current authentication context to downstream services called through the JDK
+ * {@link java.net.http.HttpClient}, which has no interceptor mechanism of its own.
+ * <p>
+ * Apply it to each request before building it, e.g.
+ * {@code httpClient.send(requests.withContext(HttpRequest.newBuilder(uri)).build(), handler)}.
+ * When a {@link HeaderSigner} is set, the propagated headers are signed.
+ */
+@RequiredArgsConstructor
+public class AuthenticationContextHttpRequests {
+
+    private final AuthenticationContextProvider authenticationContextProvider;
+
+    private HeaderSigner headerSigner;
+
+    private boolean compactScopes;
+
+    /**
+     * Sets whether scopes known to the shared scope registry are sent in the compact
+     * {@code X-SCOPES-COMPACT} format as well; receivers on another registry version read {@code X-SCOPES}.
+     *
+     * @param compactScopes true to send compact scopes, false by default
+     */
+    public void setCompactScopes(boolean compactScopes) {
+        this.compactScopes = compactScopes;
+    }
+
+    /**
+     * Sets the signer of the propagated headers.
+     *
+     * @param headerSigner the signer, or {@code null} to send the headers unsigned
+     */
+    public void setHeaderSigner(HeaderSigner headerSigner) {
+        this.headerSigner = headerSigner;
+    }
+
+    /**
+     * Adds the security headers of the current authentication context, if any, to the request builder.
+     *
+     * @param builder the request builder
+     * @return the same builder, for chaining
+     */
+    public HttpRequest.Builder withContext(HttpRequest.Builder builder) {
+
+        authenticationContextProvider.currentOptional()
+                .ifPresent(context -> OutboundSecurityHeaders.write(context, compactScopes, headerSigner, builder::setHeader));
+
+        return builder;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.ilyaslabs.microservice.security.guard.outbound;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSigner;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Serializes an {@link AuthenticationContext} into the {@link SecurityHeaders} expected by an internal call.
+ * <p>
+ * Outbound calls are internal calls by definition, so {@link SecurityHeaders#X_API_GATEWAY} is never written.
+ * The scopes header value is cached on the context's {@link io.github.ilyaslabs.microservice.security.guard.scope.ScopeSet},
+ * so a request fanning out to many downstream calls joins its scopes only once. When a {@link HeaderSigner} is
+ * given, the headers are signed with a fresh timestamp and nonce per call. With compact scopes, a scope set fully
+ * known to the shared {@link io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry} is sent as a
+ * {@link SecurityHeaders#X_SCOPES_COMPACT} bitmask, tagged with the registry version, in addition to the space
+ * separated names. A receiver on the same registry version decodes the bitmask and never parses the names; any
+ * other receiver falls back to {@link SecurityHeaders#X_SCOPES}.
+ */
+public final class OutboundSecurityHeaders {
+
+    private OutboundSecurityHeaders() {
+    }
+
+    /**
+     * Writes the security headers of the context.
+     *
+     * @param authenticationContext the context to propagate
+     * @param headerWriter          receives each header name and value, e.g. {@code headers::set}
+     */
+    public static void write(AuthenticationContext authenticationContext, BiConsumer<String, String> headerWriter) {
+        write(authenticationContext, null, headerWriter);
+    }
+
+    /**
+     * Writes the security headers of the context, signed when a signer is given.
+     *
+     * @param authenticationContext the context to propagate
+     * @param headerSigner          the signer of the headers, or {@code null} to send them unsigned
+     * @param headerWriter          receives each header name and value, e.g. {@code headers::set}
+     */
+    public static void write(AuthenticationContext authenticationContext, HeaderSigner headerSigner, BiConsumer<String, String> headerWriter) {
+        write(authenticationContext, false, headerSigner, headerWriter);
+    }
+
+    /**
+     * Writes the security headers of the context, adding the scopes in the compact format where possible.
+     *
+     * @param authenticationContext the context to propagate
+     * @param compactScopes         true to send scopes fully known to the registry as
+     *                              {@link SecurityHeaders#X_SCOPES_COMPACT} as well, false to send
+     *                              {@link SecurityHeaders#X_SCOPES} only
+     * @param headerSigner          the signer of the headers, or {@code null} to send them unsigned
+     * @param headerWriter          receives each header name and value, e.g. {@code headers::set}
+     */
+    public static void write(AuthenticationContext authenticationContext, boolean compactScopes, HeaderSigner headerSigner,
+                             BiConsumer<String, String> headerWriter) {
+
+        String userId = authenticationContext.userId() != null ? authenticationContext.userId().toHexString() : null;
+
+        if (userId != null) {
+            headerWriter.accept(SecurityHeaders.X_USER_ID.getName(), userId);
+        }
+
+        String scopes = null;
+        String compact = null;
+
+        if (!authenticationContext.scopes().authorities().isEmpty()) {
+            scopes = authenticationContext.scopes().toHeaderValue();
+            headerWriter.accept(SecurityHeaders.X_SCOPES.getName(), scopes);
+
+            // the names stay the fallback of receivers on another registry version
+            compact = compactScopes ? authenticationContext.scopes().toCompactHeaderValue() : null;
+            if (compact != null) {
+                headerWriter.accept(SecurityHeaders.X_SCOPES_COMPACT.getName(), compact);
+            }
+        }
+
+        if (headerSigner != null) {
+            headerSigner.sign(userId, scopes, compact, null, headerWriter);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package io.github.ilyaslabs.microservice.security.guard.path;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable trie of path patterns, compiled once and matched without allocation.
+ * <p>
+ * Patterns are split into {@code /} separated segments. A segment is either a literal, {@code *} matching exactly
+ * one segment, or {@code **} matching any number of remaining segments (including none); {@code **} is only allowed
+ * as the last segment. Literal children of a node are held in an open-addressed table probed with the hash of the
+ * path segment computed in place, so matching walks the path once and its cost depends on the number of segments
+ * in the path, not on the number of patterns.
+ * <p>
+ * When several patterns match, literals take precedence over {@code *}, and {@code *} over {@code **}.
+ * Empty segments (repeated or trailing slashes) are ignored.
+ *
+ * @param <V> the type of the value associated with each pattern
+ */
+public final class PathTrie<V> {
+
+    private static final String WILDCARD = "*";
+
+    private static final String CATCH_ALL = "**";
+
+    private final Node<V> root;
+
+    private final int size;
+
+    private PathTrie(Node<V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Compiles the given patterns.
+     *
+     * @param patterns the patterns and their values; values must not be {@code null}
+     * @param <V>      the value type
+     * @return the compiled trie
+     * @throws IllegalArgumentException if a pattern is not supported
+     */
+    public static <V> PathTrie<V> of(Map<String, ? extends V> patterns) {
+
+        Node<V> root = new Node<>();
+
+        patterns.forEach((pattern, value) -> root.add(pattern, value));
+        root.freeze();
+
+        return new PathTrie<>(root, patterns.size());
+    }
+
+    /**
+     * Returns a trie without any pattern.
+     *
+     * @param <V> the value type
+     * @return an empty trie
+     */
+    public static <V> PathTrie<V> empty() {
+        return of(Map.of());
+    }
+
+    /**
+     * Returns the value of the most specific pattern matching the path.
+     *
+     * @param path the path, e.g. {@code /actuator/health}
+     * @return the value of the matching pattern, or {@code null} if no pattern matches
+     */
+    public V match(String path) {
+        return match(path, 0);
+    }
+
+    /**
+     * Returns the value of the most specific pattern matching the path starting at the given index, e.g. after the
+     * context path of a request URI.
+     *
+     * @param path the string holding the path
+     * @param from the index at which the path starts
+     * @return the value of the matching pattern, or {@code null} if no pattern matches
+     */
+    public V match(String path, int from) {
+        return root.match(path, from);
+    }
+
+    /**
+     * Returns the number of compiled patterns.
+     *
+     * @return the number of patterns
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the trie has no pattern.
+     *
+     * @return true if no path matches
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static final class Node<V> {
+
+        private Map<String, Node<V>> literals = new HashMap<>();
+
+        private String[] keys;
+
+        private Node<V>[] children;
+
+        private int mask;
+
+        private Node<V> wildcard;
+
+        private V value;
+
+        private V catchAll;
+
+        void add(String pattern, V patternValue) {
+
+            if (patternValue == null) {
+                throw new IllegalArgumentException("Missing value for path pattern " + pattern);
+            }
+
+            if (pattern.isEmpty() || pattern.charAt(0) != '/') {
+                throw new IllegalArgumentException("Path pattern must start with '/': " + pattern);
+            }
+
+            Node<V> node = this;
+            int index = 0;
+
+            while (true) {
+                int start = skipSlashes(pattern, index);
+
+                if (start == pattern.length()) {
+                    node.value = patternValue;
+                    return;
+                }
+
+                int end = segmentEnd(pattern, start);
+                String segment = pattern.substring(start, end);
+
+                if (CATCH_ALL.equals(segment)) {
+                    if (skipSlashes(pattern, end) != pattern.length()) {
+                        throw new IllegalArgumentException("'**' is only supported as the last segment: " + pattern);
+                    }
+                    node.catchAll = patternValue;
+                    return;
+                }
+
+                if (WILDCARD.equals(segment)) {
+                    if (node.wildcard == null) {
+                        node.wildcard = new Node<>();
+                    }
+                    node = node.wildcard;
+                } else if (segment.indexOf('*') >= 0) {
+                    throw new IllegalArgumentException("Partial wildcards are not supported: " + pattern);
+                } else {
+                    node = node.literals.computeIfAbsent(segment, _ -> new Node<>());
+                }
+
+                index = end;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void freeze() {
+
+            if (!literals.isEmpty()) {
+                int capacity = Integer.highestOneBit(literals.size() * 2 - 1) << 1;
+                keys = new String[capacity];
+                children = new Node[capacity];
+                mask = capacity - 1;
+
+                literals.forEach((key, child) -> {
+                    int slot = spread(key.hashCode()) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = key;
+                    children[slot] = child;
+                    child.freeze();
+                });
+            }
+
+            if (wildcard != null) {
+                wildcard.freeze();
+            }
+
+            literals = null;
+        }
+
+        V match(String path, int index) {
+
+            int start = skipSlashes(path, index);
+
+            if (start == path.length()) {
+                return value != null ? value : catchAll;
+            }
+
+            int end = segmentEnd(path, start);
+
+            Node<V> literal = literal(path, start, end);
+
+            if (literal != null) {
+                V matched = literal.match(path, end);
+                if (matched != null) {
+                    return matched;
+                }
+            }
+
+            if (wildcard != null) {
+                V matched = wildcard.match(path, end);
+                if (matched != null) {
+                    return matched;
+                }
+            }
+
+            return catchAll;
+        }
+
+        private Node<V> literal(String path, int start, int end) {
+
+            if (keys == null) {
+                return null;
+            }
+
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+
+            int length = end - start;
+
+            for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                String key = keys[slot];
+                if (key.length() == length && key.regionMatches(0, path, start, length)) {
+                    return children[slot];
+                }
+            }
+
+            return null;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static int skipSlashes(String path, int index) {
+            while (index < path.length() && path.charAt(index) == '/') {
+                index++;
+            }
+            return index;
+        }
+
+        private static int segmentEnd(String path, int start) {
+            int end = path.indexOf('/', start);
+            return end < 0 ? path.length() : end;
+        }
+    }
+}
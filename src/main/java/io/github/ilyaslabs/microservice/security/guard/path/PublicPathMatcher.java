@@ -0,0 +1,60 @@
+package io.github.ilyaslabs.microservice.security.guard.path;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Matches requests to public paths, such as health checks, metrics scrapes and static resources, which are served
+ * without building an authentication context.
+ * <p>
+ * The patterns are compiled into a {@link PathTrie} at startup and matched against the request URI without the
+ * context path. Requests reach the matcher after Spring Security's firewall has rejected non-normalized URIs.
+ */
+public class PublicPathMatcher implements RequestMatcher {
+
+    private final PathTrie<Boolean> patterns;
+
+    /**
+     * Compiles the public path patterns.
+     *
+     * @param patterns the patterns, see {@link PathTrie} for the supported syntax
+     */
+    public PublicPathMatcher(Collection<String> patterns) {
+
+        Map<String, Boolean> compiled = new LinkedHashMap<>();
+        patterns.forEach(pattern -> compiled.put(pattern, Boolean.TRUE));
+
+        this.patterns = PathTrie.of(compiled);
+    }
+
+    /**
+     * Checks whether the path is public.
+     *
+     * @param path the path within the application
+     * @return true if a public pattern matches
+     */
+    public boolean matches(String path) {
+        return patterns.match(path) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return !patterns.isEmpty() && patterns.match(request.getRequestURI(), request.getContextPath().length()) != null;
+    }
+
+    /**
+     * Returns whether no public path is configured.
+     *
+     * @return true if no request matches
+     */
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.ilyaslabs.microservice.security.guard.path;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Gives access to the path of a request in the form handler mappings match it: percent-decoded and without
+ * {@code ;} path parameters.
+ * <p>
+ * Most request URIs are already in that form, and {@link #match(PathTrie, HttpServletRequest)} then matches the
+ * URI in place after the context path, without allocating. Only URIs holding a {@code %} or {@code ;} are decoded
+ * first, so that e.g. {@code /%61dmin} is matched as {@code /admin}.
+ */
+public final class RequestPaths {
+
+    private RequestPaths() {
+    }
+
+    /**
+     * Returns the value of the most specific pattern matching the decoded path of the request within the application.
+     *
+     * @param trie    the compiled patterns
+     * @param request the request
+     * @param <V>     the value type
+     * @return the value of the matching pattern, or {@code null} if no pattern matches
+     */
+    public static <V> V match(PathTrie<V> trie, HttpServletRequest request) {
+
+        String requestUri = request.getRequestURI();
+
+        if (isDecoded(requestUri)) {
+            return trie.match(requestUri, request.getContextPath().length());
+        }
+
+        return trie.match(decodedPathWithinApplication(request));
+    }
+
+    /**
+     * Returns whether the request URI can be matched as is, i.e. holds neither percent-encoded characters nor path
+     * parameters.
+     *
+     * @param requestUri the raw request URI
+     * @return true if decoding would not change the URI
+     */
+    public static boolean isDecoded(String requestUri) {
+        return requestUri.indexOf('%') < 0 && requestUri.indexOf(';') < 0;
+    }
+
+    /**
+     * Returns the path of the request within the application, percent-decoded and without path parameters.
+     *
+     * @param request the request
+     * @return the decoded path, e.g. {@code /admin} for {@code /api/%61dmin;v=1} under the context path {@code /api}
+     */
+    public static String decodedPathWithinApplication(HttpServletRequest request) {
+        return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+}
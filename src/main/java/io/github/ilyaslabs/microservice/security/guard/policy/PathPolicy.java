@@ -0,0 +1,183 @@
+package io.github.ilyaslabs.microservice.security.guard.policy;
+
+import io.github.ilyaslabs.microservice.security.guard.authorization.ScopeRequirement;
+import io.github.ilyaslabs.microservice.security.guard.path.PathTrie;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An immutable set of path rules, each requiring scopes or an internal call for the requests it matches.
+ * <p>
+ * A policy is compiled from a text file with one rule per line; blank lines and lines starting with {@code #} are
+ * ignored:
+ * <pre>
+ * # method  pattern        conditions
+ * GET       /orders/**     scopes=orders:read
+ * POST      /orders/**     scopes=orders:write
+ * *         /admin/**      internal-only any-scopes=admin,support
+ * </pre>
+ * The method is an HTTP method or {@code *} for any method, the pattern uses the {@link PathTrie} syntax, and the
+ * conditions are any of {@code scopes=} (all of the comma separated scopes are required), {@code any-scopes=} (one
+ * of them is required) and {@code internal-only} (gateway calls are denied). Each method has its own trie; a rule
+ * for the request's method takes precedence over a {@code *} rule, and within a trie the most specific pattern wins.
+ * Requests matching no rule are not restricted by the policy.
+ */
+public final class PathPolicy {
+
+    private static final String ANY_METHOD = "*";
+
+    private static final PathPolicy EMPTY = new PathPolicy(Map.of(), PathTrie.empty(), 0);
+
+    private final Map<String, PathTrie<ScopeRequirement>> byMethod;
+
+    private final PathTrie<ScopeRequirement> anyMethod;
+
+    private final int size;
+
+    private PathPolicy(Map<String, PathTrie<ScopeRequirement>> byMethod, PathTrie<ScopeRequirement> anyMethod, int size) {
+        this.byMethod = byMethod;
+        this.anyMethod = anyMethod;
+        this.size = size;
+    }
+
+    /**
+     * Returns a policy without any rule.
+     *
+     * @return the empty policy
+     */
+    public static PathPolicy empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compiles the rules of a policy file.
+     *
+     * @param content  the content of the policy file
+     * @param registry the registry the caller's scopes are encoded with
+     * @return the compiled policy
+     * @throws IllegalArgumentException if a rule is invalid, naming its line
+     */
+    public static PathPolicy parse(String content, ScopeRegistry registry) {
+
+        Map<String, Map<String, ScopeRequirement>> rules = new LinkedHashMap<>();
+        int size = 0;
+        int lineNumber = 0;
+
+        for (String line : content.lines().toList()) {
+            lineNumber++;
+            String rule = line.strip();
+            if (rule.isEmpty() || rule.startsWith("#")) {
+                continue;
+            }
+            try {
+                addRule(rule, registry, rules);
+                size++;
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid path policy rule on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        Map<String, PathTrie<ScopeRequirement>> byMethod = new HashMap<>();
+        rules.forEach((method, patterns) -> {
+            if (!ANY_METHOD.equals(method)) {
+                byMethod.put(method, PathTrie.of(patterns));
+            }
+        });
+
+        return new PathPolicy(Map.copyOf(byMethod), PathTrie.of(rules.getOrDefault(ANY_METHOD, Map.of())), size);
+    }
+
+    /**
+     * Returns the requirement of the rule matching a request.
+     *
+     * @param method the HTTP method of the request
+     * @param path   the string holding the path, e.g. the request URI
+     * @param from   the index at which the path starts, e.g. after the context path
+     * @return the requirement, or {@code null} if no rule matches
+     */
+    public ScopeRequirement match(String method, String path, int from) {
+
+        PathTrie<ScopeRequirement> methodRules = byMethod.get(method);
+
+        if (methodRules != null) {
+            ScopeRequirement requirement = methodRules.match(path, from);
+            if (requirement != null) {
+                return requirement;
+            }
+        }
+
+        return anyMethod.match(path, from);
+    }
+
+    /**
+     * Returns the number of rules.
+     *
+     * @return the number of rules
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the policy has no rule.
+     *
+     * @return true if no request is restricted
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static void addRule(String rule, ScopeRegistry registry, Map<String, Map<String, ScopeRequirement>> rules) {
+
+        String[] tokens = rule.split("\\s+");
+        if (tokens.length < 3) {
+            throw new IllegalArgumentException("expected a method, a path pattern and at least one condition");
+        }
+
+        String method = tokens[0].equals(ANY_METHOD) ? ANY_METHOD : tokens[0].toUpperCase(Locale.ROOT);
+        String pattern = tokens[1];
+
+        List<String> allOf = new ArrayList<>();
+        List<String> anyOf = new ArrayList<>();
+        boolean internalOnly = false;
+
+        for (int i = 2; i < tokens.length; i++) {
+            String condition = tokens[i];
+            if (condition.equals("internal-only")) {
+                internalOnly = true;
+            } else if (condition.startsWith("scopes=")) {
+                allOf.addAll(scopes(condition, "scopes="));
+            } else if (condition.startsWith("any-scopes=")) {
+                anyOf.addAll(scopes(condition, "any-scopes="));
+            } else {
+                throw new IllegalArgumentException("unknown condition '" + condition + "'");
+            }
+        }
+
+        Map<String, ScopeRequirement> patterns = rules.computeIfAbsent(method, _ -> new LinkedHashMap<>());
+        if (patterns.putIfAbsent(pattern, ScopeRequirement.of(allOf, anyOf, internalOnly, registry)) != null) {
+            throw new IllegalArgumentException("duplicate rule for " + method + " " + pattern);
+        }
+
+        // compile the pattern now, so that the error names its line
+        PathTrie.of(Map.of(pattern, Boolean.TRUE));
+    }
+
+    private static List<String> scopes(String condition, String prefix) {
+
+        List<String> scopes = new ArrayList<>();
+        for (String scope : condition.substring(prefix.length()).split(",")) {
+            if (scope.isEmpty()) {
+                throw new IllegalArgumentException("empty scope in '" + condition + "'");
+            }
+            scopes.add(scope);
+        }
+        return scopes;
+    }
+}
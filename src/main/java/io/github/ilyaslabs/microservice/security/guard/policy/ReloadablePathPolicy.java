@@ -0,0 +1,231 @@
+package io.github.ilyaslabs.microservice.security.guard.policy;
+
+import io.github.ilyaslabs.microservice.security.guard.authorization.ScopeRequirement;
+import io.github.ilyaslabs.microservice.security.guard.path.RequestPaths;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link PathPolicy} read from a file and recompiled whenever the file changes.
+ * <p>
+ * The compiled policy is held in an {@link AtomicReference}: requests read the current policy with a single volatile
+ * load and match against an immutable trie, while a reload compiles a complete new policy off the request path and
+ * publishes it with one write. A policy that fails to read or compile is logged and discarded, leaving the previous
+ * policy active; only the policy loaded at construction must be valid.
+ * <p>
+ * Once {@link #start() started}, a daemon thread watches the directory of the file with a {@link WatchService}. Editors
+ * and deployment tools often replace a file in several steps, so changes are reloaded after a short quiet period.
+ * Any change in the directory triggers a read, as mounted config maps swap a symbolic link rather than the file
+ * itself; the policy is only recompiled if the content differs from the active one. Reloads are serialized by a
+ * lock of their own, and {@link #close()} waits for the watcher without holding any lock, so a reload in progress
+ * never blocks it.
+ */
+@Slf4j
+public class ReloadablePathPolicy implements AutoCloseable {
+
+    private final Path file;
+
+    private final ScopeRegistry registry;
+
+    private final Duration quietPeriod;
+
+    private final AtomicReference<PathPolicy> policy;
+
+    private final Object reloadLock = new Object();
+
+    private String content;
+
+    private volatile WatchService watchService;
+
+    private Thread watcher;
+
+    /**
+     * Loads the policy file.
+     *
+     * @param file        the policy file, see {@link PathPolicy} for its format
+     * @param registry    the registry the caller's scopes are encoded with
+     * @param quietPeriod how long the file must stay unchanged before it is reloaded
+     * @throws IllegalArgumentException if the policy is invalid
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    public ReloadablePathPolicy(Path file, ScopeRegistry registry, Duration quietPeriod) {
+        this.file = file.toAbsolutePath();
+        this.registry = registry;
+        this.quietPeriod = quietPeriod;
+        try {
+            this.content = read();
+            this.policy = new AtomicReference<>(PathPolicy.parse(content, registry));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the path policy " + file, e);
+        }
+    }
+
+    /**
+     * Returns the requirement of the rule of the current policy matching a request.
+     *
+     * @param method the HTTP method of the request
+     * @param path   the string holding the path, e.g. the request URI
+     * @param from   the index at which the path starts, e.g. after the context path
+     * @return the requirement, or {@code null} if no rule matches
+     */
+    public ScopeRequirement match(String method, String path, int from) {
+        return policy.get().match(method, path, from);
+    }
+
+    /**
+     * Returns the requirement of the rule of the current policy matching a request, matched against the
+     * percent-decoded path of the request within the application, so that e.g. {@code /%61dmin} matches the rules
+     * of {@code /admin}.
+     *
+     * @param request the request
+     * @return the requirement, or {@code null} if no rule matches
+     */
+    public ScopeRequirement match(HttpServletRequest request) {
+
+        String requestUri = request.getRequestURI();
+
+        if (RequestPaths.isDecoded(requestUri)) {
+            return match(request.getMethod(), requestUri, request.getContextPath().length());
+        }
+
+        return match(request.getMethod(), RequestPaths.decodedPathWithinApplication(request), 0);
+    }
+
+    /**
+     * Returns the active policy.
+     *
+     * @return the policy compiled from the last valid version of the file
+     */
+    public PathPolicy current() {
+        return policy.get();
+    }
+
+    /**
+     * Reads and compiles the file, and activates the result if it is valid.
+     *
+     * @return true if the new policy is active, false if the previous policy was kept
+     */
+    public boolean reload() {
+        synchronized (reloadLock) {
+            try {
+                String reloadedContent = read();
+                if (reloadedContent.equals(content)) {
+                    return true;
+                }
+                PathPolicy reloaded = PathPolicy.parse(reloadedContent, registry);
+                policy.set(reloaded);
+                content = reloadedContent;
+                log.info("Reloaded path policy {} with {} rules", file, reloaded.size());
+                return true;
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Keeping the previous path policy, {} is invalid: {}", file, e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Starts watching the file for changes.
+     *
+     * @throws UncheckedIOException if the directory of the file cannot be watched
+     */
+    public synchronized void start() {
+
+        if (watcher != null) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot watch the path policy " + file, e);
+        }
+
+        watcher = Thread.ofPlatform()
+                .name("security-guard-policy-watcher")
+                .daemon()
+                .start(this::watch);
+    }
+
+    /**
+     * Stops watching the file; the active policy stays in use.
+     */
+    @Override
+    public void close() {
+
+        Thread stopped;
+
+        synchronized (this) {
+            stopped = watcher;
+            if (stopped == null) {
+                return;
+            }
+            watcher = null;
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Cannot close the path policy watch service", e);
+            }
+        }
+
+        try {
+            stopped.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+
+                // wait until the file has settled; further events restart the quiet period
+                WatchKey next;
+                while ((next = watchService.poll(quietPeriod.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next);
+                }
+
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (RuntimeException e) {
+                        // keep watching; the previous policy stays active
+                        log.error("Cannot reload the path policy {}", file, e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed
+        }
+    }
+
+    private static boolean drain(WatchKey key) {
+        boolean changed = !key.pollEvents().isEmpty();
+        key.reset();
+        return changed;
+    }
+
+    private String read() throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+}
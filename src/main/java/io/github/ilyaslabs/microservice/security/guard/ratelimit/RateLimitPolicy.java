@@ -0,0 +1,33 @@
+package io.github.ilyaslabs.microservice.security.guard.ratelimit;
+
+/**
+ * A token bucket policy: a sustained rate and the number of requests that may be made at once.
+ *
+ * @param requestsPerSecond the sustained rate; zero or negative disables the limit
+ * @param burst             the bucket capacity, at least one request
+ */
+public record RateLimitPolicy(double requestsPerSecond, int burst) {
+
+    /**
+     * A policy that never limits.
+     */
+    public static final RateLimitPolicy UNLIMITED = new RateLimitPolicy(0, 1);
+
+    /**
+     * Validates the policy.
+     */
+    public RateLimitPolicy {
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be at least 1: " + burst);
+        }
+    }
+
+    /**
+     * Returns whether the policy limits requests at all.
+     *
+     * @return true if requests are limited
+     */
+    public boolean isLimited() {
+        return requestsPerSecond > 0;
+    }
+}
@@ -0,0 +1,250 @@
+package io.github.ilyaslabs.microservice.security.guard.ratelimit;
+
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * A lock-free token bucket rate limiter keyed by user id.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding its theoretical arrival time (the generic cell rate algorithm):
+ * a request is admitted if the bucket would not overflow, and admission is a single compare-and-set. Buckets live in
+ * {@link ConcurrentHashMap}s, whose reads take no lock and whose writes lock a single bin, so users on different
+ * cores never contend. Internal calls with a user id, gateway calls and anonymous calls have separate policies;
+ * anonymous calls, and gateway calls without a user id, share one bucket per policy.
+ * <p>
+ * A bucket is full again once its arrival time has passed; once {@link #start() started}, a daemon thread removes
+ * buckets that stayed full for the idle timeout every second, so memory follows the number of active users and no
+ * request pays for the sweep. A request racing with the removal of its bucket may be admitted without being counted.
+ * <p>
+ * Each policy tracks at most about {@code maxUsers} users, so that rotating user ids cannot grow the maps without
+ * bound: while a policy is full, requests of users without a bucket are admitted without being limited, and counted
+ * in {@link #overflowed()}. Failing open keeps a flood of new user ids from throttling legitimate users that have no
+ * bucket yet; a sustained count means {@code maxUsers} is too small for the traffic.
+ */
+public class UserRateLimiter implements AutoCloseable {
+
+    /**
+     * Default maximum number of users tracked per policy.
+     */
+    public static final int DEFAULT_MAX_USERS = 100_000;
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Buckets users;
+
+    private final Buckets gateway;
+
+    private final Buckets anonymous;
+
+    private final long idleTimeoutNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Thread sweeper;
+
+    private volatile boolean running;
+
+    /**
+     * Creates a limiter tracking at most {@link #DEFAULT_MAX_USERS} users per policy.
+     *
+     * @param userPolicy      the policy of internal calls carrying a user id
+     * @param gatewayPolicy   the policy of calls through the API gateway, per user id
+     * @param anonymousPolicy the policy shared by all internal calls without a user id
+     * @param idleTimeout     how long a full bucket is kept before it is evicted
+     */
+    public UserRateLimiter(RateLimitPolicy userPolicy, RateLimitPolicy gatewayPolicy, RateLimitPolicy anonymousPolicy, Duration idleTimeout) {
+        this(userPolicy, gatewayPolicy, anonymousPolicy, idleTimeout, DEFAULT_MAX_USERS);
+    }
+
+    /**
+     * Creates a limiter; idle buckets are not evicted until {@link #start()} is called.
+     *
+     * @param userPolicy      the policy of internal calls carrying a user id
+     * @param gatewayPolicy   the policy of calls through the API gateway, per user id
+     * @param anonymousPolicy the policy shared by all internal calls without a user id
+     * @param idleTimeout     how long a full bucket is kept before it is evicted
+     * @param maxUsers        the maximum number of users tracked per policy, must be positive
+     */
+    public UserRateLimiter(RateLimitPolicy userPolicy, RateLimitPolicy gatewayPolicy, RateLimitPolicy anonymousPolicy,
+                           Duration idleTimeout, int maxUsers) {
+        this(userPolicy, gatewayPolicy, anonymousPolicy, idleTimeout, maxUsers, System::nanoTime);
+    }
+
+    UserRateLimiter(RateLimitPolicy userPolicy, RateLimitPolicy gatewayPolicy, RateLimitPolicy anonymousPolicy,
+                    Duration idleTimeout, int maxUsers, LongSupplier nanoClock) {
+
+        if (maxUsers < 1) {
+            throw new IllegalArgumentException("maxUsers must be positive");
+        }
+
+        this.users = new Buckets(userPolicy, maxUsers);
+        this.gateway = new Buckets(gatewayPolicy, maxUsers);
+        this.anonymous = new Buckets(anonymousPolicy, maxUsers);
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.nanoClock = nanoClock;
+        this.sweeper = Thread.ofPlatform()
+                .name("security-guard-rate-limit-sweeper")
+                .daemon()
+                .unstarted(this::run);
+    }
+
+    /**
+     * Starts the background eviction of idle buckets.
+     */
+    public void start() {
+        running = true;
+        sweeper.start();
+    }
+
+    /**
+     * Stops the background eviction of idle buckets.
+     */
+    @Override
+    public void close() {
+
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(sweeper);
+
+        try {
+            sweeper.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tries to admit a request.
+     *
+     * @param authenticationContext the authentication context of the request
+     * @return zero if the request is admitted, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(AuthenticationContext authenticationContext) {
+
+        Buckets buckets = authenticationContext.isGatewayCall()
+                ? gateway
+                : authenticationContext.userId() != null ? users : anonymous;
+
+        if (!buckets.limited) {
+            return 0;
+        }
+
+        return buckets.tryAcquire(authenticationContext.userId(), nanoClock.getAsLong());
+    }
+
+    /**
+     * Returns the number of tracked buckets.
+     *
+     * @return the number of buckets across all policies
+     */
+    public int size() {
+        return users.size() + gateway.size() + anonymous.size();
+    }
+
+    /**
+     * Returns the number of requests of untracked users that were admitted without a bucket because their policy
+     * was full.
+     *
+     * @return the number of overflowed requests across all policies
+     */
+    public long overflowed() {
+        return users.overflowed.sum() + gateway.overflowed.sum() + anonymous.overflowed.sum();
+    }
+
+    /**
+     * Removes the buckets that stayed full for the idle timeout.
+     */
+    void evictIdle() {
+
+        long idleBefore = nanoClock.getAsLong() - idleTimeoutNanos;
+
+        users.evictIdle(idleBefore);
+        gateway.evictIdle(idleBefore);
+        anonymous.evictIdle(idleBefore);
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, SWEEP_INTERVAL_NANOS);
+            if (running) {
+                evictIdle();
+            }
+        }
+    }
+
+    /**
+     * The buckets of one policy.
+     */
+    private static final class Buckets {
+
+        private final boolean limited;
+
+        private final long emissionIntervalNanos;
+
+        private final long toleranceNanos;
+
+        private final int maxUsers;
+
+        private final ConcurrentHashMap<ObjectId, AtomicLong> byUser = new ConcurrentHashMap<>();
+
+        private final AtomicLong shared = new AtomicLong(Long.MIN_VALUE);
+
+        private final LongAdder overflowed = new LongAdder();
+
+        private Buckets(RateLimitPolicy policy, int maxUsers) {
+            this.limited = policy.isLimited();
+            this.maxUsers = maxUsers;
+            this.emissionIntervalNanos = limited ? Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / policy.requestsPerSecond())) : 0;
+            this.toleranceNanos = emissionIntervalNanos * policy.burst();
+        }
+
+        long tryAcquire(ObjectId userId, long now) {
+
+            AtomicLong bucket = userId != null ? byUser.get(userId) : shared;
+
+            if (bucket == null) {
+                // concurrent first requests may overshoot the maximum by a few buckets
+                if (byUser.size() >= maxUsers) {
+                    overflowed.increment();
+                    return 0;
+                }
+                bucket = byUser.computeIfAbsent(userId, _ -> new AtomicLong(Long.MIN_VALUE));
+            }
+
+            while (true) {
+                long arrival = bucket.get();
+                // an unused bucket starts full
+                long base = arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival;
+                long next = base + emissionIntervalNanos;
+                long excess = next - now - toleranceNanos;
+
+                if (excess > 0) {
+                    return excess;
+                }
+
+                if (bucket.compareAndSet(arrival, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        void evictIdle(long idleBefore) {
+            byUser.values().removeIf(bucket -> bucket.get() - idleBefore < 0);
+        }
+
+        int size() {
+            return byUser.size();
+        }
+    }
+}
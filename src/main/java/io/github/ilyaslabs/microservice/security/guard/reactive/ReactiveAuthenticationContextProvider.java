@@ -0,0 +1,27 @@
+package io.github.ilyaslabs.microservice.security.guard.reactive;
+
+import io.github.ilyaslabs.microservice.security.guard.AuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link AuthenticationContextProvider}, resolving the authentication context
+ * from the Reactor context of the current exchange.
+ */
+public interface ReactiveAuthenticationContextProvider {
+
+    /**
+     * Retrieves the authentication context associated with the ongoing exchange.
+     *
+     * @return a Mono emitting the current AuthenticationContext, or signalling an
+     *         {@link IllegalStateException} if no authentication context is present.
+     */
+    Mono<AuthenticationContext> current();
+
+    /**
+     * Retrieves the authentication context associated with the ongoing exchange, if available.
+     *
+     * @return a Mono emitting the current AuthenticationContext if present; otherwise, an empty Mono.
+     */
+    Mono<AuthenticationContext> currentOrEmpty();
+}
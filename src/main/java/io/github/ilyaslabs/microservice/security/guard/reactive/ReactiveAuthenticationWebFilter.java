@@ -0,0 +1,118 @@
+package io.github.ilyaslabs.microservice.security.guard.reactive;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.jwt.JwtAuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSignatureVerifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link CustomAuthenticationWebFilter}.
+ * It builds an {@link AuthenticationContext} from the {@link SecurityHeaders} with the shared
+ * {@link AuthenticationContextResolver} and exposes it through the {@link ReactiveSecurityContextHolder}
+ * for the rest of the exchange. If the security context already contains an authentication, the exchange
+ * is continued without further processing. When a {@link JwtAuthenticationContextResolver} is set, the context is
+ * built from a verified bearer token instead, and exchanges carrying an invalid token are answered with HTTP 401.
+ * When a {@link HeaderSignatureVerifier} is set, exchanges whose security headers are not signed with the shared
+ * secret, or whose signature was already used, are answered with HTTP 401 as well.
+ */
+public class ReactiveAuthenticationWebFilter implements WebFilter {
+
+    private final AuthenticationContextResolver authenticationContextResolver;
+
+    private JwtAuthenticationContextResolver jwtAuthenticationContextResolver;
+
+    private HeaderSignatureVerifier headerSignatureVerifier;
+
+    /**
+     * Creates the filter.
+     *
+     * @param authenticationContextResolver the resolver parsing the security headers
+     */
+    public ReactiveAuthenticationWebFilter(AuthenticationContextResolver authenticationContextResolver) {
+        this.authenticationContextResolver = authenticationContextResolver;
+    }
+
+    /**
+     * Sets the resolver used to build the authentication context from a bearer JWT instead of the
+     * {@link SecurityHeaders#X_USER_ID} and {@link SecurityHeaders#X_SCOPES} headers.
+     *
+     * @param jwtAuthenticationContextResolver the resolver of bearer tokens, or {@code null} to trust the headers
+     */
+    public void setJwtAuthenticationContextResolver(JwtAuthenticationContextResolver jwtAuthenticationContextResolver) {
+        this.jwtAuthenticationContextResolver = jwtAuthenticationContextResolver;
+    }
+
+    /**
+     * Sets the verifier of the signature over the security headers. Not applied to bearer tokens, which are
+     * signed themselves.
+     *
+     * @param headerSignatureVerifier the verifier, or {@code null} to trust unsigned headers
+     */
+    public void setHeaderSignatureVerifier(HeaderSignatureVerifier headerSignatureVerifier) {
+        this.headerSignatureVerifier = headerSignatureVerifier;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+                .filter(context -> context.getAuthentication() != null)
+                .hasElement()
+                .flatMap(authenticated -> authenticated ? chain.filter(exchange) : authenticate(exchange, chain));
+    }
+
+    private Mono<Void> authenticate(ServerWebExchange exchange, WebFilterChain chain) {
+
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+
+        AuthenticationContext authenticationContext;
+
+        if (jwtAuthenticationContextResolver != null) {
+            try {
+                authenticationContext = jwtAuthenticationContextResolver.resolve(
+                        headers.getFirst(HttpHeaders.AUTHORIZATION),
+                        headers.getFirst(SecurityHeaders.X_API_GATEWAY.getName())
+                );
+            } catch (AuthenticationException e) {
+                return unauthorized(exchange);
+            }
+        } else {
+            String userId = headers.getFirst(SecurityHeaders.X_USER_ID.getName());
+            String scopes = headers.getFirst(SecurityHeaders.X_SCOPES.getName());
+            String compactScopes = headers.getFirst(SecurityHeaders.X_SCOPES_COMPACT.getName());
+            String apiGateway = headers.getFirst(SecurityHeaders.X_API_GATEWAY.getName());
+
+            if (headerSignatureVerifier != null && !headerSignatureVerifier.verify(userId, scopes, compactScopes, apiGateway,
+                    headers.getFirst(SecurityHeaders.X_SIGNATURE_TIMESTAMP.getName()),
+                    headers.getFirst(SecurityHeaders.X_SIGNATURE_NONCE.getName()),
+                    headers.getFirst(SecurityHeaders.X_SIGNATURE.getName()))) {
+                return unauthorized(exchange);
+            }
+
+            authenticationContext = authenticationContextResolver.resolve(userId, scopes, compactScopes, apiGateway);
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(authenticationContext, null, authenticationContext.authorities());
+
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+}
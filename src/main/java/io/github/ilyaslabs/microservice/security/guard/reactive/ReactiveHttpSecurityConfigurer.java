@@ -0,0 +1,80 @@
+package io.github.ilyaslabs.microservice.security.guard.reactive;
+
+import io.github.ilyaslabs.microservice.security.guard.HttpSecurityConfigurer;
+import io.github.ilyaslabs.microservice.security.guard.SecurityGuardConfiguration;
+import io.github.ilyaslabs.microservice.security.guard.SecurityGuardProperties;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.jwt.JwtAuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSignatureVerifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+/**
+ * Reactive counterpart of {@link HttpSecurityConfigurer} for WebFlux applications.
+ * It shares the parsing and authorization core of {@link SecurityGuardConfiguration} with the servlet stack,
+ * and enables reactive method security so that {@code @Secured} is enforced on handlers returning a publisher.
+ * Trusted networks, rate limiting and the path policy are enforced by the servlet filter only; configuring any of
+ * them for a WebFlux application fails the startup rather than leaving the service unprotected.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@Import({SecurityGuardConfiguration.class, ReactiveSecurityGuardDefaultsConfiguration.Selector.class})
+public class ReactiveHttpSecurityConfigurer {
+
+    /**
+     * Creates and provides a {@link ReactiveSecurityConfig} bean that integrates the shared
+     * {@link AuthenticationContextResolver}.
+     *
+     * @param authenticationContextResolver the resolver used to build authentication contexts from headers.
+     * @param jwtAuthenticationContextResolver the resolver of bearer tokens, available when JWT authentication is enabled.
+     * @param headerSignatureVerifier the verifier of signed headers, available when header signatures are enabled.
+     * @param properties the security guard configuration properties.
+     * @return a configured {@link ReactiveSecurityConfig} object.
+     * @throws IllegalStateException if a feature of the servlet stack only is configured.
+     */
+    @Bean
+    public ReactiveSecurityConfig reactiveSecurityConfig(AuthenticationContextResolver authenticationContextResolver,
+                                                         ObjectProvider<JwtAuthenticationContextResolver> jwtAuthenticationContextResolver,
+                                                         ObjectProvider<HeaderSignatureVerifier> headerSignatureVerifier,
+                                                         SecurityGuardProperties properties) {
+        rejectServletOnly(properties);
+        ReactiveSecurityConfig reactiveSecurityConfig = new ReactiveSecurityConfig(authenticationContextResolver);
+        jwtAuthenticationContextResolver.ifAvailable(reactiveSecurityConfig::setJwtAuthenticationContextResolver);
+        headerSignatureVerifier.ifAvailable(reactiveSecurityConfig::setHeaderSignatureVerifier);
+        return reactiveSecurityConfig;
+    }
+
+    private static void rejectServletOnly(SecurityGuardProperties properties) {
+        SecurityGuardProperties.TrustedNetworks trustedNetworks = properties.getTrustedNetworks();
+        if (!trustedNetworks.getInternal().isEmpty() || !trustedNetworks.getGateway().isEmpty()) {
+            throw new IllegalStateException(SecurityGuardProperties.PREFIX + ".trusted-networks is not supported by WebFlux applications");
+        }
+        if (properties.getRateLimit().isEnabled()) {
+            throw new IllegalStateException(SecurityGuardProperties.PREFIX + ".rate-limit.enabled is not supported by WebFlux applications");
+        }
+        if (properties.getPathPolicy().getFile() != null) {
+            throw new IllegalStateException(SecurityGuardProperties.PREFIX + ".path-policy.file is not supported by WebFlux applications");
+        }
+    }
+
+    /**
+     * Configures and provides a security web filter chain for the application.
+     *
+     * @param reactiveSecurityConfig the {@link ReactiveSecurityConfig} object used for configuring security settings.
+     * @param serverHttpSecurity the {@link ServerHttpSecurity} object to be configured for application security.
+     * @return the configured {@link SecurityWebFilterChain} instance.
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ReactiveSecurityConfig reactiveSecurityConfig, ServerHttpSecurity serverHttpSecurity) {
+        return reactiveSecurityConfig.serverHttpSecurity(serverHttpSecurity);
+    }
+}
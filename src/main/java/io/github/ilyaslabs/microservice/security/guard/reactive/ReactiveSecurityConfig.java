@@ -0,0 +1,91 @@
+package io.github.ilyaslabs.microservice.security.guard.reactive;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityConfig;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.jwt.JwtAuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.signature.HeaderSignatureVerifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link SecurityConfig}, with the same defaults:
+ * - Disables CSRF, CORS, form login, and HTTP basic authentication.
+ * - Keeps no security context between requests, making the service stateless.
+ * - Integrates the {@link ReactiveAuthenticationWebFilter} at the authentication position of the chain.
+ * - Returns an HTTP 401 status code for unauthorized requests.
+ */
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+
+    private final AuthenticationContextResolver authenticationContextResolver;
+
+    private JwtAuthenticationContextResolver jwtAuthenticationContextResolver;
+
+    private HeaderSignatureVerifier headerSignatureVerifier;
+
+    /**
+     * Sets the resolver of bearer tokens passed on to the {@link ReactiveAuthenticationWebFilter}.
+     *
+     * @param jwtAuthenticationContextResolver the resolver of bearer tokens, or {@code null} to trust the headers
+     */
+    public void setJwtAuthenticationContextResolver(JwtAuthenticationContextResolver jwtAuthenticationContextResolver) {
+        this.jwtAuthenticationContextResolver = jwtAuthenticationContextResolver;
+    }
+
+    /**
+     * Sets the verifier of signed headers passed on to the {@link ReactiveAuthenticationWebFilter}.
+     *
+     * @param headerSignatureVerifier the verifier, or {@code null} to trust unsigned headers
+     */
+    public void setHeaderSignatureVerifier(HeaderSignatureVerifier headerSignatureVerifier) {
+        this.headerSignatureVerifier = headerSignatureVerifier;
+    }
+
+    /**
+     * Creates a basic web filter chain required for microservice security.
+     * The authentication filter is created here rather than exposed as a bean, so that WebFlux does not
+     * also register it as a global web filter.
+     *
+     * @param http the ServerHttpSecurity object to configure
+     * @return the configured SecurityWebFilterChain
+     */
+    public SecurityWebFilterChain serverHttpSecurity(ServerHttpSecurity http) {
+
+        ReactiveAuthenticationWebFilter authenticationWebFilter = new ReactiveAuthenticationWebFilter(authenticationContextResolver);
+        authenticationWebFilter.setJwtAuthenticationContextResolver(jwtAuthenticationContextResolver);
+        authenticationWebFilter.setHeaderSignatureVerifier(headerSignatureVerifier);
+
+        http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                //make session less
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .cors(ServerHttpSecurity.CorsSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .addFilterAt(authenticationWebFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .exceptionHandling(customizer ->
+                        customizer
+                                .authenticationEntryPoint(this::unauthorizedResponse)
+                );
+
+        return http.build();
+    }
+
+    /**
+     * Handles an unauthorized response by setting an HTTP 401 status code.
+     *
+     * @param exchange the exchange triggering the unauthorized response
+     * @param e        the authentication exception that caused the unauthorized response
+     * @return a Mono completing once the status has been set
+     */
+    private Mono<Void> unauthorizedResponse(ServerWebExchange exchange, AuthenticationException e) {
+        return Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED));
+    }
+}
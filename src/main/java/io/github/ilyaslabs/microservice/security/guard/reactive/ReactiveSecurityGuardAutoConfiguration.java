@@ -0,0 +1,20 @@
+package io.github.ilyaslabs.microservice.security.guard.reactive;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityGuardProperties;
+import io.github.ilyaslabs.microservice.security.guard.annotation.EnableReactiveMicroserviceSecurity;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Auto-configures the guard for WebFlux applications, as {@link EnableReactiveMicroserviceSecurity} does, unless
+ * {@code microservice.security.guard.enabled} is set to {@code false}. Runs before Spring Boot's reactive user details
+ * auto-configuration, so that no default user is generated.
+ */
+@AutoConfiguration(beforeName = "org.springframework.boot.security.autoconfigure.ReactiveUserDetailsServiceAutoConfiguration")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(prefix = SecurityGuardProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+@Import(ReactiveHttpSecurityConfigurer.class)
+public class ReactiveSecurityGuardAutoConfiguration {
+}
@@ -0,0 +1,59 @@
+package io.github.ilyaslabs.microservice.security.guard.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DeferredImportSelector;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code SecurityGuardDefaultsConfiguration}: provides the beans of the WebFlux guard that
+ * back off when the application defines its own, imported by {@link ReactiveHttpSecurityConfigurer} through a
+ * {@link Selector deferred selector} so that {@link ConditionalOnMissingBean} sees every bean of the application,
+ * with {@code @EnableReactiveMicroserviceSecurity} as well as under auto-configuration.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ReactiveSecurityGuardDefaultsConfiguration {
+
+    /**
+     * Provides a {@link ReactiveUserDetailsService} bean that signals a {@link UsernameNotFoundException}
+     * for any username lookup, unless the application defines its own, effectively disabling user details retrieval.
+     *
+     * @return an instance of {@link ReactiveUserDetailsService} that never finds a user.
+     */
+    @Bean
+    @ConditionalOnMissingBean(ReactiveUserDetailsService.class)
+    public ReactiveUserDetailsService reactiveUserDetailsService() {
+        return _ -> Mono.error(new UsernameNotFoundException("ReactiveUserDetailsService disabled"));
+    }
+
+    /**
+     * Provides an instance of {@link ReactiveAuthenticationContextProvider} to retrieve the
+     * authentication context of the current exchange, unless the application defines its own.
+     *
+     * @return an instance of {@link ReactiveAuthenticationContextProvider} backed by the reactive security context.
+     */
+    @Bean
+    @ConditionalOnMissingBean(ReactiveAuthenticationContextProvider.class)
+    public ReactiveAuthenticationContextProvider reactiveAuthenticationContextProvider() {
+        return new SpringReactiveAuthenticationContextProvider();
+    }
+
+    /**
+     * Imports {@link ReactiveSecurityGuardDefaultsConfiguration} once the configuration classes of the application
+     * are processed.
+     */
+    public static class Selector implements DeferredImportSelector {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String[] selectImports(AnnotationMetadata importingClassMetadata) {
+            return new String[]{ReactiveSecurityGuardDefaultsConfiguration.class.getName()};
+        }
+    }
+}
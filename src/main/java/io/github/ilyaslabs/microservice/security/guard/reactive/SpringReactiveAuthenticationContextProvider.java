@@ -0,0 +1,33 @@
+package io.github.ilyaslabs.microservice.security.guard.reactive;
+
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * Provides the authentication context of the current exchange from the {@link ReactiveSecurityContextHolder}.
+ */
+public class SpringReactiveAuthenticationContextProvider implements ReactiveAuthenticationContextProvider {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<AuthenticationContext> current() {
+        return currentOrEmpty()
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No authentication context found")));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<AuthenticationContext> currentOrEmpty() {
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(SecurityContext::getAuthentication)
+                .map(Authentication::getPrincipal)
+                .ofType(AuthenticationContext.class);
+    }
+}
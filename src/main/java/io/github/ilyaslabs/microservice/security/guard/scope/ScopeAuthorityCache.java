@@ -0,0 +1,178 @@
+package io.github.ilyaslabs.microservice.security.guard.scope;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.cache.BoundedCache;
+import io.github.ilyaslabs.microservice.security.guard.filter.SecurityHeaderParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interns {@link SecurityHeaders#X_SCOPES} header values into shared, immutable authority lists.
+ * <p>
+ * A service typically sees only a few hundred distinct scope headers, so the parsed list for each raw
+ * header value is cached and handed to every request carrying the same header. The individual
+ * {@link SimpleGrantedAuthority} instances are interned as well, so that concurrent authentication
+ * contexts share them. Both caches are bounded, so a flood of unique headers cannot grow memory without bound.
+ * When a {@link ScopeRegistry} is configured, each cached value is encoded as a bitset backed {@link ScopeSet}, and
+ * {@link SecurityHeaders#X_SCOPES_COMPACT} values are decoded against it and cached alike. A compact value that
+ * cannot be decoded, typically from a sender on another registry version, is counted, see {@link #undecodable()},
+ * but not cached, so that a stale sender cannot evict the decodable values; only the first failure is logged as a
+ * warning, without the value itself.
+ */
+@Slf4j
+public class ScopeAuthorityCache {
+
+    private final BoundedCache<String, ScopeSet> scopeSets;
+
+    private final BoundedCache<String, ScopeSet> compactScopeSets;
+
+    private final BoundedCache<String, SimpleGrantedAuthority> authorities;
+
+    private final ScopeRegistry registry;
+
+    private final LongAdder undecodable = new LongAdder();
+
+    private final AtomicBoolean undecodableWarned = new AtomicBoolean();
+
+    /**
+     * Creates a cache with the given bounds whose scope sets are not backed by a registry.
+     *
+     * @param maximumSize        the maximum number of distinct scope header values to retain
+     * @param maximumAuthorities the maximum number of distinct authorities to intern
+     */
+    public ScopeAuthorityCache(int maximumSize, int maximumAuthorities) {
+        this(maximumSize, maximumAuthorities, null);
+    }
+
+    /**
+     * Creates a cache with the given bounds, encoding scope sets against the registry.
+     *
+     * @param maximumSize        the maximum number of distinct scope header values to retain
+     * @param maximumAuthorities the maximum number of distinct authorities to intern
+     * @param registry           the registry used to encode scope sets as bitsets, or {@code null}
+     */
+    public ScopeAuthorityCache(int maximumSize, int maximumAuthorities, ScopeRegistry registry) {
+        this.scopeSets = new BoundedCache<>(maximumSize);
+        this.compactScopeSets = new BoundedCache<>(maximumSize);
+        this.authorities = new BoundedCache<>(maximumAuthorities);
+        this.registry = registry;
+    }
+
+    /**
+     * Resolves a raw scopes header value to its authorities.
+     *
+     * @param scopes the raw header value, may be {@code null}
+     * @return a shared, unmodifiable list of authorities
+     */
+    public List<SimpleGrantedAuthority> resolve(String scopes) {
+        return resolveScopeSet(scopes).authorities();
+    }
+
+    /**
+     * Resolves a raw scopes header value to a shared {@link ScopeSet}.
+     *
+     * @param scopes the raw header value, may be {@code null}
+     * @return the shared scope set, {@link ScopeSet#EMPTY} if the value is absent
+     */
+    public ScopeSet resolveScopeSet(String scopes) {
+
+        if (scopes == null) {
+            return ScopeSet.EMPTY;
+        }
+
+        return scopeSets.get(scopes, this::parse);
+    }
+
+    /**
+     * Resolves a {@link SecurityHeaders#X_SCOPES_COMPACT} value to a shared {@link ScopeSet}.
+     *
+     * @param compactScopes the raw header value
+     * @return the shared scope set, or {@code null} if no registry is configured or the value cannot be decoded
+     * against it, see {@link ScopeRegistry#decodeCompact(String)}
+     */
+    public ScopeSet resolveCompactScopeSet(String compactScopes) {
+
+        if (registry == null) {
+            return null;
+        }
+
+        ScopeSet scopeSet = compactScopeSets.getIfPresent(compactScopes);
+
+        if (scopeSet != null) {
+            return scopeSet;
+        }
+
+        scopeSet = registry.decodeCompact(compactScopes);
+
+        if (scopeSet == null) {
+            undecodable(compactScopes);
+            return null;
+        }
+
+        compactScopeSets.put(compactScopes, scopeSet);
+
+        return scopeSet;
+    }
+
+    /**
+     * Returns the interned authority for a single scope.
+     *
+     * @param scope the scope name
+     * @return the shared authority instance
+     */
+    public SimpleGrantedAuthority intern(String scope) {
+        return authorities.get(scope, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * Returns the statistics of the header value cache.
+     *
+     * @return hits, misses, evictions and size of the scope header cache
+     */
+    public BoundedCache.CacheStats stats() {
+        return scopeSets.stats();
+    }
+
+    /**
+     * Returns the statistics of the authority interning cache.
+     *
+     * @return hits, misses, evictions and size of the interned authorities
+     */
+    public BoundedCache.CacheStats authorityStats() {
+        return authorities.stats();
+    }
+
+    /**
+     * Returns the number of compact scope values that could not be decoded against the registry.
+     *
+     * @return the count of undecodable values, every occurrence counted
+     */
+    public long undecodable() {
+        return undecodable.sum();
+    }
+
+    private void undecodable(String compactScopes) {
+
+        undecodable.increment();
+
+        // the value comes from the caller, so it is never logged, and a stale sender cannot flood the log
+        if (undecodableWarned.compareAndSet(false, true)) {
+            log.warn("Cannot decode compact scopes of {} characters against scope registry version {}, falling back to the scope names; further failures are counted only",
+                    compactScopes.length(), registry.version());
+        } else {
+            log.debug("Cannot decode compact scopes of {} characters against scope registry version {}",
+                    compactScopes.length(), registry.version());
+        }
+    }
+
+    private ScopeSet parse(String scopes) {
+
+        List<SimpleGrantedAuthority> authorityList = SecurityHeaderParser.parseScopes(scopes, this::intern);
+
+        return registry != null ? registry.encode(authorityList) : ScopeSet.of(authorityList);
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.ilyaslabs.microservice.security.guard.scope;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Assigns each known scope a dense integer index, so that scope sets can be represented as bitsets.
+ * <p>
+ * The registry is immutable. Scopes are indexed in the order they are registered; duplicates and blank
+ * names are ignored. Scopes that are not registered are still supported by {@link ScopeSet}, which falls back
+ * to comparing their names.
+ * <p>
+ * A registry shared by all services of a call graph also defines the compact {@link SecurityHeaders#X_SCOPES_COMPACT}
+ * wire format, {@code <version>.<mask>}: the {@link #version()} of the registry followed by the bitmask of the scope
+ * indexes, bit {@code i} in bit {@code i % 8} of byte {@code i / 8}, without trailing zero bytes, as unpadded
+ * base64url. Receivers only decode values of their own version.
+ */
+public final class ScopeRegistry {
+
+    private static final ScopeRegistry EMPTY = new ScopeRegistry(List.of());
+
+    private final Map<String, Integer> indexes;
+
+    private final List<String> scopes;
+
+    private final List<SimpleGrantedAuthority> authorities;
+
+    private final String version;
+
+    private ScopeRegistry(Collection<String> scopes) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (String scope : scopes) {
+            if (scope != null && !scope.isBlank()) {
+                indexes.putIfAbsent(scope, indexes.size());
+            }
+        }
+        String[] ordered = new String[indexes.size()];
+        indexes.forEach((scope, index) -> ordered[index] = scope);
+
+        this.indexes = Map.copyOf(indexes);
+        this.scopes = List.of(ordered);
+        this.authorities = this.scopes.stream().map(SimpleGrantedAuthority::new).toList();
+        this.version = fingerprint(this.scopes);
+    }
+
+    /**
+     * Creates a registry indexing the given scopes in iteration order.
+     *
+     * @param scopes the known scopes
+     * @return a new registry
+     */
+    public static ScopeRegistry of(Collection<String> scopes) {
+        return scopes.isEmpty() ? EMPTY : new ScopeRegistry(scopes);
+    }
+
+    /**
+     * Returns a registry without any known scope.
+     *
+     * @return the empty registry
+     */
+    public static ScopeRegistry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the index of a scope.
+     *
+     * @param scope the scope name
+     * @return the index of the scope, or {@code -1} if it is not registered
+     */
+    public int indexOf(String scope) {
+        Integer index = indexes.get(scope);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the scope registered at an index.
+     *
+     * @param index the scope index
+     * @return the scope name
+     */
+    public String scopeAt(int index) {
+        return scopes.get(index);
+    }
+
+    /**
+     * Returns the number of registered scopes.
+     *
+     * @return the registry size
+     */
+    public int size() {
+        return scopes.size();
+    }
+
+    /**
+     * Returns the version of the registry, a fingerprint of its scopes in index order; services whose registries
+     * have the same version agree on every scope index.
+     *
+     * @return 8 hex digits
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Decodes a {@link SecurityHeaders#X_SCOPES_COMPACT} value into a {@link ScopeSet} backed by this registry.
+     *
+     * @param compactScopes the header value
+     * @return the scope set, or {@code null} if the value is malformed, of another registry version, or refers to
+     * indexes this registry does not have
+     */
+    public ScopeSet decodeCompact(String compactScopes) {
+
+        int separator = compactScopes.indexOf('.');
+        if (separator != version.length() || !compactScopes.startsWith(version)) {
+            return null;
+        }
+
+        byte[] mask;
+        try {
+            mask = Base64.getUrlDecoder().decode(compactScopes.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        long[] words = new long[wordCount()];
+        List<SimpleGrantedAuthority> decoded = new ArrayList<>();
+
+        for (int i = 0; i < mask.length; i++) {
+            int bits = mask[i] & 0xFF;
+            while (bits != 0) {
+                int index = (i << 3) + Integer.numberOfTrailingZeros(bits);
+                if (index >= scopes.size()) {
+                    return null;
+                }
+                words[index >>> 6] |= 1L << index;
+                decoded.add(authorities.get(index));
+                bits &= bits - 1;
+            }
+        }
+
+        return decoded.isEmpty() ? ScopeSet.EMPTY : new ScopeSet(List.copyOf(decoded), this, words, true);
+    }
+
+    /**
+     * Encodes the bitset of a scope set into a {@link SecurityHeaders#X_SCOPES_COMPACT} value.
+     */
+    String encodeCompact(long[] words) {
+
+        byte[] mask = new byte[words.length * Long.BYTES];
+        int length = 0;
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+            if (mask[i] != 0) {
+                length = i + 1;
+            }
+        }
+
+        return version + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(mask, length));
+    }
+
+    /**
+     * Encodes authorities into a {@link ScopeSet} backed by this registry.
+     *
+     * @param authorities the authorities to encode
+     * @return a scope set holding the given authorities
+     */
+    public ScopeSet encode(List<SimpleGrantedAuthority> authorities) {
+
+        long[] words = new long[wordCount()];
+        boolean fullyIndexed = true;
+
+        for (SimpleGrantedAuthority authority : authorities) {
+            int index = indexOf(authority.getAuthority());
+            if (index < 0) {
+                fullyIndexed = false;
+            } else {
+                words[index >>> 6] |= 1L << index;
+            }
+        }
+
+        return new ScopeSet(authorities, this, words, fullyIndexed);
+    }
+
+    /**
+     * Encodes scope names into a {@link ScopeSet}, typically used as a mask for
+     * {@link ScopeSet#containsAll(ScopeSet)} and {@link ScopeSet#containsAny(ScopeSet)}.
+     *
+     * @param scopes the scope names
+     * @return a scope set holding the given scopes
+     */
+    public ScopeSet mask(Collection<String> scopes) {
+        return encode(scopes.stream().map(SimpleGrantedAuthority::new).toList());
+    }
+
+    int wordCount() {
+        return (scopes.size() + 63) >>> 6;
+    }
+
+    private static String fingerprint(List<String> scopes) {
+        CRC32 crc = new CRC32();
+        for (String scope : scopes) {
+            crc.update(scope.getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        return HexFormat.of().toHexDigits((int) crc.getValue());
+    }
+}
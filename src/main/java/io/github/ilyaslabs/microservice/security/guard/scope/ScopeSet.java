@@ -0,0 +1,253 @@
+package io.github.ilyaslabs.microservice.security.guard.scope;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of scopes, held both as Spring authorities and, for scopes known to a {@link ScopeRegistry},
+ * as a compact bitset.
+ * <p>
+ * Membership of registered scopes and {@link #containsAll(ScopeSet) all-of}/{@link #containsAny(ScopeSet) any-of}
+ * checks between sets of the same registry are word operations. Scopes unknown to the registry fall back to
+ * comparing authority names.
+ */
+public final class ScopeSet {
+
+    private static final long[] NO_WORDS = new long[0];
+
+    /**
+     * A scope set without any scope.
+     */
+    public static final ScopeSet EMPTY = new ScopeSet(Collections.emptyList(), null, NO_WORDS, true);
+
+    private final List<SimpleGrantedAuthority> authorities;
+
+    private final ScopeRegistry registry;
+
+    private final long[] words;
+
+    private final boolean fullyIndexed;
+
+    private String headerValue;
+
+    private String compactHeaderValue;
+
+    ScopeSet(List<SimpleGrantedAuthority> authorities, ScopeRegistry registry, long[] words, boolean fullyIndexed) {
+        this.authorities = authorities;
+        this.registry = registry;
+        this.words = words;
+        this.fullyIndexed = fullyIndexed;
+    }
+
+    /**
+     * Wraps authorities into a scope set that is not backed by a registry; all checks compare names.
+     *
+     * @param authorities the authorities
+     * @return a scope set holding the given authorities
+     */
+    public static ScopeSet of(List<SimpleGrantedAuthority> authorities) {
+        return authorities.isEmpty() ? EMPTY : new ScopeSet(authorities, null, NO_WORDS, false);
+    }
+
+    /**
+     * Returns the scopes as Spring authorities.
+     *
+     * @return an unmodifiable list of authorities
+     */
+    public List<SimpleGrantedAuthority> authorities() {
+        return authorities;
+    }
+
+    /**
+     * Returns the registry backing this set.
+     *
+     * @return the registry, or {@code null} if the set is not backed by a registry
+     */
+    public ScopeRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Returns whether every scope of this set is known to its registry, i.e. the bitset alone describes the set.
+     *
+     * @return true if the set is fully described by its bitset
+     */
+    public boolean isFullyIndexed() {
+        return fullyIndexed;
+    }
+
+    /**
+     * Returns the number of scopes in this set.
+     *
+     * @return the number of authorities
+     */
+    public int size() {
+        return authorities.size();
+    }
+
+    /**
+     * Returns the scopes serialized as a space separated {@code X-SCOPES} header value.
+     * The value is computed once per set; since cached sets are shared between requests, propagating the
+     * scopes to downstream calls does not re-join the authority names.
+     *
+     * @return the space separated scope names, empty if the set is empty
+     */
+    public String toHeaderValue() {
+
+        String value = headerValue;
+
+        if (value == null) {
+            StringBuilder builder = new StringBuilder();
+            for (SimpleGrantedAuthority authority : authorities) {
+                if (!builder.isEmpty()) {
+                    builder.append(' ');
+                }
+                builder.append(authority.getAuthority());
+            }
+            // racy single-check: String is immutable, so a concurrent recomputation is harmless
+            value = builder.toString();
+            headerValue = value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the scopes serialized as an {@code X-SCOPES-COMPACT} header value, see {@link ScopeRegistry}. Like
+     * {@link #toHeaderValue()}, the value is computed once per set.
+     *
+     * @return the compact value, or {@code null} if the set has scopes unknown to its registry or no registry
+     */
+    public String toCompactHeaderValue() {
+
+        if (registry == null || !fullyIndexed) {
+            return null;
+        }
+
+        String value = compactHeaderValue;
+
+        if (value == null) {
+            // racy single-check, as for the plain header value
+            value = registry.encodeCompact(words);
+            compactHeaderValue = value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Checks whether the scope with the given registry index is in this set.
+     *
+     * @param index the registry index of the scope
+     * @return true if the scope is present
+     */
+    public boolean contains(int index) {
+        int word = index >>> 6;
+        return index >= 0 && word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Checks whether a scope is in this set.
+     *
+     * @param scope the scope name
+     * @return true if the scope is present
+     */
+    public boolean contains(String scope) {
+
+        if (registry != null) {
+            int index = registry.indexOf(scope);
+            if (index >= 0) {
+                return contains(index);
+            }
+        }
+
+        return containsName(scope);
+    }
+
+    /**
+     * Checks whether this set contains every scope of the other set.
+     *
+     * @param other the required scopes
+     * @return true if all scopes of {@code other} are present
+     */
+    public boolean containsAll(ScopeSet other) {
+
+        if (other.registry == registry && registry != null) {
+            long[] required = other.words;
+            for (int i = 0; i < required.length; i++) {
+                if ((words[i] & required[i]) != required[i]) {
+                    return false;
+                }
+            }
+            if (other.fullyIndexed) {
+                return true;
+            }
+        }
+
+        for (SimpleGrantedAuthority authority : other.authorities) {
+            if (!contains(authority.getAuthority())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether this set contains at least one scope of the other set.
+     *
+     * @param other the candidate scopes
+     * @return true if any scope of {@code other} is present
+     */
+    public boolean containsAny(ScopeSet other) {
+
+        if (other.registry == registry && registry != null) {
+            long[] candidates = other.words;
+            for (int i = 0; i < candidates.length; i++) {
+                if ((words[i] & candidates[i]) != 0) {
+                    return true;
+                }
+            }
+            if (other.fullyIndexed) {
+                return false;
+            }
+        }
+
+        for (SimpleGrantedAuthority authority : other.authorities) {
+            if (contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean containsName(String scope) {
+        for (SimpleGrantedAuthority authority : authorities) {
+            if (authority.getAuthority().equals(scope)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Two scope sets are equal if they hold the same authorities in the same order.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ScopeSet other && authorities.equals(other.authorities));
+    }
+
+    @Override
+    public int hashCode() {
+        return authorities.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return authorities.toString();
+    }
+}
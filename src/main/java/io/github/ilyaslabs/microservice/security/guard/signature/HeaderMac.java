@@ -0,0 +1,254 @@
+package io.github.ilyaslabs.microservice.security.guard.signature;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Computes the HMAC-SHA256 of the security headers of a call, shared by the {@link HeaderSigner} and the
+ * {@link HeaderSignatureVerifier}.
+ * <p>
+ * The signed content is, in this order: the {@code X-USER-ID}, {@code X-SCOPES}, {@code X-SCOPES-COMPACT} and
+ * {@code X-API-GATEWAY} values, followed by the timestamp and the nonce as 8 byte big-endian integers. An absent
+ * header is encoded as the single byte {@code 0}; a present one as the byte {@code 1}, the length of its UTF-8
+ * encoding as a 4 byte big-endian integer and that encoding. An empty header therefore never signs like an absent
+ * one, and no value can spill into the next field.
+ * <p>
+ * {@link Mac#getInstance} looks up the provider and initializing a {@code Mac} derives the key pads, so each thread
+ * keeps its own initialized {@code Mac} along with the buffers of the computation. Virtual threads, which are created
+ * per request, instead borrow from a small pool.
+ */
+final class HeaderMac {
+
+    static final String ALGORITHM = "HmacSHA256";
+
+    static final int SIGNATURE_LENGTH = 32;
+
+    /**
+     * Length of a signature encoded as unpadded base64url.
+     */
+    static final int ENCODED_SIGNATURE_LENGTH = 43;
+
+    private static final int MIN_KEY_LENGTH = 32;
+
+    private static final byte[] BASE64_URL_DECODE = base64UrlDecodeTable();
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<State> states;
+
+    private final AtomicReferenceArray<State> pool;
+
+    HeaderMac(byte[] secret) {
+        if (secret.length < MIN_KEY_LENGTH) {
+            throw new IllegalArgumentException("The header signature secret must be at least " + MIN_KEY_LENGTH + " bytes long");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.states = ThreadLocal.withInitial(this::newState);
+        this.pool = new AtomicReferenceArray<>(Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2);
+        // fail on a missing algorithm at startup rather than on the first request
+        release(newState());
+    }
+
+    /**
+     * Borrows the computation state of the current thread.
+     *
+     * @return the state, to be given back with {@link #release(State)}
+     */
+    State acquire() {
+
+        if (!Thread.currentThread().isVirtual()) {
+            return states.get();
+        }
+
+        int mask = pool.length() - 1;
+        int start = ThreadLocalRandom.current().nextInt();
+        for (int i = 0; i < pool.length(); i++) {
+            State state = pool.getAndSet((start + i) & mask, null);
+            if (state != null) {
+                return state;
+            }
+        }
+
+        return newState();
+    }
+
+    /**
+     * Gives back a state borrowed with {@link #acquire()}.
+     *
+     * @param state the state
+     */
+    void release(State state) {
+
+        if (!Thread.currentThread().isVirtual()) {
+            return;
+        }
+
+        int mask = pool.length() - 1;
+        int start = ThreadLocalRandom.current().nextInt();
+        for (int i = 0; i < pool.length(); i++) {
+            if (pool.compareAndSet((start + i) & mask, null, state)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decodes an unpadded base64url signature without allocating.
+     *
+     * @param encoded the encoded signature
+     * @param out     receives the {@link #SIGNATURE_LENGTH} decoded bytes
+     * @return false if the value is not a well-formed signature
+     */
+    static boolean decodeSignature(String encoded, byte[] out) {
+
+        if (encoded.length() != ENCODED_SIGNATURE_LENGTH) {
+            return false;
+        }
+
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+        for (int i = 0; i < ENCODED_SIGNATURE_LENGTH; i++) {
+            char c = encoded.charAt(i);
+            int value = c < 128 ? BASE64_URL_DECODE[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[written++] = (byte) (bits >>> bitCount);
+            }
+        }
+
+        // the two bits left over must be zero in a canonical encoding
+        return (bits & ((1 << bitCount) - 1)) == 0;
+    }
+
+    private State newState() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return new State(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+
+    private static byte[] base64UrlDecodeTable() {
+        byte[] table = new byte[128];
+        Arrays.fill(table, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            table[alphabet.charAt(i)] = (byte) i;
+        }
+        return table;
+    }
+
+    /**
+     * An initialized {@code Mac} with the buffers of one computation; used by one thread at a time.
+     */
+    static final class State {
+
+        private final Mac mac;
+
+        final byte[] expected = new byte[SIGNATURE_LENGTH];
+
+        final byte[] provided = new byte[SIGNATURE_LENGTH];
+
+        private byte[] buffer = new byte[256];
+
+        private int length;
+
+        private State(Mac mac) {
+            this.mac = mac;
+        }
+
+        /**
+         * Computes the signature of the given values into {@link #expected}.
+         */
+        void compute(String userId, String scopes, String compactScopes, String apiGateway, long timestamp, long nonce) {
+
+            length = 0;
+            appendField(userId);
+            appendField(scopes);
+            appendField(compactScopes);
+            appendField(apiGateway);
+            appendLong(timestamp);
+            appendLong(nonce);
+
+            mac.update(buffer, 0, length);
+            try {
+                mac.doFinal(expected, 0);
+            } catch (GeneralSecurityException e) {
+                // the output buffer always fits the MAC
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void appendField(String value) {
+
+            if (value == null) {
+                appendByte(0);
+                return;
+            }
+
+            appendByte(1);
+            int prefix = length;
+            appendInt(0);
+            appendUtf8(value);
+
+            int encodedLength = length - prefix - Integer.BYTES;
+            for (int i = 0; i < Integer.BYTES; i++) {
+                buffer[prefix + i] = (byte) (encodedLength >>> (24 - 8 * i));
+            }
+        }
+
+        private void appendUtf8(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    appendByte(c);
+                } else if (c < 0x800) {
+                    appendByte(0xC0 | (c >> 6));
+                    appendByte(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    appendByte(0xF0 | (codePoint >> 18));
+                    appendByte(0x80 | ((codePoint >> 12) & 0x3F));
+                    appendByte(0x80 | ((codePoint >> 6) & 0x3F));
+                    appendByte(0x80 | (codePoint & 0x3F));
+                } else {
+                    // lone surrogates are encoded as is; both sides encode them the same way
+                    appendByte(0xE0 | (c >> 12));
+                    appendByte(0x80 | ((c >> 6) & 0x3F));
+                    appendByte(0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private void appendInt(int value) {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                appendByte(value >>> shift);
+            }
+        }
+
+        private void appendLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                appendByte((int) (value >>> shift));
+            }
+        }
+
+        private void appendByte(int value) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[length++] = (byte) value;
+        }
+    }
+}
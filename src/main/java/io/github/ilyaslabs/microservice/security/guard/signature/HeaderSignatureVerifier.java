@@ -0,0 +1,143 @@
+package io.github.ilyaslabs.microservice.security.guard.signature;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.LongSupplier;
+
+/**
+ * Verifies the signature added to the {@link SecurityHeaders} of a call by a {@link HeaderSigner}, so that a caller
+ * able to reach the service but not holding the shared secret cannot forge a user, scopes or the absence of the
+ * {@link SecurityHeaders#X_API_GATEWAY} header.
+ * <p>
+ * A signature is accepted if its timestamp is within the replay window of now, the HMAC matches, and its nonce
+ * was not accepted before, see {@link ReplayNonceSet}. The MAC is computed with a per-thread {@code Mac}, the
+ * signature is decoded into a per-thread buffer and compared in constant time with {@link MessageDigest#isEqual},
+ * so verifying does not allocate. Nonces are recorded only once the MAC matched, so forged requests cannot fill the
+ * nonce set.
+ */
+public class HeaderSignatureVerifier {
+
+    private static final int NONCE_LENGTH = 16;
+
+    private static final int MAX_TIMESTAMP_LENGTH = 18;
+
+    private final HeaderMac headerMac;
+
+    private final ReplayNonceSet nonces;
+
+    private final long replayWindowMillis;
+
+    private final LongSupplier clock;
+
+    /**
+     * Creates a verifier.
+     *
+     * @param secret        the shared secret, at least 32 bytes
+     * @param replayWindow  how far a signature timestamp may be from now, covering clock skew and transit time
+     * @param nonceCapacity the number of nonces remembered per half replay window
+     */
+    public HeaderSignatureVerifier(byte[] secret, Duration replayWindow, int nonceCapacity) {
+        this(secret, replayWindow, nonceCapacity, System::currentTimeMillis);
+    }
+
+    HeaderSignatureVerifier(byte[] secret, Duration replayWindow, int nonceCapacity, LongSupplier clock) {
+        this.headerMac = new HeaderMac(secret);
+        this.nonces = new ReplayNonceSet(replayWindow, nonceCapacity);
+        this.replayWindowMillis = replayWindow.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Verifies the signature of a call.
+     *
+     * @param userId     the {@code X-USER-ID} header, or {@code null}
+     * @param scopes     the {@code X-SCOPES} header, or {@code null}
+     * @param apiGateway the {@code X-API-GATEWAY} header, or {@code null}
+     * @param timestamp  the {@code X-SIGNATURE-TIMESTAMP} header, or {@code null}
+     * @param nonce      the {@code X-SIGNATURE-NONCE} header, or {@code null}
+     * @param signature  the {@code X-SIGNATURE} header, or {@code null}
+     * @return true if the signature is valid and seen for the first time
+     */
+    public boolean verify(String userId, String scopes, String apiGateway, String timestamp, String nonce, String signature) {
+        return verify(userId, scopes, null, apiGateway, timestamp, nonce, signature);
+    }
+
+    /**
+     * Verifies the signature of a call that may carry compact scopes.
+     *
+     * @param userId        the {@code X-USER-ID} header, or {@code null}
+     * @param scopes        the {@code X-SCOPES} header, or {@code null}
+     * @param compactScopes the {@code X-SCOPES-COMPACT} header, or {@code null}
+     * @param apiGateway    the {@code X-API-GATEWAY} header, or {@code null}
+     * @param timestamp     the {@code X-SIGNATURE-TIMESTAMP} header, or {@code null}
+     * @param nonce         the {@code X-SIGNATURE-NONCE} header, or {@code null}
+     * @param signature     the {@code X-SIGNATURE} header, or {@code null}
+     * @return true if the signature is valid and seen for the first time
+     */
+    public boolean verify(String userId, String scopes, String compactScopes, String apiGateway,
+                          String timestamp, String nonce, String signature) {
+
+        if (timestamp == null || nonce == null || signature == null) {
+            return false;
+        }
+
+        long signedAt = parseTimestamp(timestamp);
+        if (signedAt < 0 || Math.abs(clock.getAsLong() - signedAt) > replayWindowMillis) {
+            return false;
+        }
+
+        if (!isNonce(nonce)) {
+            return false;
+        }
+        long nonceValue = HexFormat.fromHexDigitsToLong(nonce);
+
+        HeaderMac.State state = headerMac.acquire();
+        boolean valid;
+        try {
+            if (!HeaderMac.decodeSignature(signature, state.provided)) {
+                return false;
+            }
+            state.compute(userId, scopes, compactScopes, apiGateway, signedAt, nonceValue);
+            valid = MessageDigest.isEqual(state.expected, state.provided);
+        } finally {
+            headerMac.release(state);
+        }
+
+        return valid && nonces.add(signedAt, nonceValue);
+    }
+
+    private static long parseTimestamp(String timestamp) {
+
+        int length = timestamp.length();
+        if (length == 0 || length > MAX_TIMESTAMP_LENGTH) {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = timestamp.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isNonce(String nonce) {
+
+        if (nonce.length() != NONCE_LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < NONCE_LENGTH; i++) {
+            if (!HexFormat.isHexDigit(nonce.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.ilyaslabs.microservice.security.guard.signature;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Signs the {@link SecurityHeaders} of an outgoing call, adding {@link SecurityHeaders#X_SIGNATURE_TIMESTAMP},
+ * {@link SecurityHeaders#X_SIGNATURE_NONCE} and {@link SecurityHeaders#X_SIGNATURE} for the
+ * {@link HeaderSignatureVerifier} of the receiving service.
+ * <p>
+ * The timestamp is in milliseconds since the epoch, the nonce is 16 hex digits and the signature is the unpadded
+ * base64url HMAC-SHA256 over the {@code X-USER-ID}, {@code X-SCOPES}, {@code X-SCOPES-COMPACT} and
+ * {@code X-API-GATEWAY} values, each as a {@code 0} byte when absent or as a {@code 1} byte, the 4 byte big-endian
+ * length and the UTF-8 bytes of the value when present, followed by the timestamp and the nonce as 8 byte big-endian
+ * integers. An API gateway signing its own calls has to produce the same format.
+ */
+public class HeaderSigner {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final HeaderMac headerMac;
+
+    private final LongSupplier clock;
+
+    /**
+     * Creates a signer.
+     *
+     * @param secret the shared secret, at least 32 bytes
+     */
+    public HeaderSigner(byte[] secret) {
+        this(secret, System::currentTimeMillis);
+    }
+
+    HeaderSigner(byte[] secret, LongSupplier clock) {
+        this.headerMac = new HeaderMac(secret);
+        this.clock = clock;
+    }
+
+    /**
+     * Signs the headers of an internal call.
+     *
+     * @param userId       the {@code X-USER-ID} value, or {@code null} if the header is not sent
+     * @param scopes       the {@code X-SCOPES} value, or {@code null} if the header is not sent
+     * @param headerWriter receives each signature header name and value, e.g. {@code headers::set}
+     */
+    public void sign(String userId, String scopes, BiConsumer<String, String> headerWriter) {
+        sign(userId, scopes, null, headerWriter);
+    }
+
+    /**
+     * Signs the headers of a call.
+     *
+     * @param userId       the {@code X-USER-ID} value, or {@code null} if the header is not sent
+     * @param scopes       the {@code X-SCOPES} value, or {@code null} if the header is not sent
+     * @param apiGateway   the {@code X-API-GATEWAY} value, or {@code null} for an internal call
+     * @param headerWriter receives each signature header name and value, e.g. {@code headers::set}
+     */
+    public void sign(String userId, String scopes, String apiGateway, BiConsumer<String, String> headerWriter) {
+        sign(userId, scopes, null, apiGateway, headerWriter);
+    }
+
+    /**
+     * Signs the headers of a call that may carry compact scopes.
+     *
+     * @param userId        the {@code X-USER-ID} value, or {@code null} if the header is not sent
+     * @param scopes        the {@code X-SCOPES} value, or {@code null} if the header is not sent
+     * @param compactScopes the {@code X-SCOPES-COMPACT} value, or {@code null} if the header is not sent
+     * @param apiGateway    the {@code X-API-GATEWAY} value, or {@code null} for an internal call
+     * @param headerWriter  receives each signature header name and value, e.g. {@code headers::set}
+     */
+    public void sign(String userId, String scopes, String compactScopes, String apiGateway, BiConsumer<String, String> headerWriter) {
+
+        long timestamp = clock.getAsLong();
+        long nonce = ThreadLocalRandom.current().nextLong();
+
+        HeaderMac.State state = headerMac.acquire();
+        String signature;
+        try {
+            state.compute(userId, scopes, compactScopes, apiGateway, timestamp, nonce);
+            signature = ENCODER.encodeToString(state.expected);
+        } finally {
+            headerMac.release(state);
+        }
+
+        headerWriter.accept(SecurityHeaders.X_SIGNATURE_TIMESTAMP.getName(), Long.toString(timestamp));
+        headerWriter.accept(SecurityHeaders.X_SIGNATURE_NONCE.getName(), HEX.toHexDigits(nonce));
+        headerWriter.accept(SecurityHeaders.X_SIGNATURE.getName(), signature);
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.ilyaslabs.microservice.security.guard.signature;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers the nonces of signatures seen within the replay window, so that a signed request is accepted once.
+ * <p>
+ * Nonces are kept in time buckets of half the replay window, by the timestamp they were signed with. Each bucket is
+ * a fixed-size open-addressing table within one {@link AtomicLongArray}; a slot holds 47 bits of the hashed nonce
+ * and a 16 bit tag of the bucket's epoch. Entries whose tag is not the current epoch of their bucket are expired and
+ * are overwritten in place, so buckets are recycled as time passes without any clearing pass, and inserts are a
+ * single compare-and-set. Since an accepted timestamp is at most one window away from now, six buckets keep every
+ * nonce until its timestamp leaves the window.
+ * <p>
+ * Memory is fixed at construction. A bucket that is full rejects further nonces of its epoch, failing closed, and two
+ * nonces colliding on all 47 bits are taken as a replay; with random 64 bit nonces either requires far more
+ * requests per window than the capacity allows.
+ */
+final class ReplayNonceSet {
+
+    private static final int BUCKETS = 6;
+
+    private static final long TAG_MASK = 0xFFFFL;
+
+    private static final long NONCE_MASK = 0x7FFF_FFFF_FFFF_0000L;
+
+    private final AtomicLongArray slots;
+
+    private final int capacity;
+
+    private final long bucketMillis;
+
+    /**
+     * Creates a nonce set.
+     *
+     * @param replayWindow      how far a signature timestamp may be from now
+     * @param capacityPerBucket the number of nonces kept per half window, rounded up to a power of two
+     */
+    ReplayNonceSet(Duration replayWindow, int capacityPerBucket) {
+        if (capacityPerBucket <= 0) {
+            throw new IllegalArgumentException("The nonce capacity must be positive");
+        }
+        this.capacity = capacityPerBucket == 1 ? 1 : Integer.highestOneBit(capacityPerBucket - 1) << 1;
+        this.bucketMillis = Math.max(1, replayWindow.toMillis() / 2);
+        this.slots = new AtomicLongArray(BUCKETS * capacity);
+    }
+
+    /**
+     * Records a nonce.
+     *
+     * @param timestamp the signature timestamp in milliseconds, within the replay window
+     * @param nonce     the nonce
+     * @return true if the nonce was not seen before in its bucket, false if it is a replay or the bucket is full
+     */
+    boolean add(long timestamp, long nonce) {
+
+        long epoch = Math.floorDiv(timestamp, bucketMillis);
+        int base = (int) Math.floorMod(epoch, BUCKETS) * capacity;
+        long tag = epoch & TAG_MASK;
+
+        long hash = mix(nonce);
+        long entry = Long.MIN_VALUE | (hash & NONCE_MASK) | tag;
+
+        int mask = capacity - 1;
+        int index = (int) hash & mask;
+        for (int probes = 0; probes < capacity; ) {
+            int slot = base + index;
+            long current = slots.get(slot);
+            if (current != 0 && (current & TAG_MASK) == tag) {
+                if (current == entry) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+                probes++;
+            } else if (slots.compareAndSet(slot, current, entry)) {
+                return true;
+            }
+            // lost a race for the slot; look at it again, the winner may have added the same nonce
+        }
+
+        return false;
+    }
+
+    /**
+     * The murmur3 finalizer, so that sequential nonces spread over the table.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
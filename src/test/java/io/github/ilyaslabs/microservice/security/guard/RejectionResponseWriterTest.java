@@ -0,0 +1,109 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import io.github.ilyaslabs.microservice.exception.HttpResponseException;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that rejections are written from the pre-serialized bodies, byte for byte equal to serializing the
+ * {@link HttpResponseException.ResponseBody} with the MVC message converters.
+ */
+@SpringBootTest(classes = {HttpSecurityTestApplication.class, RejectionResponseWriterTest.Endpoint.class})
+@AutoConfigureMockMvc
+class RejectionResponseWriterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RejectionResponseWriter rejectionResponseWriter;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @RestController
+    public static class Endpoint {
+
+        @Secured
+        @GetMapping("/rejection/secured")
+        public String secured() {
+            return "Secured response";
+        }
+    }
+
+    @Test
+    void testForbiddenBodyIsUnchanged() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rejection/secured").header(SecurityHeaders.X_API_GATEWAY.getName(), "true"))
+                .andExpect(status().isForbidden())
+                .andReturn();
+
+        byte[] expected = serialize(HttpResponseException.ofForbidden("Access Denied").toResponseBody());
+
+        assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(expected);
+        assertThat(result.getResponse().getContentLength()).isEqualTo(expected.length);
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType()).isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+    }
+
+    /**
+     * The 401 is written directly instead of through {@code sendError}, so no error dispatch takes place.
+     */
+    @Test
+    void testUnauthorizedIsWrittenWithoutErrorDispatch() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        rejectionResponseWriter.writeUnauthorized(response);
+
+        byte[] expected = serialize(HttpResponseException.ofUnauthorized("Unauthorized").toResponseBody());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getErrorMessage()).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(expected);
+        assertThat(response.getContentLength()).isEqualTo(expected.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(HttpResponseException.ResponseBody body) throws Exception {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HttpHeaders headers = new HttpHeaders();
+
+        for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+            if (converter.canWrite(body.getClass(), MediaType.APPLICATION_JSON)) {
+                ((HttpMessageConverter<Object>) converter).write(body, MediaType.APPLICATION_JSON, new HttpOutputMessage() {
+                    @Override
+                    public OutputStream getBody() {
+                        return bytes;
+                    }
+
+                    @Override
+                    public HttpHeaders getHeaders() {
+                        return headers;
+                    }
+                });
+                return bytes.toByteArray();
+            }
+        }
+
+        throw new IllegalStateException("No JSON converter");
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScopedAuthenticationContextProviderTest {
+
+    private final ScopedAuthenticationContextProvider provider = new ScopedAuthenticationContextProvider();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * The context bound by the filter is visible for the remainder of the chain and unbound afterwards.
+     */
+    @Test
+    void testContextIsBoundForTheRequest() throws Exception {
+        ObjectId id = new ObjectId();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/context");
+        request.addHeader(SecurityHeaders.X_USER_ID.getName(), id.toHexString());
+
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter();
+        filter.setScopedContext(true);
+
+        AtomicReference<AuthenticationContext> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (_, _) -> {
+            // clear the ThreadLocal holder to prove the scoped value is read
+            SecurityContextHolder.clearContext();
+            seen.set(provider.current());
+        });
+
+        assertThat(seen.get().userId()).isEqualTo(id);
+        assertThat(provider.currentOptional()).isEmpty();
+    }
+
+    /**
+     * Subtasks forked on virtual threads within the request inherit the binding, without any ThreadLocal copy.
+     */
+    @Test
+    void testContextIsInheritedByForkedSubtasks() throws Exception {
+        AuthenticationContext context = new AuthenticationContext(new ObjectId(), List.of(), false);
+
+        AtomicReference<List<AuthenticationContext>> seen = new AtomicReference<>();
+        ScopedAuthenticationContextProvider.runWithContext(context, () -> {
+            try (StructuredTaskScope<AuthenticationContext, Void> scope = StructuredTaskScope.open()) {
+                Subtask<AuthenticationContext> first = scope.fork(provider::current);
+                Subtask<AuthenticationContext> second = scope.fork(provider::current);
+                scope.join();
+                seen.set(List.of(first.get(), second.get()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(seen.get()).containsExactly(context, context);
+        assertThat(provider.currentOptional()).isEmpty();
+    }
+}
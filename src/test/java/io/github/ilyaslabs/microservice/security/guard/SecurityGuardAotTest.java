@@ -0,0 +1,111 @@
+package io.github.ilyaslabs.microservice.security.guard;
+
+import io.github.ilyaslabs.microservice.security.guard.annotation.RequireScopes;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.ExecutableHint;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeHint;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.aot.test.generate.TestGenerationContext;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.test.tools.CompileWithForkedClassLoader;
+import org.springframework.core.test.tools.TestCompiler;
+import org.springframework.javapoet.ClassName;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Processes the servlet auto-configuration ahead of time, then starts a context from the generated code only.
+ */
+@CompileWithForkedClassLoader
+class SecurityGuardAotTest {
+
+    /**
+     * Bean definitions of the guard are instantiated by generated code, without falling back to reflection.
+     */
+    @Test
+    void testAotContextStartsWithoutReflection() {
+        GenericWebApplicationContext context = new GenericWebApplicationContext(new MockServletContext());
+        AnnotationConfigUtils.registerAnnotationConfigProcessors(context);
+        context.registerBean(SecurityGuardAutoConfiguration.class);
+
+        TestGenerationContext generationContext = new TestGenerationContext();
+        ClassName initializerClassName = new ApplicationContextAotGenerator().processAheadOfTime(context, generationContext);
+        generationContext.writeGeneratedContent();
+
+        RuntimeHints hints = generationContext.getRuntimeHints();
+
+        for (Class<?> configuration : List.of(HttpSecurityConfigurer.class, SecurityGuardConfiguration.class,
+                SecurityGuardDefaultsConfiguration.class)) {
+            TypeHint typeHint = hints.reflection().getTypeHint(configuration);
+            if (typeHint != null) {
+                assertThat(typeHint.methods().filter(method -> method.getMode() == ExecutableMode.INVOKE).map(ExecutableHint::getName))
+                        .as("factory methods of %s invoked reflectively", configuration.getSimpleName())
+                        .isEmpty();
+            }
+        }
+
+        TestCompiler.forSystem().with(generationContext).compile(compiled -> {
+            try (GenericWebApplicationContext aotContext = new GenericWebApplicationContext(new MockServletContext())) {
+                @SuppressWarnings("unchecked")
+                ApplicationContextInitializer<GenericApplicationContext> initializer =
+                        compiled.getInstance(ApplicationContextInitializer.class, initializerClassName.toString());
+                initializer.initialize(aotContext);
+                aotContext.refresh();
+
+                assertThat(aotContext.getBeanNamesForType(CustomAuthenticationWebFilter.class)).hasSize(1);
+                assertThat(aotContext.getBeanNamesForType(UserDetailsService.class)).hasSize(1);
+            }
+        });
+    }
+
+    /**
+     * The hints cover what is reached reflectively at runtime: the method the expression of {@link Secured} invokes,
+     * the synthesized {@link RequireScopes} proxy, the accessors of the principal and the filter's bean properties.
+     */
+    @Test
+    void testRuntimeHintsCoverReflectiveUses() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new SecurityGuardRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        String expression = MergedAnnotations.from(Secured.class).get(PreAuthorize.class).getString("value");
+        Matcher invocation = Pattern.compile("@(\\w+)\\.(\\w+)\\(").matcher(expression);
+        assertThat(invocation.find()).as("bean method invoked by %s", expression).isTrue();
+        assertThat(invocation.group(1)).isEqualTo("secureCallEvaluator");
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(SecureCallEvaluator.class, invocation.group(2))).accepts(hints);
+
+        RequireScopes requireScopes = MergedAnnotations.from(Annotated.class.getDeclaredMethod("orders"))
+                .get(RequireScopes.class).synthesize();
+        assertThat(Proxy.isProxyClass(requireScopes.getClass())).isTrue();
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(requireScopes.getClass().getInterfaces())).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(RequireScopes.class, "allOf")).accepts(hints);
+
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(AuthenticationContext.class, "userId")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(AuthenticationContext.class, "authorities")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(CustomAuthenticationWebFilter.class, "setLazyContext")).accepts(hints);
+    }
+
+    static class Annotated {
+
+        @RequireScopes("orders:read")
+        void orders() {
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.ilyaslabs.microservice.security.guard.audit;
+
+import io.github.ilyaslabs.microservice.security.guard.HttpSecurityTestApplication;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Allowed calls to {@code @Secured} handlers are audited in the default expression mode, not only in compiled mode.
+ */
+@SpringBootTest(
+        classes = {HttpSecurityTestApplication.class, ExpressionModeAuditTest.Endpoint.class},
+        properties = {
+                "microservice.security.guard.audit.enabled=true",
+                "microservice.security.guard.audit.include-allowed=true",
+                "microservice.security.guard.audit.file=target/audit/expression-mode.log"
+        }
+)
+@AutoConfigureMockMvc
+class ExpressionModeAuditTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RingBufferSecurityAuditLog auditLog;
+
+    @RestController
+    public static class Endpoint {
+
+        @Secured
+        @GetMapping("/audit/secured")
+        public String secured() {
+            return "OK";
+        }
+    }
+
+    @Test
+    void testAllowedCallIsAudited() throws Exception {
+        ObjectId userId = new ObjectId();
+
+        mockMvc.perform(get("/audit/secured").header(SecurityHeaders.X_USER_ID.getName(), userId.toHexString()))
+                .andExpect(status().isOk());
+
+        auditLog.close();
+
+        assertThat(Files.readAllLines(Path.of("target/audit/expression-mode.log")))
+                .anyMatch(line -> line.contains("\tALLOW\t" + userId.toHexString() + "\tinternal\t")
+                        && line.contains(Endpoint.class.getName() + "#secured"));
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.ilyaslabs.microservice.security.guard.audit;
+
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferSecurityAuditLogTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Decisions are written as tab separated lines once the writer has drained the buffer.
+     */
+    @Test
+    void testDecisionsAreWritten() throws Exception {
+        Path file = directory.resolve("audit/security.log");
+        RingBufferSecurityAuditLog auditLog = auditLog(file, 16, true);
+        ObjectId userId = new ObjectId();
+        Method handler = RingBufferSecurityAuditLogTest.class.getDeclaredMethod("testDecisionsAreWritten");
+
+        auditLog.start();
+        auditLog.recordDenied(new AuthenticationContext(userId, List.of(), true), handler, "Access Denied");
+        auditLog.recordAllowed(new AuthenticationContext(userId, List.of(), false), handler);
+        auditLog.recordDenied(null, null, "forged\nline");
+        auditLog.close();
+
+        String handlerName = RingBufferSecurityAuditLogTest.class.getName() + "#testDecisionsAreWritten";
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "2026-01-01T00:00:00Z\tDENY\t" + userId.toHexString() + "\tgateway\t" + handlerName + "\tAccess Denied",
+                "2026-01-01T00:00:00Z\tALLOW\t" + userId.toHexString() + "\tinternal\t" + handlerName + "\t-",
+                "2026-01-01T00:00:00Z\tDENY\t-\tinternal\t-\tforged line"
+        );
+    }
+
+    @Test
+    void testAllowedCallsAreSkippedUnlessIncluded() throws Exception {
+        Path file = directory.resolve("security.log");
+        RingBufferSecurityAuditLog auditLog = auditLog(file, 16, false);
+
+        auditLog.start();
+        auditLog.recordAllowed(null, null);
+        auditLog.recordDenied(null, null, "Access Denied");
+        auditLog.close();
+
+        assertThat(Files.readAllLines(file)).hasSize(1).allMatch(line -> line.contains("\tDENY\t"));
+    }
+
+    /**
+     * A full buffer drops decisions instead of blocking, and the writer reports how many were dropped.
+     */
+    @Test
+    void testFullBufferDropsAndCounts() throws Exception {
+        Path file = directory.resolve("security.log");
+        RingBufferSecurityAuditLog auditLog = auditLog(file, 4, false);
+
+        for (int i = 0; i < 10; i++) {
+            auditLog.recordDenied(null, null, "denied-" + i);
+        }
+
+        assertThat(auditLog.dropped()).isEqualTo(6);
+
+        auditLog.start();
+        auditLog.close();
+
+        assertThat(Files.readAllLines(file))
+                .contains("2026-01-01T00:00:00Z\tDROPPED\t6")
+                .filteredOn(line -> line.contains("\tDENY\t"))
+                .hasSize(4);
+    }
+
+    /**
+     * While the file cannot be written, decisions fail over to the application log and the failure is visible; the
+     * file is written again once it can be opened.
+     */
+    @Test
+    void testWriteFailureFailsOverAndRecovers() throws Exception {
+        Path file = Files.createDirectory(directory.resolve("security.log"));
+        RingBufferSecurityAuditLog auditLog = auditLog(file, 16, false);
+
+        auditLog.start();
+        auditLog.recordDenied(null, null, "while failing");
+        awaitUntil(() -> auditLog.writeFailures() > 0);
+        assertThat(auditLog.isWriting()).isFalse();
+
+        Files.delete(file);
+        awaitUntil(auditLog::isWriting);
+        auditLog.recordDenied(null, null, "after recovery");
+        auditLog.close();
+
+        assertThat(Files.readAllLines(file)).hasSize(1).allMatch(line -> line.endsWith("\tafter recovery"));
+    }
+
+    /**
+     * Concurrent producers lose no decision while the buffer has room.
+     */
+    @Test
+    void testConcurrentProducers() throws Exception {
+        Path file = directory.resolve("security.log");
+        RingBufferSecurityAuditLog auditLog = auditLog(file, 1 << 14, false);
+        auditLog.start();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        auditLog.recordDenied(null, null, "Access Denied");
+                    }
+                });
+            }
+        }
+
+        auditLog.close();
+
+        assertThat(auditLog.dropped()).isZero();
+        assertThat(Files.readAllLines(file)).hasSize(8000);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static RingBufferSecurityAuditLog auditLog(Path file, int capacity, boolean includeAllowed) {
+        return new RingBufferSecurityAuditLog(file, capacity, 64, Duration.ofMillis(5), includeAllowed, CLOCK);
+    }
+}
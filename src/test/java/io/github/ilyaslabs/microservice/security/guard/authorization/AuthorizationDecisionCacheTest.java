@@ -0,0 +1,144 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.annotation.RequireScopes;
+import io.github.ilyaslabs.microservice.security.guard.audit.SecurityAuditLog;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class AuthorizationDecisionCacheTest {
+
+    private final AuthenticationContextResolver resolver = new AuthenticationContextResolver(new ScopeAuthorityCache(16, 64));
+
+    private final AuthorizationDecisionCache cache = new AuthorizationDecisionCache(16);
+
+    private final ScopeRegistry registry = ScopeRegistry.of(List.of("orders:read", "orders:admin"));
+
+    private final ScopeRequirement internalOnly = ScopeRequirement.of(List.of(), List.of(), true, registry);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Callers presenting the same interned scopes share the decision, whatever their user id.
+     */
+    @Test
+    void testDecisionsAreSharedByScopeSet() {
+        assertThat(cache.isAllowed(internalOnly, authentication("read write", null))).isTrue();
+        assertThat(cache.isAllowed(internalOnly, authentication("read write", null))).isTrue();
+        assertThat(cache.isAllowed(internalOnly, authentication("read write", "true"))).isFalse();
+        assertThat(cache.isAllowed(internalOnly, authentication("read write", "true"))).isFalse();
+        assertThat(cache.isAllowed(internalOnly, authentication("read", null))).isTrue();
+
+        assertThat(cache.stats().misses()).isEqualTo(3);
+        assertThat(cache.stats().hits()).isEqualTo(2);
+        assertThat(cache.stats().hitRatio()).isEqualTo(0.4);
+    }
+
+    @Test
+    void testInvalidateAllReevaluates() {
+        cache.isAllowed(internalOnly, authentication("read", null));
+        cache.invalidateAll();
+        cache.isAllowed(internalOnly, authentication("read", null));
+
+        assertThat(cache.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void testForeignAuthenticationsAreNotCached() {
+        Authentication foreign = new TestingAuthenticationToken("user", null);
+
+        assertThat(cache.isAllowed(internalOnly, foreign)).isFalse();
+        assertThat(cache.isAllowed(internalOnly, null)).isFalse();
+
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    /**
+     * Custom evaluators are cached per rule instance, and distinct rules never share a decision.
+     */
+    @Test
+    void testCustomEvaluatorsAreCachedPerRule() {
+        Object readRule = new Object();
+        Object adminRule = new Object();
+        AtomicInteger evaluations = new AtomicInteger();
+        Predicate<Authentication> evaluator = authentication -> {
+            evaluations.incrementAndGet();
+            return authentication.getAuthorities().stream().anyMatch(authority -> authority.getAuthority().equals("read"));
+        };
+
+        assertThat(cache.isAllowed(readRule, authentication("read", null), evaluator)).isTrue();
+        assertThat(cache.isAllowed(readRule, authentication("read", null), evaluator)).isTrue();
+        assertThat(cache.isAllowed(adminRule, authentication("read", null), _ -> false)).isFalse();
+
+        assertThat(evaluations).hasValue(1);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    /**
+     * Subclasses inheriting the same method under different class-level annotations never share a decision.
+     */
+    @Test
+    void testInheritedMethodIsDecidedPerClass() {
+        RequireScopesAdvisor advisor = new RequireScopesAdvisor(() -> registry, () -> cache, () -> SecurityAuditLog.NOOP);
+
+        Orders orders = proxy(new ReadOrders(), advisor);
+        Orders administration = proxy(new AdministerOrders(), advisor);
+
+        SecurityContextHolder.getContext().setAuthentication(authentication("orders:read", null));
+
+        assertThat(orders.list()).isEqualTo("OK");
+        assertThatExceptionOfType(AccessDeniedException.class).isThrownBy(administration::list);
+        assertThat(orders.list()).isEqualTo("OK");
+
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    private Authentication authentication(String scopes, String apiGateway) {
+        AuthenticationContext context = resolver.resolve(new ObjectId().toHexString(), scopes, apiGateway);
+        return new UsernamePasswordAuthenticationToken(context, null, context.authorities());
+    }
+
+    private static Orders proxy(Orders target, RequireScopesAdvisor advisor) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(advisor);
+        return (Orders) factory.getProxy();
+    }
+
+    public static class Orders {
+
+        public String list() {
+            return "OK";
+        }
+    }
+
+    @RequireScopes("orders:read")
+    public static class ReadOrders extends Orders {
+    }
+
+    @RequireScopes("orders:admin")
+    public static class AdministerOrders extends Orders {
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.HttpSecurityTestApplication;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the {@code @Secured} scenarios with {@code microservice.security.guard.secured.mode=compiled}.
+ */
+@SpringBootTest(
+        classes = {HttpSecurityTestApplication.class, CompiledSecuredAnnotationTest.Endpoint.class},
+        properties = "microservice.security.guard.secured.mode=compiled"
+)
+@AutoConfigureMockMvc
+class CompiledSecuredAnnotationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @RestController
+    public static class Endpoint {
+
+        @Secured
+        @GetMapping("/secured")
+        public String securedMethod() {
+            return "Secured response";
+        }
+
+        @PreAuthorize("hasAuthority('admin')")
+        @GetMapping("/admin")
+        public String admin() {
+            return "OK";
+        }
+    }
+
+    @Test
+    void testCompiledAdvisorIsInstalled() {
+        assertThat(applicationContext.getBean(CompiledSecuredPostProcessor.PRE_AUTHORIZE_ADVISOR_BEAN_NAME))
+                .isInstanceOf(CompiledSecuredAdvisor.class);
+    }
+
+    @Test
+    void testIfSecuredEndpointsAreNotAccessibleFromOutside() throws Exception {
+        mockMvc.perform(get("/secured")
+                        .header(SecurityHeaders.X_API_GATEWAY.getName(), "true"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testIfSecuredEndpointsAreAccessibleFromInside() throws Exception {
+        mockMvc.perform(get("/secured"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Plain {@code @PreAuthorize} expressions must still be evaluated by the delegate advisor.
+     */
+    @Test
+    void testPreAuthorizeExpressionsAreStillEvaluated() throws Exception {
+        mockMvc.perform(get("/admin"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/admin")
+                        .header(SecurityHeaders.X_SCOPES.getName(), "admin"))
+                .andExpect(status().isOk());
+    }
+}
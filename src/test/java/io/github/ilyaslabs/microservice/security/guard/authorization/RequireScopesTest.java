@@ -0,0 +1,135 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.HttpSecurityTestApplication;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.annotation.RequireScopes;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(
+        classes = {HttpSecurityTestApplication.class, RequireScopesTest.Endpoint.class, RequireScopesTest.ClassLevelEndpoint.class},
+        properties = "microservice.security.guard.scope-registry.scopes=orders:read,orders:write,orders:admin,support"
+)
+@AutoConfigureMockMvc
+class RequireScopesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequireScopesAdvisor requireScopesAdvisor;
+
+    @RestController
+    public static class Endpoint {
+
+        @RequireScopes({"orders:read", "orders:write"})
+        @GetMapping("/scopes/all-of")
+        public String allOf() {
+            return "OK";
+        }
+
+        @RequireScopes(anyOf = {"orders:admin", "support"})
+        @GetMapping("/scopes/any-of")
+        public String anyOf() {
+            return "OK";
+        }
+
+        @RequireScopes(allOf = "orders:read", anyOf = {"orders:admin", "support"}, internalOnly = true)
+        @GetMapping("/scopes/combined")
+        public String combined() {
+            return "OK";
+        }
+
+        @RequireScopes("unregistered")
+        @GetMapping("/scopes/unregistered")
+        public String unregistered() {
+            return "OK";
+        }
+    }
+
+    @RestController
+    @RequireScopes(internalOnly = true)
+    public static class ClassLevelEndpoint {
+
+        @GetMapping("/scopes/class-level")
+        public String classLevel() {
+            return "OK";
+        }
+
+        @RequireScopes("orders:read")
+        @GetMapping("/scopes/method-level")
+        public String methodLevel() {
+            return "OK";
+        }
+    }
+
+    @Test
+    void testAllOf() throws Exception {
+        mockMvc.perform(call("/scopes/all-of", "orders:read orders:write", false)).andExpect(status().isOk());
+        mockMvc.perform(call("/scopes/all-of", "orders:read", false)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/scopes/all-of")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testAnyOf() throws Exception {
+        mockMvc.perform(call("/scopes/any-of", "support", true)).andExpect(status().isOk());
+        mockMvc.perform(call("/scopes/any-of", "orders:read", false)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testCombined() throws Exception {
+        mockMvc.perform(call("/scopes/combined", "orders:read orders:admin", false)).andExpect(status().isOk());
+        mockMvc.perform(call("/scopes/combined", "orders:read orders:admin", true)).andExpect(status().isForbidden());
+        mockMvc.perform(call("/scopes/combined", "orders:admin", false)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testUnregisteredScopesAreComparedByName() throws Exception {
+        mockMvc.perform(call("/scopes/unregistered", "unregistered", false)).andExpect(status().isOk());
+        mockMvc.perform(call("/scopes/unregistered", "orders:read", false)).andExpect(status().isForbidden());
+    }
+
+    /**
+     * A method-level annotation replaces the one on its class.
+     */
+    @Test
+    void testClassLevelAnnotation() throws Exception {
+        mockMvc.perform(call("/scopes/class-level", null, false)).andExpect(status().isOk());
+        mockMvc.perform(call("/scopes/class-level", null, true)).andExpect(status().isForbidden());
+        mockMvc.perform(call("/scopes/method-level", "orders:read", true)).andExpect(status().isOk());
+    }
+
+    /**
+     * Requirements are compiled at startup into masks over the scope registry.
+     */
+    @Test
+    void testRequirementsAreCompiledAtStartup(@Autowired ScopeRegistry scopeRegistry) throws Exception {
+        ScopeRequirement requirement = requireScopesAdvisor.requirement(Endpoint.class.getMethod("allOf"), Endpoint.class);
+
+        assertThat(requirement.isFullyIndexed()).isTrue();
+        assertThat(requirement.allOf().registry()).isSameAs(scopeRegistry);
+        assertThat(requirement.allOf().size()).isEqualTo(2);
+    }
+
+    private static MockHttpServletRequestBuilder call(String path, String scopes, boolean gatewayCall) {
+        MockHttpServletRequestBuilder request = get(path);
+        if (scopes != null) {
+            request.header(SecurityHeaders.X_SCOPES.getName(), scopes);
+        }
+        if (gatewayCall) {
+            request.header(SecurityHeaders.X_API_GATEWAY.getName(), "true");
+        }
+        return request;
+    }
+}
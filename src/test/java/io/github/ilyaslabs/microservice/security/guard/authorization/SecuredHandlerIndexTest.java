@@ -0,0 +1,162 @@
+package io.github.ilyaslabs.microservice.security.guard.authorization;
+
+import io.github.ilyaslabs.microservice.security.guard.HttpSecurityTestApplication;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that external calls to {@link Secured} handlers are rejected before dispatch, with the same response as
+ * the method-level check.
+ */
+@SpringBootTest(classes = {
+        HttpSecurityTestApplication.class,
+        SecuredHandlerIndexTest.Endpoint.class,
+        SecuredHandlerIndexTest.SecuredService.class,
+        SecuredHandlerIndexTest.DispatchCounter.class
+})
+@AutoConfigureMockMvc
+class SecuredHandlerIndexTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SecuredHandlerIndex securedHandlerIndex;
+
+    @RestController
+    public static class Endpoint {
+
+        private final SecuredService securedService;
+
+        public Endpoint(SecuredService securedService) {
+            this.securedService = securedService;
+        }
+
+        @Secured
+        @GetMapping("/early/secured")
+        public String secured() {
+            return "Secured response";
+        }
+
+        @GetMapping("/early/indirect")
+        public String indirect() {
+            return securedService.call();
+        }
+
+        @GetMapping("/early/open")
+        public String open() {
+            return "Open response";
+        }
+    }
+
+    @Service
+    public static class SecuredService {
+
+        @Secured
+        public String call() {
+            return "Secured service response";
+        }
+    }
+
+    @Configuration
+    public static class DispatchCounter implements WebMvcConfigurer {
+
+        static final AtomicInteger DISPATCHED = new AtomicInteger();
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new HandlerInterceptor() {
+                @Override
+                public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                    DISPATCHED.incrementAndGet();
+                    return true;
+                }
+            });
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        DispatchCounter.DISPATCHED.set(0);
+    }
+
+    @Test
+    void testSecuredHandlersAreIndexed() throws Exception {
+        assertThat(securedHandlerIndex.isSecured(new HandlerMethod(
+                new Endpoint(null), Endpoint.class.getMethod("secured")))).isTrue();
+        assertThat(securedHandlerIndex.isSecured(new HandlerMethod(
+                new Endpoint(null), Endpoint.class.getMethod("open")))).isFalse();
+    }
+
+    /**
+     * Only requests whose method and decoded path may map to a {@link Secured} handler need the handler lookup.
+     */
+    @Test
+    void testOnlySecuredPathsAreLookedUp() {
+        assertThat(securedHandlerIndex.maybeSecured(new MockHttpServletRequest("GET", "/early/secured"))).isTrue();
+        assertThat(securedHandlerIndex.maybeSecured(new MockHttpServletRequest("HEAD", "/early/secured"))).isTrue();
+        assertThat(securedHandlerIndex.maybeSecured(new MockHttpServletRequest("GET", "/early/%73ecured"))).isTrue();
+        assertThat(securedHandlerIndex.maybeSecured(new MockHttpServletRequest("POST", "/early/secured"))).isFalse();
+        assertThat(securedHandlerIndex.maybeSecured(new MockHttpServletRequest("GET", "/early/open"))).isFalse();
+    }
+
+    @Test
+    void testMappingPatternsAreWidenedToSegments() {
+        assertThat(SecuredHandlerIndex.candidatePattern("/orders/{id}/items")).isEqualTo("/orders/*/items");
+        assertThat(SecuredHandlerIndex.candidatePattern("/files/{*path}")).isEqualTo("/files/**");
+        assertThat(SecuredHandlerIndex.candidatePattern("/static/**")).isEqualTo("/static/**");
+        assertThat(SecuredHandlerIndex.candidatePattern("/report-?.csv")).isEqualTo("/*");
+        assertThat(SecuredHandlerIndex.candidatePattern("")).isEqualTo("/");
+    }
+
+    /**
+     * The external call is rejected without reaching the handler stack, and the body matches a rejection by the
+     * method-level check.
+     */
+    @Test
+    void testExternalCallIsRejectedBeforeDispatch() throws Exception {
+        String early = mockMvc.perform(get("/early/secured").header(SecurityHeaders.X_API_GATEWAY.getName(), "true"))
+                .andExpect(status().isForbidden())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(DispatchCounter.DISPATCHED).hasValue(0);
+
+        String methodLevel = mockMvc.perform(get("/early/indirect").header(SecurityHeaders.X_API_GATEWAY.getName(), "true"))
+                .andExpect(status().isForbidden())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(DispatchCounter.DISPATCHED).hasValue(1);
+        assertThat(early).isNotEmpty().isEqualTo(methodLevel);
+    }
+
+    @Test
+    void testInternalAndOpenCallsAreDispatched() throws Exception {
+        mockMvc.perform(get("/early/secured")).andExpect(status().isOk());
+        mockMvc.perform(get("/early/open").header(SecurityHeaders.X_API_GATEWAY.getName(), "true")).andExpect(status().isOk());
+
+        assertThat(DispatchCounter.DISPATCHED).hasValue(2);
+    }
+}
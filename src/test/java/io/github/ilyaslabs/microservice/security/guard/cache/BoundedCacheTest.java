@@ -0,0 +1,61 @@
+package io.github.ilyaslabs.microservice.security.guard.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+    @Test
+    void testReferencedEntriesSurviveAFloodOfKeys() {
+        BoundedCache<String, String> cache = new BoundedCache<>(3);
+
+        cache.put("hot", "hot");
+        cache.put("a", "a");
+        cache.put("b", "b");
+        cache.getIfPresent("hot");
+        cache.put("c", "c");
+        cache.put("d", "d");
+
+        assertThat(cache.getIfPresent("hot")).isEqualTo("hot");
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.stats().evictions()).isEqualTo(2);
+    }
+
+    /**
+     * The slot left behind by an invalidated entry never evicts the entry cached again under the same key.
+     */
+    @Test
+    void testStaleSlotDoesNotEvictReadmittedKey() {
+        BoundedCache<String, String> cache = new BoundedCache<>(3);
+
+        cache.put("a", "a1");
+        cache.put("b", "b");
+        cache.invalidate("a");
+        cache.put("a", "a2");
+
+        cache.getIfPresent("a");
+        cache.put("c", "c");
+        cache.getIfPresent("a");
+        cache.put("d", "d");
+
+        assertThat(cache.getIfPresent("a")).isEqualTo("a2");
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void testPutReplacesValueInPlace() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2);
+
+        cache.put("a", "a1");
+        cache.put("a", "a2");
+        cache.put("b", "b");
+        cache.put("c", "c");
+        cache.put("d", "d");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getIfPresent("d")).isEqualTo("d");
+    }
+}
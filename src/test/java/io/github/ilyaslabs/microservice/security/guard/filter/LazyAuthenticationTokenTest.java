@@ -0,0 +1,104 @@
+package io.github.ilyaslabs.microservice.security.guard.filter;
+
+import io.github.ilyaslabs.microservice.security.guard.SecureCallEvaluator;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.SpringAuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.metrics.SecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyAuthenticationTokenTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * The filter sets a lazy token whose headers are not parsed unless the context is read.
+     */
+    @Test
+    void testHeadersAreParsedOnFirstAccess() throws Exception {
+        ObjectId id = new ObjectId();
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter();
+        filter.setLazyContext(true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/lazy");
+        request.addHeader(SecurityHeaders.X_USER_ID.getName(), id.toHexString());
+        request.addHeader(SecurityHeaders.X_SCOPES.getName(), "read write");
+
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (_, _) -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+
+        LazyAuthenticationToken token = (LazyAuthenticationToken) seen.get();
+        assertThat(token.isAuthenticated()).isTrue();
+        assertThat(token.isGatewayCall()).isFalse();
+        assertThat(token.isResolved()).isFalse();
+
+        AuthenticationContext context = new SpringAuthenticationContextProvider().current();
+
+        assertThat(token.isResolved()).isTrue();
+        assertThat(context.userId()).isEqualTo(id);
+        assertThat(token.getAuthorities()).containsExactly(new SimpleGrantedAuthority("read"), new SimpleGrantedAuthority("write"));
+        assertThat(token.getPrincipal()).isSameAs(context);
+    }
+
+    /**
+     * The evaluator decides from the gateway header and leaves the context unbuilt.
+     */
+    @Test
+    void testSecureCallEvaluatorReadsLazyToken() {
+        AuthenticationContextResolver resolver = new AuthenticationContextResolver();
+        SecureCallEvaluator evaluator = new SecureCallEvaluator();
+
+        LazyAuthenticationToken internal = new LazyAuthenticationToken(resolver, SecurityGuardMetrics.NOOP, new ObjectId().toHexString(), null, null);
+        LazyAuthenticationToken gateway = new LazyAuthenticationToken(resolver, SecurityGuardMetrics.NOOP, new ObjectId().toHexString(), null, "true");
+
+        assertThat(evaluator.isAllowed(internal)).isTrue();
+        assertThat(evaluator.isAllowed(gateway)).isFalse();
+        assertThat(gateway.isGatewayCall()).isTrue();
+        assertThat(internal.isResolved()).isFalse();
+        assertThat(gateway.isResolved()).isFalse();
+    }
+
+    /**
+     * A serialized token keeps its header values and builds the context again once deserialized.
+     */
+    @Test
+    void testTokenIsSerializable() throws Exception {
+        ObjectId id = new ObjectId();
+        LazyAuthenticationToken token = new LazyAuthenticationToken(new AuthenticationContextResolver(), SecurityGuardMetrics.NOOP,
+                id.toHexString(), "read", "true");
+        token.authenticationContext();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(token);
+        }
+
+        LazyAuthenticationToken copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (LazyAuthenticationToken) in.readObject();
+        }
+
+        assertThat(copy.isResolved()).isFalse();
+        assertThat(copy.isGatewayCall()).isTrue();
+        assertThat(copy.authenticationContext().userId()).isEqualTo(id);
+        assertThat(copy.getAuthorities()).containsExactly(new SimpleGrantedAuthority("read"));
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.ilyaslabs.microservice.security.guard.filter;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import jakarta.servlet.FilterChain;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+/**
+ * Verifies that {@link SecurityHeaderParser} behaves exactly like the original Optional/stream based parsing
+ * and that it, and the filter path using it, stay close to allocation free.
+ */
+class SecurityHeaderParserTest {
+
+    private static final String[] USER_IDS = {
+            null, "", "not-an-id", new ObjectId().toHexString(), "65F1A2B3C4D5E6F708192A3B",
+            "65f1a2b3c4d5e6f708192a3", "65f1a2b3c4d5e6f708192a3bc", "65f1a2b3c4d5e6f708192a3g", " 5f1a2b3c4d5e6f708192a3b"
+    };
+
+    private static final String[] SCOPES = {
+            null, "", " ", "   ", "read", "read write", " read  write ", "read\twrite", "\t read", "read read",
+            "a b c d e f g h i j", "    admin"
+    };
+
+    private static final FilterChain NO_OP_CHAIN = (_, _) -> {
+    };
+
+    private static volatile Object sink;
+
+    /**
+     * The parsed user id must match {@code ObjectId.isValid} followed by {@code new ObjectId(String)}.
+     */
+    @Test
+    void testUserIdMatchesObjectIdParsing() {
+        for (String value : USER_IDS) {
+            ObjectId expected = Optional.ofNullable(value)
+                    .filter(ObjectId::isValid)
+                    .map(ObjectId::new)
+                    .orElse(null);
+
+            assertThat(SecurityHeaderParser.parseUserId(value)).as(value).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * The parsed scopes must match {@code split(" ")} followed by a {@code hasText} filter.
+     */
+    @Test
+    void testScopesMatchSplitParsing() {
+        for (String value : SCOPES) {
+            List<SimpleGrantedAuthority> expected = Optional.ofNullable(value)
+                    .map(scopes -> Arrays.stream(scopes.split(" "))).orElse(Stream.of(""))
+                    .filter(StringUtils::hasText)
+                    .map(SimpleGrantedAuthority::new)
+                    .toList();
+
+            assertThat(SecurityHeaderParser.parseScopes(value)).as(value).containsExactlyElementsOf(expected);
+        }
+    }
+
+    /**
+     * Parsing a typical header set must only allocate the resulting objects: the id, its bytes,
+     * the authorities and their backing list.
+     */
+    @Test
+    void testParsingIsNearlyAllocationFree() throws Exception {
+
+        String userId = new ObjectId().toHexString();
+        String scopes = "read write";
+
+        long perRequest = allocatedBytesPerIteration(() -> {
+            sink = SecurityHeaderParser.parseUserId(userId);
+            sink = SecurityHeaderParser.parseScopes(scopes);
+        });
+
+        assertThat(perRequest).isLessThanOrEqualTo(384);
+    }
+
+    /**
+     * A request through {@code doFilterInternal} must only allocate the context, the authentication token and the
+     * security context around the parsed headers; the scopes are interned by the cache. The bound includes the
+     * lower-casing of header names done by the mock request on every lookup.
+     */
+    @Test
+    void testFilterIsNearlyAllocationFree() throws Exception {
+
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter(new ScopeAuthorityCache(16, 64));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/resource");
+        request.addHeader(SecurityHeaders.X_USER_ID.getName(), new ObjectId().toHexString());
+        request.addHeader(SecurityHeaders.X_SCOPES.getName(), "read write");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        long perRequest = allocatedBytesPerIteration(() -> {
+            SecurityContextHolder.clearContext();
+            filter.doFilterInternal(request, response, NO_OP_CHAIN);
+        });
+        SecurityContextHolder.clearContext();
+
+        assertThat(perRequest).isLessThanOrEqualTo(1024);
+    }
+
+    private static long allocatedBytesPerIteration(Iteration iteration) throws Exception {
+
+        assumeThat(ManagementFactory.getThreadMXBean()).isInstanceOf(com.sun.management.ThreadMXBean.class);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeThat(threadMXBean.isThreadAllocatedMemorySupported()).isTrue();
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        int iterations = 100_000;
+
+        // warm up so that the measured loop runs compiled code
+        for (int i = 0; i < iterations; i++) {
+            iteration.run();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            iteration.run();
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - before) / iterations;
+    }
+
+    @FunctionalInterface
+    private interface Iteration {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.ilyaslabs.microservice.security.guard.jfr;
+
+import io.github.ilyaslabs.microservice.security.guard.HttpSecurityTestApplication;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.annotation.RequireScopes;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = {HttpSecurityTestApplication.class, FlightRecorderEventsTest.Endpoint.class})
+@AutoConfigureMockMvc
+class FlightRecorderEventsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @RestController
+    public static class Endpoint {
+
+        @RequireScopes("orders:read")
+        @GetMapping("/jfr/orders")
+        public String orders() {
+            return "OK";
+        }
+
+        @Secured
+        @GetMapping("/jfr/secured")
+        public String secured() {
+            return "OK";
+        }
+    }
+
+    /**
+     * A recording enabling the guard's events captures the parsing, the decision and the rejection of a call.
+     */
+    @Test
+    void testEventsAreRecorded(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("security-guard.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(HeaderParsingEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(AuthorizationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(RejectionEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+
+            mockMvc.perform(get("/jfr/orders").header(SecurityHeaders.X_SCOPES.getName(), "orders:read"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/jfr/orders").header(SecurityHeaders.X_API_GATEWAY.getName(), "true"))
+                    .andExpect(status().isForbidden());
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        assertThat(events(events, HeaderParsingEvent.NAME))
+                .extracting(event -> event.getString("decision"), event -> event.getBoolean("gatewayCall"), event -> event.getString("handler"))
+                .containsExactly(
+                        tuple("anonymous", false, "GET /jfr/orders"),
+                        tuple("anonymous", true, "GET /jfr/orders"));
+
+        assertThat(events(events, AuthorizationEvent.NAME))
+                .extracting(event -> event.getString("check"), event -> event.getString("decision"), event -> event.getBoolean("gatewayCall"))
+                .containsExactly(
+                        tuple("@RequireScopes", "allowed", false),
+                        tuple("@RequireScopes", "denied", true));
+        assertThat(events(events, AuthorizationEvent.NAME).getFirst().getString("handler")).endsWith("Endpoint.orders");
+
+        List<RecordedEvent> rejections = events(events, RejectionEvent.NAME);
+        assertThat(rejections).hasSize(1);
+        assertThat(rejections.getFirst().getInt("status")).isEqualTo(403);
+        assertThat(rejections.getFirst().getBoolean("gatewayCall")).isTrue();
+        assertThat(rejections.getFirst().getDuration().isNegative()).isFalse();
+    }
+
+    /**
+     * In the default expression mode, allowed {@code @Secured} calls are recorded by the method check and gateway
+     * calls by the filter, which rejects them before dispatch.
+     */
+    @Test
+    void testSecuredEventsAreRecordedInExpressionMode(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("security-guard-secured.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(AuthorizationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+
+            mockMvc.perform(get("/jfr/secured")).andExpect(status().isOk());
+            mockMvc.perform(get("/jfr/secured").header(SecurityHeaders.X_API_GATEWAY.getName(), "true"))
+                    .andExpect(status().isForbidden());
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = events(RecordingFile.readAllEvents(file), AuthorizationEvent.NAME);
+
+        assertThat(events)
+                .extracting(event -> event.getString("check"), event -> event.getString("decision"), event -> event.getBoolean("gatewayCall"))
+                .containsExactly(
+                        tuple("@Secured", "allowed", false),
+                        tuple("@Secured handler", "denied", true));
+        assertThat(events).allSatisfy(event -> assertThat(event.getString("handler")).endsWith("Endpoint.secured"));
+    }
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .toList();
+    }
+}
@@ -0,0 +1,256 @@
+package io.github.ilyaslabs.microservice.security.guard.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.github.ilyaslabs.microservice.security.guard.JwtConstants;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.metrics.MicrometerSecurityGuardMetrics;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.reactive.ReactiveAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtAuthenticationContextResolverTest {
+
+    private static RSAKey signingKey;
+
+    private static RSAKey otherKey;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+
+    private final JwtAuthenticationContextResolver resolver = new JwtAuthenticationContextResolver(
+            JwtAuthenticationContextResolver.loadJwkSet(new ByteArrayResource(
+                    new JWKSet(signingKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8))),
+            Set.of(JWSAlgorithm.RS256),
+            new AuthenticationContextResolver(new ScopeAuthorityCache(16, 64)),
+            16,
+            Duration.ZERO,
+            clock
+    );
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("signing").generate();
+        otherKey = new RSAKeyGenerator(2048).keyID("signing").generate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * The context is built from {@code sub} and the scope claim, and a repeated token is served from the cache.
+     */
+    @Test
+    void testTokenIsVerifiedOnce() throws Exception {
+        ObjectId id = new ObjectId();
+        String token = token(signingKey, id.toHexString(), "read write", Duration.ofMinutes(5));
+
+        AuthenticationContext first = resolver.resolve(JwtConstants.BEARER_PREFIX + token, null);
+        AuthenticationContext second = resolver.resolve(JwtConstants.BEARER_PREFIX + token, "true");
+
+        assertThat(first.userId()).isEqualTo(id);
+        assertThat(first.authorities()).containsExactly(new SimpleGrantedAuthority("read"), new SimpleGrantedAuthority("write"));
+        assertThat(first.isGatewayCall()).isFalse();
+        assertThat(second.scopes()).isSameAs(first.scopes());
+        assertThat(second.isGatewayCall()).isTrue();
+        assertThat(resolver.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void testScopeClaimAsArray() throws Exception {
+        String token = token(signingKey, new ObjectId().toHexString(), List.of("read", "write"), Duration.ofMinutes(5));
+
+        assertThat(resolver.resolve(JwtConstants.BEARER_PREFIX + token, null).authorities())
+                .containsExactly(new SimpleGrantedAuthority("read"), new SimpleGrantedAuthority("write"));
+    }
+
+    @Test
+    void testMissingTokenResolvesToAnonymousContext() {
+        AuthenticationContext context = resolver.resolve(null, null);
+
+        assertThat(context.userId()).isNull();
+        assertThat(context.authorities()).isEmpty();
+    }
+
+    @Test
+    void testTokenSignedWithUnknownKeyIsRejected() throws Exception {
+        String token = token(otherKey, new ObjectId().toHexString(), "read", Duration.ofMinutes(5));
+
+        assertThatThrownBy(() -> resolver.resolve(JwtConstants.BEARER_PREFIX + token, null))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() throws Exception {
+        String token = token(signingKey, new ObjectId().toHexString(), "read", Duration.ofMinutes(-1));
+
+        assertThatThrownBy(() -> resolver.resolve(JwtConstants.BEARER_PREFIX + token, null))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    /**
+     * A cached token is not trusted past its expiry.
+     */
+    @Test
+    void testCachedTokenExpires() throws Exception {
+        String token = token(signingKey, new ObjectId().toHexString(), "read", Duration.ofMinutes(5));
+
+        resolver.resolve(JwtConstants.BEARER_PREFIX + token, null);
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThatThrownBy(() -> resolver.resolve(JwtConstants.BEARER_PREFIX + token, null))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void testSubjectMustBeAnObjectId() throws Exception {
+        String token = token(signingKey, "not-an-object-id", "read", Duration.ofMinutes(5));
+
+        assertThatThrownBy(() -> resolver.resolve(JwtConstants.BEARER_PREFIX + token, null))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    /**
+     * The rejection of an invalid token is answered without continuing the chain, and still timed.
+     */
+    @Test
+    void testFilterRejectsInvalidToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/context");
+        request.addHeader(HttpHeaders.AUTHORIZATION, JwtConstants.BEARER_PREFIX + "invalid");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter();
+        filter.setJwtAuthenticationContextResolver(resolver);
+        filter.setMetrics(new MicrometerSecurityGuardMetrics(registry));
+
+        filter.doFilter(request, response, (_, _) -> {
+            throw new AssertionError("The filter chain must not be invoked");
+        });
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(registry.get("security.guard.unauthorized").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("security.guard.filter").functionTimer().count()).isEqualTo(1);
+    }
+
+    /**
+     * The reactive filter takes the context from the bearer token, not from the plain headers.
+     */
+    @Test
+    void testReactiveFilterResolvesToken() throws Exception {
+        ObjectId id = new ObjectId();
+        String token = token(signingKey, id.toHexString(), "read", Duration.ofMinutes(5));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/context")
+                .header(HttpHeaders.AUTHORIZATION, JwtConstants.BEARER_PREFIX + token)
+                .header(SecurityHeaders.X_USER_ID.getName(), new ObjectId().toHexString()));
+        AtomicReference<Authentication> authentication = new AtomicReference<>();
+
+        ReactiveAuthenticationWebFilter filter = new ReactiveAuthenticationWebFilter(new AuthenticationContextResolver());
+        filter.setJwtAuthenticationContextResolver(resolver);
+
+        filter.filter(exchange, _ -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .doOnNext(authentication::set)
+                .then()).block();
+
+        assertThat(authentication.get().getPrincipal())
+                .isInstanceOfSatisfying(AuthenticationContext.class, context -> assertThat(context.userId()).isEqualTo(id));
+    }
+
+    @Test
+    void testReactiveFilterRejectsInvalidToken() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/context")
+                .header(HttpHeaders.AUTHORIZATION, JwtConstants.BEARER_PREFIX + "invalid"));
+
+        ReactiveAuthenticationWebFilter filter = new ReactiveAuthenticationWebFilter(new AuthenticationContextResolver());
+        filter.setJwtAuthenticationContextResolver(resolver);
+
+        filter.filter(exchange, _ -> Mono.error(new AssertionError("The filter chain must not be invoked"))).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private String token(RSAKey key, String subject, Object scope, Duration expiresIn) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(subject)
+                .claim(JwtConstants.KEY_SCOPE_CLAIM, scope)
+                .expirationTime(Date.from(clock.instant().plus(expiresIn)))
+                .build();
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+
+        return jwt.serialize();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.ilyaslabs.microservice.security.guard.metrics;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicrometerSecurityGuardMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MicrometerSecurityGuardMetrics metrics = new MicrometerSecurityGuardMetrics(registry);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * The filter records its time, the kind of call and malformed user ids.
+     */
+    @Test
+    void testFilterIsInstrumented() throws Exception {
+        ScopeAuthorityCache cache = new ScopeAuthorityCache(16, 16);
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter(cache);
+        filter.setMetrics(metrics);
+        metrics.bindCache("scopes", cache::stats);
+
+        filter(filter, SecurityHeaders.X_USER_ID.getName(), new ObjectId().toHexString());
+        filter(filter, SecurityHeaders.X_API_GATEWAY.getName(), "true");
+        filter(filter, SecurityHeaders.X_USER_ID.getName(), "not-an-object-id");
+        filter(filter, SecurityHeaders.X_SCOPES.getName(), "read");
+
+        assertThat(registry.get("security.guard.filter").functionTimer().count()).isEqualTo(4);
+        assertThat(registry.get("security.guard.filter").functionTimer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(registry.get("security.guard.calls").tag("type", "gateway").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("security.guard.calls").tag("type", "internal").functionCounter().count()).isEqualTo(3);
+        assertThat(registry.get("security.guard.invalid.user.id").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("security.guard.cache.size").tag("cache", "scopes").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("security.guard.cache.misses").tag("cache", "scopes").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDeniedCallsAreTaggedByHandler() throws Exception {
+        metrics.recordForbidden(MicrometerSecurityGuardMetricsTest.class.getDeclaredMethod("testDeniedCallsAreTaggedByHandler"));
+        metrics.recordForbidden(MicrometerSecurityGuardMetricsTest.class.getDeclaredMethod("testDeniedCallsAreTaggedByHandler"));
+        metrics.recordForbidden(null);
+        metrics.recordUnauthorized();
+
+        assertThat(registry.get("security.guard.forbidden")
+                .tag("handler", "MicrometerSecurityGuardMetricsTest#testDeniedCallsAreTaggedByHandler")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("security.guard.forbidden").tag("handler", "unknown").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("security.guard.unauthorized").functionCounter().count()).isEqualTo(1);
+    }
+
+    private void filter(CustomAuthenticationWebFilter filter, String header, String value) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/context");
+        request.addHeader(header, value);
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), (_, _) -> {
+        });
+    }
+}
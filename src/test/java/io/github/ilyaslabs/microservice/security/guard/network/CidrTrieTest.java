@@ -0,0 +1,119 @@
+package io.github.ilyaslabs.microservice.security.guard.network;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class CidrTrieTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testIpv4Ranges() {
+        CidrTrie trie = CidrTrie.of(List.of("10.0.0.0/8", "192.168.1.0/24", "172.16.5.4"));
+
+        assertThat(trie.contains("10.1.2.3")).isTrue();
+        assertThat(trie.contains("10.255.255.255")).isTrue();
+        assertThat(trie.contains("11.0.0.0")).isFalse();
+        assertThat(trie.contains("192.168.1.77")).isTrue();
+        assertThat(trie.contains("192.168.2.1")).isFalse();
+        assertThat(trie.contains("172.16.5.4")).isTrue();
+        assertThat(trie.contains("172.16.5.5")).isFalse();
+    }
+
+    @Test
+    void testIpv6Ranges() {
+        CidrTrie trie = CidrTrie.of(List.of("fd00::/8", "2001:db8:1::/48", "::1"));
+
+        assertThat(trie.contains("fd12:3456::1")).isTrue();
+        assertThat(trie.contains("fe80::1")).isFalse();
+        assertThat(trie.contains("2001:db8:1:ffff::5")).isTrue();
+        assertThat(trie.contains("2001:db8:2::5")).isFalse();
+        assertThat(trie.contains("0:0:0:0:0:0:0:1")).isTrue();
+        assertThat(trie.contains("::1")).isTrue();
+        assertThat(trie.contains("[::1]")).isTrue();
+        assertThat(trie.contains("fd00::1%eth0")).isTrue();
+        assertThat(trie.contains("::2")).isFalse();
+    }
+
+    /**
+     * IPv4-mapped IPv6 addresses, as reported by dual-stack sockets, match the IPv4 ranges.
+     */
+    @Test
+    void testMappedIpv4Addresses() {
+        CidrTrie trie = CidrTrie.of(List.of("10.0.0.0/8"));
+
+        assertThat(trie.contains("::ffff:10.0.0.1")).isTrue();
+        assertThat(trie.contains("::ffff:a00:1")).isTrue();
+        assertThat(trie.contains("::ffff:11.0.0.1")).isFalse();
+    }
+
+    @Test
+    void testMalformedAddressesAreNotContained() {
+        CidrTrie trie = CidrTrie.of(List.of("0.0.0.0/0", "::/0"));
+
+        assertThat(trie.contains("10.0.0.1")).isTrue();
+        assertThat(trie.contains("2001:db8::1")).isTrue();
+        assertThat(trie.contains(null)).isFalse();
+        assertThat(trie.contains("")).isFalse();
+        assertThat(trie.contains("10.0.0")).isFalse();
+        assertThat(trie.contains("10.0.0.256")).isFalse();
+        assertThat(trie.contains("10.0.0.1.2")).isFalse();
+        assertThat(trie.contains("1::2::3")).isFalse();
+        assertThat(trie.contains("1:2:3:4:5:6:7")).isFalse();
+        assertThat(trie.contains("12345::1")).isFalse();
+        assertThat(trie.contains("localhost")).isFalse();
+    }
+
+    @Test
+    void testInvalidRangesAreRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> CidrTrie.of(List.of("10.0.0.0/33")));
+        assertThatIllegalArgumentException().isThrownBy(() -> CidrTrie.of(List.of("example.com/8")));
+        assertThatIllegalArgumentException().isThrownBy(() -> CidrTrie.of(List.of("fd00::/x")));
+    }
+
+    /**
+     * Calls from outside the range of their kind are answered with 403, and reloaded ranges apply to the next request.
+     */
+    @Test
+    void testFilterRejectsUntrustedAddresses() throws Exception {
+        TrustedNetworks trustedNetworks = new TrustedNetworks(List.of("10.0.0.0/8"), List.of("192.168.0.10"));
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter();
+        filter.setTrustedNetworks(trustedNetworks);
+
+        assertThat(filter(filter, "10.1.1.1", false).getStatus()).isEqualTo(200);
+        assertThat(filter(filter, "192.168.0.10", false).getStatus()).isEqualTo(403);
+        assertThat(filter(filter, "192.168.0.10", true).getStatus()).isEqualTo(200);
+        assertThat(filter(filter, "10.1.1.1", true).getStatus()).isEqualTo(403);
+
+        trustedNetworks.reload(List.of("192.168.0.0/16"), List.of());
+
+        assertThat(filter(filter, "10.1.1.1", false).getStatus()).isEqualTo(403);
+        assertThat(filter(filter, "10.1.1.1", true).getStatus()).isEqualTo(200);
+    }
+
+    private static MockHttpServletResponse filter(CustomAuthenticationWebFilter filter, String remoteAddress, boolean gatewayCall) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/trusted");
+        request.setRemoteAddr(remoteAddress);
+        if (gatewayCall) {
+            request.addHeader(SecurityHeaders.X_API_GATEWAY.getName(), "true");
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (_, _) -> {
+        });
+        return response;
+    }
+}
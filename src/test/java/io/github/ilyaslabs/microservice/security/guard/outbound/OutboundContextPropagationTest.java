@@ -0,0 +1,116 @@
+package io.github.ilyaslabs.microservice.security.guard.outbound;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.SpringAuthenticationContextProvider;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeAuthorityCache;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends the propagated headers to a real HTTP server and resolves them back the way a downstream service would.
+ */
+class OutboundContextPropagationTest {
+
+    private final SpringAuthenticationContextProvider provider = new SpringAuthenticationContextProvider();
+
+    private final AuthenticationContextResolver resolver = new AuthenticationContextResolver(new ScopeAuthorityCache(16, 64));
+
+    private final AtomicReference<AuthenticationContext> received = new AtomicReference<>();
+
+    private HttpServer server;
+
+    private URI uri;
+
+    @BeforeEach
+    void setup() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/downstream", exchange -> {
+            received.set(resolver.resolve(
+                    exchange.getRequestHeaders().getFirst(SecurityHeaders.X_USER_ID.getName()),
+                    exchange.getRequestHeaders().getFirst(SecurityHeaders.X_SCOPES.getName()),
+                    exchange.getRequestHeaders().getFirst(SecurityHeaders.X_API_GATEWAY.getName())
+            ));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/downstream");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRestClientPropagatesContext() {
+        AuthenticationContext context = authenticate(resolver.resolve(new ObjectId().toHexString(), "read write", "true"));
+
+        RestClient.builder()
+                .requestInterceptor(new AuthenticationContextClientHttpRequestInterceptor(provider))
+                .build()
+                .get().uri(uri)
+                .retrieve()
+                .toBodilessEntity();
+
+        assertPropagated(context);
+    }
+
+    @Test
+    void testHttpClientPropagatesContext() throws Exception {
+        AuthenticationContext context = authenticate(resolver.resolve(new ObjectId().toHexString(), "read write", null));
+
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest request = new AuthenticationContextHttpRequests(provider).withContext(HttpRequest.newBuilder(uri)).build();
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        assertPropagated(context);
+    }
+
+    @Test
+    void testNothingIsPropagatedWithoutContext() {
+        RestClient.builder()
+                .requestInterceptor(new AuthenticationContextClientHttpRequestInterceptor(provider))
+                .build()
+                .get().uri(uri)
+                .retrieve()
+                .toBodilessEntity();
+
+        assertThat(received.get().userId()).isNull();
+        assertThat(received.get().authorities()).isEmpty();
+    }
+
+    private AuthenticationContext authenticate(AuthenticationContext context) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(context, null, context.authorities()));
+        return context;
+    }
+
+    private void assertPropagated(AuthenticationContext context) {
+        assertThat(received.get().userId()).isEqualTo(context.userId());
+        assertThat(received.get().authorities())
+                .containsExactly(new SimpleGrantedAuthority("read"), new SimpleGrantedAuthority("write"));
+        // a propagated call is an internal call, even if the original request came through the gateway
+        assertThat(received.get().isGatewayCall()).isFalse();
+    }
+}
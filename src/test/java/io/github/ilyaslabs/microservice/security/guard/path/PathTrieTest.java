@@ -0,0 +1,90 @@
+package io.github.ilyaslabs.microservice.security.guard.path;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathTrieTest {
+
+    private final PathTrie<String> trie = PathTrie.of(patterns(
+            "/actuator/health", "health",
+            "/actuator/**", "actuator",
+            "/api/*/docs", "docs",
+            "/api/v1/docs", "v1-docs",
+            "/static/**", "static",
+            "/", "root"
+    ));
+
+    @Test
+    void testLiteralMatch() {
+        assertThat(trie.match("/actuator/health")).isEqualTo("health");
+        assertThat(trie.match("/")).isEqualTo("root");
+        assertThat(trie.match("/api/v1/users")).isNull();
+    }
+
+    /**
+     * Literals take precedence over {@code *}, and {@code *} over {@code **}.
+     */
+    @Test
+    void testMostSpecificPatternWins() {
+        assertThat(trie.match("/api/v1/docs")).isEqualTo("v1-docs");
+        assertThat(trie.match("/api/v2/docs")).isEqualTo("docs");
+        assertThat(trie.match("/actuator/health/liveness")).isEqualTo("actuator");
+        assertThat(trie.match("/actuator/prometheus")).isEqualTo("actuator");
+    }
+
+    @Test
+    void testCatchAllMatchesAnyRemainder() {
+        assertThat(trie.match("/static")).isEqualTo("static");
+        assertThat(trie.match("/static/css/site.css")).isEqualTo("static");
+        assertThat(trie.match("/statics/site.css")).isNull();
+    }
+
+    @Test
+    void testEmptySegmentsAreIgnored() {
+        assertThat(trie.match("/actuator//health/")).isEqualTo("health");
+    }
+
+    @Test
+    void testMatchFromOffset() {
+        assertThat(trie.match("/context/actuator/health", "/context".length())).isEqualTo("health");
+    }
+
+    /**
+     * Many patterns sharing a level are all reachable through the segment table.
+     */
+    @Test
+    void testManyLiterals() {
+        Map<String, Integer> patterns = new LinkedHashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            patterns.put("/service-" + i + "/health", i);
+        }
+
+        PathTrie<Integer> many = PathTrie.of(patterns);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(many.match("/service-" + i + "/health")).isEqualTo(i);
+        }
+        assertThat(many.match("/service-1000/health")).isNull();
+        assertThat(many.size()).isEqualTo(1_000);
+    }
+
+    @Test
+    void testUnsupportedPatternsAreRejected() {
+        assertThatThrownBy(() -> PathTrie.of(Map.of("/**/health", true))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PathTrie.of(Map.of("/static/*.css", true))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PathTrie.of(Map.of("actuator", true))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Map<String, String> patterns(String... patternsAndValues) {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        for (int i = 0; i < patternsAndValues.length; i += 2) {
+            patterns.put(patternsAndValues[i], patternsAndValues[i + 1]);
+        }
+        return patterns;
+    }
+}
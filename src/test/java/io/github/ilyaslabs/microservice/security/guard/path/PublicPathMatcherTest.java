@@ -0,0 +1,58 @@
+package io.github.ilyaslabs.microservice.security.guard.path;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublicPathMatcherTest {
+
+    private final PublicPathMatcher matcher = new PublicPathMatcher(List.of("/actuator/health", "/static/**"));
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRequestsAreMatchedWithinTheContextPath() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/service/actuator/health");
+        request.setContextPath("/service");
+
+        assertThat(matcher.matches(request)).isTrue();
+        assertThat(matcher.matches(new MockHttpServletRequest("GET", "/actuator/info"))).isFalse();
+    }
+
+    /**
+     * Public requests reach the chain without an authentication context; other requests are authenticated.
+     */
+    @Test
+    void testFilterSkipsPublicPaths() throws Exception {
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter();
+        filter.setPublicPathMatcher(matcher);
+
+        assertThat(authenticated(filter, "/actuator/health")).isFalse();
+        assertThat(authenticated(filter, "/static/app.js")).isFalse();
+        assertThat(authenticated(filter, "/api/v1/context")).isTrue();
+    }
+
+    private boolean authenticated(CustomAuthenticationWebFilter filter, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader(SecurityHeaders.X_USER_ID.getName(), new ObjectId().toHexString());
+
+        boolean[] authenticated = new boolean[1];
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), (_, _) ->
+                authenticated[0] = SecurityContextHolder.getContext().getAuthentication() != null);
+
+        return authenticated[0];
+    }
+}
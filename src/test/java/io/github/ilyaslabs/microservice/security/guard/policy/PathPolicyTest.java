@@ -0,0 +1,118 @@
+package io.github.ilyaslabs.microservice.security.guard.policy;
+
+import io.github.ilyaslabs.microservice.security.guard.authorization.ScopeRequirement;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.scope.ScopeRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class PathPolicyTest {
+
+    private static final String POLICY = """
+            # orders
+            GET    /orders/**    scopes=orders:read
+            *      /orders/**    scopes=orders:write
+
+            *      /admin/**     internal-only any-scopes=admin,support
+            """;
+
+    private final ScopeRegistry registry = ScopeRegistry.of(List.of("orders:read", "orders:write", "admin"));
+
+    @Test
+    void testMethodRulesTakePrecedence() {
+        PathPolicy policy = PathPolicy.parse(POLICY, registry);
+
+        assertThat(policy.size()).isEqualTo(3);
+
+        ScopeRequirement get = policy.match("GET", "/orders/42", 0);
+        ScopeRequirement post = policy.match("POST", "/orders/42", 0);
+
+        assertThat(get.isAllowed(context(false, "orders:read"))).isTrue();
+        assertThat(post.isAllowed(context(false, "orders:read"))).isFalse();
+        assertThat(post.isAllowed(context(false, "orders:write"))).isTrue();
+        assertThat(policy.match("GET", "/public", 0)).isNull();
+    }
+
+    @Test
+    void testInternalOnlyAndAnyScopes() {
+        ScopeRequirement admin = PathPolicy.parse(POLICY, registry).match("DELETE", "/api/admin/users", 4);
+
+        assertThat(admin.isAllowed(context(false, "support"))).isTrue();
+        assertThat(admin.isAllowed(context(true, "admin"))).isFalse();
+        assertThat(admin.isAllowed(context(false, "orders:read"))).isFalse();
+    }
+
+    @Test
+    void testInvalidRuleNamesItsLine() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> PathPolicy.parse("GET /orders/** scopes=orders:read\n\nGET /admin/** everyone", registry))
+                .withMessageContaining("line 3");
+    }
+
+    /**
+     * Changes of the watched file replace the policy; an invalid change keeps the previous one.
+     */
+    @Test
+    void testReloadSwapsPolicy(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("path-policy.txt"), "GET /orders/** scopes=orders:read");
+
+        try (ReloadablePathPolicy policy = new ReloadablePathPolicy(file, registry, Duration.ofMillis(50))) {
+            policy.start();
+            assertThat(policy.match("GET", "/orders/1", 0)).isNotNull();
+
+            Files.writeString(file, "GET /invoices/** scopes=orders:read");
+            awaitUntil(() -> policy.match("GET", "/invoices/1", 0) != null);
+            assertThat(policy.match("GET", "/orders/1", 0)).isNull();
+
+            PathPolicy valid = policy.current();
+            Files.writeString(file, "GET /invoices/** scopes");
+            assertThat(policy.reload()).isFalse();
+            assertThat(policy.current()).isSameAs(valid);
+        }
+    }
+
+    /**
+     * Requests are matched on their decoded path, so percent-encoding a character does not bypass a rule.
+     */
+    @Test
+    void testEncodedPathIsMatchedDecoded(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("path-policy.txt"), POLICY);
+
+        try (ReloadablePathPolicy policy = new ReloadablePathPolicy(file, registry, Duration.ofMillis(50))) {
+            MockHttpServletRequest encoded = new MockHttpServletRequest("DELETE", "/api/%61dmin/users");
+            encoded.setContextPath("/api");
+            MockHttpServletRequest parameters = new MockHttpServletRequest("DELETE", "/api/admin;v=1/users");
+            parameters.setContextPath("/api");
+
+            assertThat(policy.match(encoded)).isSameAs(policy.match("DELETE", "/admin/users", 0)).isNotNull();
+            assertThat(policy.match(parameters)).isSameAs(policy.match("DELETE", "/admin/users", 0));
+            assertThat(policy.match(new MockHttpServletRequest("GET", "/%70ublic"))).isNull();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("policy reloaded in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static AuthenticationContext context(boolean gateway, String... scopes) {
+        List<SimpleGrantedAuthority> authorities = Arrays.stream(scopes).map(SimpleGrantedAuthority::new).toList();
+        return new AuthenticationContext(new ObjectId(), authorities, gateway);
+    }
+}
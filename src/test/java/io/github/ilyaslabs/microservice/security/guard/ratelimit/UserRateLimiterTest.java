@@ -0,0 +1,176 @@
+package io.github.ilyaslabs.microservice.security.guard.ratelimit;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.filter.CustomAuthenticationWebFilter;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * A user may make {@code burst} requests at once, then one request per emission interval.
+     */
+    @Test
+    void testBurstThenSustainedRate() {
+        UserRateLimiter limiter = limiter(new RateLimitPolicy(10, 3), RateLimitPolicy.UNLIMITED, RateLimitPolicy.UNLIMITED);
+        AuthenticationContext user = user(false);
+
+        assertThat(limiter.tryAcquire(user)).isZero();
+        assertThat(limiter.tryAcquire(user)).isZero();
+        assertThat(limiter.tryAcquire(user)).isZero();
+        assertThat(limiter.tryAcquire(user)).isEqualTo(SECOND / 10);
+
+        clock.addAndGet(SECOND / 10);
+        assertThat(limiter.tryAcquire(user)).isZero();
+        assertThat(limiter.tryAcquire(user)).isPositive();
+
+        clock.addAndGet(SECOND);
+        assertThat(limiter.tryAcquire(user)).isZero();
+        assertThat(limiter.tryAcquire(user)).isZero();
+        assertThat(limiter.tryAcquire(user)).isZero();
+        assertThat(limiter.tryAcquire(user)).isPositive();
+    }
+
+    /**
+     * Users have their own buckets, gateway calls follow their own policy and anonymous calls share one bucket.
+     */
+    @Test
+    void testPoliciesAreSeparate() {
+        UserRateLimiter limiter = limiter(new RateLimitPolicy(1, 1), new RateLimitPolicy(1, 2), new RateLimitPolicy(1, 1));
+        AuthenticationContext user = user(false);
+        ObjectId userId = user.userId();
+
+        assertThat(limiter.tryAcquire(user)).isZero();
+        assertThat(limiter.tryAcquire(user)).isPositive();
+        assertThat(limiter.tryAcquire(user(false))).isZero();
+
+        AuthenticationContext gateway = new AuthenticationContext(userId, List.of(), true);
+        assertThat(limiter.tryAcquire(gateway)).isZero();
+        assertThat(limiter.tryAcquire(gateway)).isZero();
+        assertThat(limiter.tryAcquire(gateway)).isPositive();
+
+        assertThat(limiter.tryAcquire(new AuthenticationContext(null, List.of(), false))).isZero();
+        assertThat(limiter.tryAcquire(new AuthenticationContext(null, List.of(), false))).isPositive();
+    }
+
+    @Test
+    void testUnlimitedPolicyDoesNotTrackUsers() {
+        UserRateLimiter limiter = limiter(RateLimitPolicy.UNLIMITED, RateLimitPolicy.UNLIMITED, RateLimitPolicy.UNLIMITED);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(user(false))).isZero();
+        }
+
+        assertThat(limiter.size()).isZero();
+    }
+
+    /**
+     * Buckets of users without requests for the idle timeout are evicted.
+     */
+    @Test
+    void testIdleBucketsAreEvicted() {
+        UserRateLimiter limiter = limiter(new RateLimitPolicy(10, 1), RateLimitPolicy.UNLIMITED, RateLimitPolicy.UNLIMITED);
+        AuthenticationContext active = user(false);
+
+        limiter.tryAcquire(active);
+        limiter.tryAcquire(user(false));
+        assertThat(limiter.size()).isEqualTo(2);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        limiter.tryAcquire(active);
+        limiter.evictIdle();
+        assertThat(limiter.size()).isEqualTo(2);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        limiter.tryAcquire(active);
+        assertThat(limiter.size()).as("requests do not sweep").isEqualTo(2);
+
+        limiter.evictIdle();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    /**
+     * Once a policy tracks the maximum number of users, requests of new users are admitted and counted instead of
+     * growing it, so that the traffic of other users never rejects them.
+     */
+    @Test
+    void testUsersBeyondTheMaximumAreNotRejected() {
+        UserRateLimiter limiter = new UserRateLimiter(new RateLimitPolicy(1, 1), RateLimitPolicy.UNLIMITED,
+                RateLimitPolicy.UNLIMITED, Duration.ofMinutes(1), 2, clock::get);
+        AuthenticationContext tracked = user(false);
+
+        assertThat(limiter.tryAcquire(tracked)).isZero();
+        assertThat(limiter.tryAcquire(user(false))).isZero();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(user(false))).isZero();
+        }
+
+        AuthenticationContext newUser = user(false);
+        assertThat(limiter.tryAcquire(newUser)).isZero();
+        assertThat(limiter.tryAcquire(newUser)).isZero();
+        assertThat(limiter.tryAcquire(tracked)).as("tracked users stay limited").isPositive();
+
+        assertThat(limiter.size()).isEqualTo(2);
+        assertThat(limiter.overflowed()).isEqualTo(12);
+    }
+
+    /**
+     * Requests over the limit are answered with 429 and a Retry-After header, without continuing the chain.
+     */
+    @Test
+    void testFilterAnswersTooManyRequests() throws Exception {
+        CustomAuthenticationWebFilter filter = new CustomAuthenticationWebFilter();
+        filter.setUserRateLimiter(limiter(new RateLimitPolicy(0.5, 1), RateLimitPolicy.UNLIMITED, RateLimitPolicy.UNLIMITED));
+        String userId = new ObjectId().toHexString();
+        AtomicInteger chainCalls = new AtomicInteger();
+
+        MockHttpServletResponse first = filter(filter, userId, chainCalls);
+        MockHttpServletResponse second = filter(filter, userId, chainCalls);
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(second.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(chainCalls).hasValue(1);
+    }
+
+    private MockHttpServletResponse filter(CustomAuthenticationWebFilter filter, String userId, AtomicInteger chainCalls) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rate-limited");
+        request.addHeader(SecurityHeaders.X_USER_ID.getName(), userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (_, _) -> chainCalls.incrementAndGet());
+        return response;
+    }
+
+    private UserRateLimiter limiter(RateLimitPolicy user, RateLimitPolicy gateway, RateLimitPolicy anonymous) {
+        return new UserRateLimiter(user, gateway, anonymous, Duration.ofMinutes(1), UserRateLimiter.DEFAULT_MAX_USERS, clock::get);
+    }
+
+    private static AuthenticationContext user(boolean gateway) {
+        return new AuthenticationContext(new ObjectId(), List.of(), gateway);
+    }
+}
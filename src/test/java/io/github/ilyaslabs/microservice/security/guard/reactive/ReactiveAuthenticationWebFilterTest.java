@@ -0,0 +1,124 @@
+package io.github.ilyaslabs.microservice.security.guard.reactive;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.annotation.EnableReactiveMicroserviceSecurity;
+import io.github.ilyaslabs.microservice.security.guard.annotation.Secured;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the WebFlux variant of the guard against the same scenarios as the servlet filter.
+ */
+@SpringBootTest(
+        classes = {ReactiveAuthenticationWebFilterTest.ReactiveSecurityTestApplication.class, ReactiveAuthenticationWebFilterTest.Endpoint.class},
+        properties = "spring.main.web-application-type=reactive"
+)
+class ReactiveAuthenticationWebFilterTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private WebTestClient webTestClient;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EnableReactiveMicroserviceSecurity
+    static class ReactiveSecurityTestApplication {
+    }
+
+    @RestController
+    public static class Endpoint {
+
+        public static AuthenticationContext authenticationContext;
+
+        private final ReactiveAuthenticationContextProvider authenticationContextProvider;
+
+        public Endpoint(ReactiveAuthenticationContextProvider authenticationContextProvider) {
+            this.authenticationContextProvider = authenticationContextProvider;
+        }
+
+        @GetMapping("/context")
+        public Mono<String> context() {
+            return authenticationContextProvider.current()
+                    .doOnNext(context -> authenticationContext = context)
+                    .thenReturn("OK");
+        }
+
+        @Secured
+        @GetMapping("/secured")
+        public Mono<String> secured() {
+            return Mono.just("Secured response");
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        Endpoint.authenticationContext = null;
+        webTestClient = WebTestClient.bindToApplicationContext(applicationContext).build();
+    }
+
+    @Test
+    void testAuthenticateContextIsSetCorrectly() {
+        ObjectId id = new ObjectId();
+
+        webTestClient.get().uri("/context")
+                .header(SecurityHeaders.X_USER_ID.getName(), id.toString())
+                .header(SecurityHeaders.X_SCOPES.getName(), "read write")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(Endpoint.authenticationContext).isNotNull();
+        assertThat(Endpoint.authenticationContext.userId()).isEqualTo(id);
+        assertThat(Endpoint.authenticationContext.authorities())
+                .containsExactly(new SimpleGrantedAuthority("read"), new SimpleGrantedAuthority("write"));
+        assertThat(Endpoint.authenticationContext.isGatewayCall()).isFalse();
+    }
+
+    @Test
+    void testIfSecuredEndpointsAreNotAccessibleFromOutside() {
+        webTestClient.get().uri("/secured")
+                .header(SecurityHeaders.X_API_GATEWAY.getName(), "true")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void testIfSecuredEndpointsAreAccessibleFromInside() {
+        webTestClient.get().uri("/secured")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    /**
+     * Features enforced by the servlet filter only fail the startup of a WebFlux application instead of being ignored.
+     */
+    @Test
+    void testServletOnlyFeaturesFailStartup() {
+        ReactiveWebApplicationContextRunner runner = new ReactiveWebApplicationContextRunner()
+                .withUserConfiguration(ReactiveSecurityTestApplication.class);
+
+        runner.withPropertyValues("microservice.security.guard.rate-limit.enabled=true")
+                .run(context -> assertThat(context.getStartupFailure()).rootCause()
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessageContaining("rate-limit.enabled"));
+
+        runner.withPropertyValues("microservice.security.guard.trusted-networks.internal=10.0.0.0/8")
+                .run(context -> assertThat(context.getStartupFailure()).rootCause()
+                        .hasMessageContaining("trusted-networks"));
+    }
+}
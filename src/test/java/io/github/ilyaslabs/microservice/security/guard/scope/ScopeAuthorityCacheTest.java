@@ -0,0 +1,53 @@
+package io.github.ilyaslabs.microservice.security.guard.scope;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScopeAuthorityCacheTest {
+
+    /**
+     * Repeated scope headers resolve to the same list, and authorities are shared across different headers.
+     */
+    @Test
+    void testScopeHeadersAreInterned() {
+        ScopeAuthorityCache cache = new ScopeAuthorityCache(16, 16);
+
+        List<SimpleGrantedAuthority> first = cache.resolve("read write");
+        List<SimpleGrantedAuthority> second = cache.resolve("read write");
+        List<SimpleGrantedAuthority> other = cache.resolve("write admin");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first).containsExactly(new SimpleGrantedAuthority("read"), new SimpleGrantedAuthority("write"));
+        assertThat(other.get(0)).isSameAs(first.get(1));
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+    }
+
+    /**
+     * A flood of unique headers is evicted instead of growing the cache.
+     */
+    @Test
+    void testCacheIsBounded() {
+        ScopeAuthorityCache cache = new ScopeAuthorityCache(8, 8);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(cache.resolve("scope-" + i)).containsExactly(new SimpleGrantedAuthority("scope-" + i));
+        }
+
+        assertThat(cache.stats().size()).isLessThanOrEqualTo(8);
+        assertThat(cache.stats().evictions()).isGreaterThanOrEqualTo(992);
+        assertThat(cache.authorityStats().size()).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void testMissingHeaderResolvesToEmptyList() {
+        ScopeAuthorityCache cache = new ScopeAuthorityCache(8, 8);
+
+        assertThat(cache.resolve(null)).isEmpty();
+        assertThat(cache.resolve("  ")).isEmpty();
+    }
+}
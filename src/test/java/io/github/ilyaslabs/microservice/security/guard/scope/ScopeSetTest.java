@@ -0,0 +1,143 @@
+package io.github.ilyaslabs.microservice.security.guard.scope;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.model.AuthenticationContext;
+import io.github.ilyaslabs.microservice.security.guard.outbound.OutboundSecurityHeaders;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScopeSetTest {
+
+    private static final ScopeRegistry REGISTRY = ScopeRegistry.of(
+            IntStream.range(0, 100).mapToObj(i -> "scope-" + i).toList());
+
+    @Test
+    void testRegisteredScopesAreEncodedAsBits() {
+        ScopeSet scopes = REGISTRY.encode(authorities("scope-1", "scope-70"));
+
+        assertThat(scopes.isFullyIndexed()).isTrue();
+        assertThat(scopes.contains(REGISTRY.indexOf("scope-70"))).isTrue();
+        assertThat(scopes.contains("scope-1")).isTrue();
+        assertThat(scopes.contains("scope-2")).isFalse();
+        assertThat(scopes.containsAll(REGISTRY.mask(List.of("scope-1", "scope-70")))).isTrue();
+        assertThat(scopes.containsAll(REGISTRY.mask(List.of("scope-1", "scope-2")))).isFalse();
+        assertThat(scopes.containsAny(REGISTRY.mask(List.of("scope-2", "scope-70")))).isTrue();
+        assertThat(scopes.containsAny(REGISTRY.mask(List.of("scope-2", "scope-3")))).isFalse();
+    }
+
+    /**
+     * Scopes unknown to the registry fall back to name comparison.
+     */
+    @Test
+    void testUnknownScopesFallBackToNames() {
+        ScopeSet scopes = REGISTRY.encode(authorities("scope-1", "custom"));
+
+        assertThat(scopes.isFullyIndexed()).isFalse();
+        assertThat(scopes.contains("custom")).isTrue();
+        assertThat(scopes.containsAll(REGISTRY.mask(List.of("scope-1", "custom")))).isTrue();
+        assertThat(scopes.containsAll(REGISTRY.mask(List.of("scope-1", "other")))).isFalse();
+        assertThat(scopes.containsAny(REGISTRY.mask(List.of("other", "custom")))).isTrue();
+        assertThat(ScopeSet.of(authorities("custom")).containsAll(REGISTRY.mask(List.of("custom")))).isTrue();
+    }
+
+    @Test
+    void testCompactHeaderRoundTrip() {
+        ScopeSet scopes = REGISTRY.encode(authorities("scope-0", "scope-9", "scope-64", "scope-99"));
+        String compact = scopes.toCompactHeaderValue();
+
+        assertThat(compact).startsWith(REGISTRY.version() + ".");
+        assertThat(compact.length()).isLessThan(scopes.toHeaderValue().length());
+
+        ScopeSet decoded = REGISTRY.decodeCompact(compact);
+        assertThat(decoded.authorities()).containsExactlyElementsOf(scopes.authorities());
+        assertThat(decoded.isFullyIndexed()).isTrue();
+        assertThat(decoded.containsAll(REGISTRY.mask(List.of("scope-9", "scope-64")))).isTrue();
+        assertThat(decoded.toCompactHeaderValue()).isEqualTo(compact);
+    }
+
+    /**
+     * Only sets fully known to the registry have a compact form, and only values of the same registry version
+     * that refer to registered indexes are decoded.
+     */
+    @Test
+    void testCompactHeaderRequiresTheSameRegistry() {
+        assertThat(REGISTRY.encode(authorities("scope-1", "custom")).toCompactHeaderValue()).isNull();
+        assertThat(ScopeSet.of(authorities("scope-1")).toCompactHeaderValue()).isNull();
+
+        ScopeRegistry other = ScopeRegistry.of(List.of("scope-1", "scope-0"));
+        String compact = other.encode(authorities("scope-1")).toCompactHeaderValue();
+
+        assertThat(other.version()).isNotEqualTo(REGISTRY.version());
+        assertThat(REGISTRY.decodeCompact(compact)).isNull();
+        assertThat(other.decodeCompact(REGISTRY.version() + ".AQ")).isNull();
+        assertThat(other.decodeCompact(other.version() + ".BA")).isNull();
+        assertThat(other.decodeCompact(other.version() + ".!!")).isNull();
+    }
+
+    @Test
+    void testCompactHeaderFallsBackToScopeNames() {
+        ScopeAuthorityCache cache = new ScopeAuthorityCache(16, 64, REGISTRY);
+        String compact = REGISTRY.encode(authorities("scope-1", "scope-2")).toCompactHeaderValue();
+
+        assertThat(cache.resolveCompactScopeSet(compact)).isSameAs(cache.resolveCompactScopeSet(compact));
+        assertThat(cache.resolveCompactScopeSet("00000000.AQ")).isNull();
+        assertThat(cache.resolveCompactScopeSet("00000000.AQ")).isNull();
+        assertThat(cache.undecodable()).isEqualTo(2);
+        assertThat(new ScopeAuthorityCache(16, 64).resolveCompactScopeSet(compact)).isNull();
+    }
+
+    /**
+     * Compact scopes are sent along with the names, which receivers on another registry version fall back to.
+     */
+    @Test
+    void testCompactHeaderIsSentWithScopeNames() {
+        AuthenticationContext context = new AuthenticationContext(new ObjectId(), null, false, REGISTRY.encode(authorities("scope-1", "scope-2")));
+        Map<String, String> headers = new HashMap<>();
+
+        OutboundSecurityHeaders.write(context, true, null, headers::put);
+
+        assertThat(headers).containsEntry(SecurityHeaders.X_SCOPES.getName(), "scope-1 scope-2")
+                .containsEntry(SecurityHeaders.X_SCOPES_COMPACT.getName(), context.scopes().toCompactHeaderValue());
+    }
+
+    @Test
+    void testAuthenticationContextKeepsAuthorities() {
+        List<SimpleGrantedAuthority> authorities = authorities("scope-1", "custom");
+        AuthenticationContext context = new AuthenticationContext(new ObjectId(), null, false, REGISTRY.encode(authorities));
+
+        assertThat(context.authorities()).isEqualTo(authorities);
+        assertThat(context.hasScope("scope-1")).isTrue();
+        assertThat(context.hasScope("custom")).isTrue();
+        assertThat(new AuthenticationContext(null, authorities, false).hasScope("custom")).isTrue();
+    }
+
+    /**
+     * Authorities cannot drift from the scopes, and whether the scopes are backed by the registry does not affect
+     * the identity of a context.
+     */
+    @Test
+    void testAuthenticationContextDerivesAuthoritiesFromScopes() {
+        ObjectId userId = new ObjectId();
+        ScopeSet scopes = REGISTRY.encode(authorities("scope-1"));
+
+        AuthenticationContext context = new AuthenticationContext(userId, authorities("scope-2"), false, scopes);
+        AuthenticationContext unindexed = new AuthenticationContext(userId, authorities("scope-1"), false);
+
+        assertThat(context.authorities()).isEqualTo(authorities("scope-1"));
+        assertThat(context).isEqualTo(unindexed).hasSameHashCodeAs(unindexed);
+        assertThat(context).isNotEqualTo(new AuthenticationContext(userId, authorities("scope-1"), true));
+    }
+
+    private static List<SimpleGrantedAuthority> authorities(String... scopes) {
+        return Arrays.stream(scopes).map(SimpleGrantedAuthority::new).toList();
+    }
+}
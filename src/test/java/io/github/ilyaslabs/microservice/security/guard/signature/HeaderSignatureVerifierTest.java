@@ -0,0 +1,202 @@
+package io.github.ilyaslabs.microservice.security.guard.signature;
+
+import io.github.ilyaslabs.microservice.security.guard.SecurityHeaders;
+import io.github.ilyaslabs.microservice.security.guard.filter.AuthenticationContextResolver;
+import io.github.ilyaslabs.microservice.security.guard.reactive.ReactiveAuthenticationWebFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeaderSignatureVerifierTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private static final String USER_ID = "65f1a2b3c4d5e6f708192a3b";
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+
+    private final HeaderSigner signer = new HeaderSigner(SECRET, clock::get);
+
+    private final HeaderSignatureVerifier verifier = new HeaderSignatureVerifier(SECRET, Duration.ofSeconds(30), 1024, clock::get);
+
+    @Test
+    void testSignedHeadersAreAccepted() {
+        assertThat(verify(USER_ID, "read write", null, sign(USER_ID, "read write", null))).isTrue();
+        assertThat(verify(null, null, "true", sign(null, null, "true"))).isTrue();
+        assertThat(verify(USER_ID, "lecture écriture", null, sign(USER_ID, "lecture écriture", null))).isTrue();
+    }
+
+    /**
+     * Changing any signed header, including dropping the gateway header, invalidates the signature.
+     */
+    @Test
+    void testTamperedHeadersAreRejected() {
+        Map<String, String> signature = sign(USER_ID, "read", "true");
+
+        assertThat(verify(USER_ID, "read admin", "true", signature)).isFalse();
+        assertThat(verify("65f1a2b3c4d5e6f708192a3c", "read", "true", signature)).isFalse();
+        assertThat(verify(USER_ID, "read", null, signature)).isFalse();
+
+        signature.put(SecurityHeaders.X_SIGNATURE_NONCE.getName(), "0000000000000000");
+        assertThat(verify(USER_ID, "read", "true", signature)).isFalse();
+    }
+
+    /**
+     * An absent header and an empty one sign differently, in every position.
+     */
+    @Test
+    void testAbsentHeaderIsNotEmptyHeader() {
+        assertThat(verify(USER_ID, "", null, sign(USER_ID, null, null))).isFalse();
+        assertThat(verify(USER_ID, null, null, sign(USER_ID, "", null))).isFalse();
+        assertThat(verify("", "read", null, sign(null, "read", null))).isFalse();
+        assertThat(verify(USER_ID, "read", "", sign(USER_ID, "read", null))).isFalse();
+        assertThat(verify(USER_ID, "read", null, sign(USER_ID, "read", ""))).isFalse();
+        assertThat(verify(USER_ID, "read", "", sign(USER_ID, "read", ""))).isTrue();
+    }
+
+    @Test
+    void testForeignSecretIsRejected() {
+        HeaderSigner foreign = new HeaderSigner("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8), clock::get);
+        Map<String, String> headers = new HashMap<>();
+        foreign.sign(USER_ID, "read", headers::put);
+
+        assertThat(verify(USER_ID, "read", null, headers)).isFalse();
+    }
+
+    @Test
+    void testReplayIsRejected() {
+        Map<String, String> signature = sign(USER_ID, "read", null);
+
+        assertThat(verify(USER_ID, "read", null, signature)).isTrue();
+        assertThat(verify(USER_ID, "read", null, signature)).isFalse();
+
+        // still rejected in the next bucket, while the timestamp is within the window
+        clock.addAndGet(Duration.ofSeconds(20).toMillis());
+        assertThat(verify(USER_ID, "read", null, signature)).isFalse();
+    }
+
+    @Test
+    void testTimestampOutsideOfWindowIsRejected() {
+        Map<String, String> signature = sign(USER_ID, "read", null);
+
+        clock.addAndGet(Duration.ofSeconds(31).toMillis());
+        assertThat(verify(USER_ID, "read", null, signature)).isFalse();
+
+        Map<String, String> future = sign(USER_ID, "read", null);
+        clock.addAndGet(-Duration.ofSeconds(31).toMillis());
+        assertThat(verify(USER_ID, "read", null, future)).isFalse();
+    }
+
+    @Test
+    void testMalformedHeadersAreRejected() {
+        Map<String, String> signature = sign(USER_ID, "read", null);
+
+        assertThat(verifier.verify(USER_ID, "read", null, null, null, null)).isFalse();
+        assertThat(verifier.verify(USER_ID, "read", null, "-1",
+                signature.get(SecurityHeaders.X_SIGNATURE_NONCE.getName()), signature.get(SecurityHeaders.X_SIGNATURE.getName()))).isFalse();
+        assertThat(verifier.verify(USER_ID, "read", null, signature.get(SecurityHeaders.X_SIGNATURE_TIMESTAMP.getName()),
+                "not-a-nonce-at-a", signature.get(SecurityHeaders.X_SIGNATURE.getName()))).isFalse();
+        assertThat(verifier.verify(USER_ID, "read", null, signature.get(SecurityHeaders.X_SIGNATURE_TIMESTAMP.getName()),
+                signature.get(SecurityHeaders.X_SIGNATURE_NONCE.getName()), "too-short")).isFalse();
+    }
+
+    @Test
+    void testShortSecretIsRefused() {
+        assertThatThrownBy(() -> new HeaderSigner("short".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Virtual threads borrow pooled {@code Mac} instances instead of creating one per thread.
+     */
+    @Test
+    void testConcurrentVerificationOnVirtualThreads() {
+        LongAdder accepted = new LongAdder();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                String userId = "%024x".formatted(i);
+                executor.execute(() -> {
+                    if (verify(userId, "read", null, sign(userId, "read", null))) {
+                        accepted.increment();
+                    }
+                });
+            }
+        }
+
+        assertThat(accepted.sum()).isEqualTo(1000);
+    }
+
+    @Test
+    void testNonceSetKeepsEachNonceOncePerBucket() {
+        ReplayNonceSet nonces = new ReplayNonceSet(Duration.ofSeconds(10), 4);
+
+        assertThat(nonces.add(0, 1)).isTrue();
+        assertThat(nonces.add(0, 1)).isFalse();
+        assertThat(nonces.add(1_000, 2)).isTrue();
+        assertThat(nonces.add(1_000, 3)).isTrue();
+        assertThat(nonces.add(1_000, 4)).isTrue();
+
+        // the bucket is full: fail closed
+        assertThat(nonces.add(1_000, 5)).isFalse();
+
+        // six buckets of 5 seconds later the bucket is recycled
+        assertThat(nonces.add(30_000, 5)).isTrue();
+        assertThat(nonces.add(30_000, 1)).isTrue();
+    }
+
+    /**
+     * The reactive filter verifies the headers as the servlet filter does, and answers unsigned exchanges with 401.
+     */
+    @Test
+    void testReactiveFilterRejectsUnsignedHeaders() {
+        ReactiveAuthenticationWebFilter filter = new ReactiveAuthenticationWebFilter(new AuthenticationContextResolver());
+        filter.setHeaderSignatureVerifier(verifier);
+
+        MockServerHttpRequest.BaseBuilder<?> signed = MockServerHttpRequest.get("/context")
+                .header(SecurityHeaders.X_USER_ID.getName(), USER_ID)
+                .header(SecurityHeaders.X_SCOPES.getName(), "read");
+        sign(USER_ID, "read", null).forEach(signed::header);
+        AtomicBoolean invoked = new AtomicBoolean();
+
+        filter.filter(MockServerWebExchange.from(signed), _ -> Mono.fromRunnable(() -> invoked.set(true))).block();
+
+        assertThat(invoked).isTrue();
+
+        MockServerWebExchange unsigned = MockServerWebExchange.from(MockServerHttpRequest.get("/context")
+                .header(SecurityHeaders.X_USER_ID.getName(), USER_ID)
+                .header(SecurityHeaders.X_SCOPES.getName(), "read"));
+
+        filter.filter(unsigned, _ -> Mono.error(new AssertionError("The filter chain must not be invoked"))).block();
+
+        assertThat(unsigned.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private Map<String, String> sign(String userId, String scopes, String apiGateway) {
+        Map<String, String> headers = new HashMap<>();
+        signer.sign(userId, scopes, apiGateway, headers::put);
+        return headers;
+    }
+
+    private boolean verify(String userId, String scopes, String apiGateway, Map<String, String> signature) {
+        return verifier.verify(userId, scopes, apiGateway,
+                signature.get(SecurityHeaders.X_SIGNATURE_TIMESTAMP.getName()),
+                signature.get(SecurityHeaders.X_SIGNATURE_NONCE.getName()),
+                signature.get(SecurityHeaders.X_SIGNATURE.getName()));
+    }
+}